@@ -0,0 +1,127 @@
+package org.banki.util;
+
+import banki.util.Arrays;
+import banki.util.Random;
+
+/**
+ * Times {@link Base58} against the digit-at-a-time algorithm it replaced,
+ * for 32- and 64-byte values. It lives in the bench source root, outside
+ * src, so it never ships with the wallet; compile it against src and run
+ * {@code java org.banki.util.Base58Benchmark}.
+ */
+public final class Base58Benchmark {
+
+    private static final char[] ALPHABET =
+            "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
+
+    private static final int ITERATIONS = 20000;
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        Random random = new Random(58);
+
+        for (int size : new int[] { 32, 64 }) {
+            byte[][] values = new byte[256][size];
+            String[] encoded = new String[values.length];
+            for (int i = 0; i < values.length; i++) {
+                random.nextBytes(values[i]);
+                encoded[i] = Base58.encode(values[i]);
+
+                if (!encoded[i].equals(legacyEncode(values[i])) || !Arrays.equals(values[i], legacyDecode(encoded[i]))) {
+                    throw new IllegalStateException("Implementations disagree");
+                }
+            }
+
+            for (int round = 0; round < 3; round++) {
+                long t0 = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    sink = Base58.encode(values[i & 255]);
+                }
+                long t1 = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    sink = legacyEncode(values[i & 255]);
+                }
+                long t2 = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    sink = Base58.decode(encoded[i & 255]);
+                }
+                long t3 = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    sink = legacyDecode(encoded[i & 255]);
+                }
+                long t4 = System.nanoTime();
+
+                System.out.println(size + " bytes: encode " + nanos(t1 - t0) + " ns (was " + nanos(t2 - t1)
+                        + "), decode " + nanos(t3 - t2) + " ns (was " + nanos(t4 - t3) + ")");
+            }
+        }
+    }
+
+    private static long nanos(long total) {
+        return total / ITERATIONS;
+    }
+
+    private static String legacyEncode(byte[] input) {
+        int zeros = 0;
+        while (zeros < input.length && input[zeros] == 0) {
+            zeros++;
+        }
+
+        byte[] number = Arrays.copyOf(input, input.length);
+        char[] out = new char[input.length * 2];
+        int pos = out.length;
+
+        for (int start = zeros; start < number.length;) {
+            out[--pos] = ALPHABET[divmod(number, start, 256, 58)];
+            if (number[start] == 0) {
+                start++;
+            }
+        }
+        while (pos < out.length && out[pos] == ALPHABET[0]) {
+            pos++;
+        }
+        while (--zeros >= 0) {
+            out[--pos] = ALPHABET[0];
+        }
+
+        return new String(out, pos, out.length - pos);
+    }
+
+    private static byte[] legacyDecode(String input) {
+        byte[] input58 = new byte[input.length()];
+        for (int i = 0; i < input.length(); i++) {
+            input58[i] = (byte) new String(ALPHABET).indexOf(input.charAt(i));
+        }
+
+        int zeros = 0;
+        while (zeros < input58.length && input58[zeros] == 0) {
+            zeros++;
+        }
+
+        byte[] decoded = new byte[input.length()];
+        int pos = decoded.length;
+        for (int start = zeros; start < input58.length;) {
+            decoded[--pos] = (byte) divmod(input58, start, 58, 256);
+            if (input58[start] == 0) {
+                start++;
+            }
+        }
+        while (pos < decoded.length && decoded[pos] == 0) {
+            pos++;
+        }
+
+        return Arrays.copyOfRange(decoded, pos - zeros, decoded.length);
+    }
+
+    private static int divmod(byte[] number, int start, int base, int divisor) {
+        int remainder = 0;
+        for (int i = start; i < number.length; i++) {
+            int temp = remainder * base + (number[i] & 0xff);
+            number[i] = (byte) (temp / divisor);
+            remainder = temp % divisor;
+        }
+        return remainder;
+    }
+
+}
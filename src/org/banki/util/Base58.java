@@ -0,0 +1,228 @@
+package org.banki.util;
+
+/**
+ * Base58 codec with the Bitcoin alphabet.
+ * <p>
+ * Both directions work on big-endian 32-bit limbs and move five Base58
+ * digits per step (58^5 fits in 30 bits), instead of one digit per pass
+ * over a byte array. Output is produced straight into a char or byte array,
+ * without intermediate {@code BigInteger} or {@code String} objects. The
+ * 32- and 64-byte variants cover public keys, blockhashes and signatures
+ * and can read from or write into a caller's buffer.
+ */
+public final class Base58 {
+
+    private static final char[] ALPHABET =
+            "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
+
+    private static final byte[] INDEXES = new byte[128];
+
+    private static final long[] POW58 = { 1L, 58L, 3364L, 195112L, 11316496L, 656356768L };
+
+    private static final long R5 = POW58[5];
+
+    static {
+        for (int i = 0; i < INDEXES.length; i++) {
+            INDEXES[i] = -1;
+        }
+        for (int i = 0; i < ALPHABET.length; i++) {
+            INDEXES[ALPHABET[i]] = (byte) i;
+        }
+    }
+
+    private Base58() {
+    }
+
+    public static String encode(byte[] input) {
+        return encode(input, 0, input.length);
+    }
+
+    /**
+     * Encodes a 32-byte value such as a public key or blockhash.
+     */
+    public static String encode32(byte[] input, int offset) {
+        return encode(input, offset, 32);
+    }
+
+    /**
+     * Encodes a 64-byte value such as a signature.
+     */
+    public static String encode64(byte[] input, int offset) {
+        return encode(input, offset, 64);
+    }
+
+    public static String encode(byte[] input, int offset, int length) {
+        int zeros = 0;
+        while (zeros < length && input[offset + zeros] == 0) {
+            zeros++;
+        }
+
+        // pack the significant bytes into limbs, most significant first
+        int n = length - zeros;
+        int limbs = (n + 3) >> 2;
+        int[] x = new int[limbs];
+        for (int j = (limbs << 2) - n, i = offset + zeros; j < limbs << 2; j++, i++) {
+            x[j >> 2] |= (input[i] & 0xff) << ((3 - (j & 3)) << 3);
+        }
+
+        // at most 1.3658 digits per byte, in whole groups of five
+        char[] out = new char[zeros + (n * 1366 / 1000 + 1) + 5];
+        int pos = out.length;
+        int top = 0;
+
+        while (top < limbs) {
+            long rem = 0;
+            for (int i = top; i < limbs; i++) {
+                long cur = (rem << 32) | (x[i] & 0xffffffffL);
+                x[i] = (int) (cur / R5);
+                rem = cur % R5;
+            }
+            while (top < limbs && x[top] == 0) {
+                top++;
+            }
+
+            int r = (int) rem;
+            for (int k = 0; k < 5; k++) {
+                out[--pos] = ALPHABET[r % 58];
+                r /= 58;
+            }
+        }
+
+        // the last group may have been padded with zero digits
+        while (pos < out.length && out[pos] == ALPHABET[0]) {
+            pos++;
+        }
+        for (int k = 0; k < zeros; k++) {
+            out[--pos] = ALPHABET[0];
+        }
+
+        return new String(out, pos, out.length - pos);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the input is not valid Base58
+     */
+    public static byte[] decode(String input) {
+        int length = input.length();
+        int zeros = 0;
+        while (zeros < length && input.charAt(zeros) == ALPHABET[0]) {
+            zeros++;
+        }
+
+        // at most 0.7323 bytes per digit
+        int[] x = new int[((length - zeros) * 7323 / 10000 + 4) / 4 + 1];
+        accumulate(input, zeros, x);
+
+        int skip = 0;
+        while (skip < x.length * 4 && limbByte(x, skip) == 0) {
+            skip++;
+        }
+
+        byte[] out = new byte[zeros + x.length * 4 - skip];
+        for (int i = zeros, j = skip; i < out.length; i++, j++) {
+            out[i] = limbByte(x, j);
+        }
+
+        return out;
+    }
+
+    /**
+     * Decodes a value that must be exactly 32 bytes long.
+     *
+     * @throws IllegalArgumentException if the input is not valid Base58 or
+     *                                  has another length
+     */
+    public static byte[] decode32(String input) {
+        byte[] out = new byte[32];
+        decode(input, out, 0, 32);
+        return out;
+    }
+
+    /**
+     * Decodes a value that must be exactly 64 bytes long.
+     */
+    public static byte[] decode64(String input) {
+        byte[] out = new byte[64];
+        decode(input, out, 0, 64);
+        return out;
+    }
+
+    /**
+     * Decodes into output[offset..offset+length), requiring the input to be
+     * the canonical encoding of exactly that many bytes.
+     */
+    public static void decode(String input, byte[] output, int offset, int length) {
+        int zeros = 0;
+        while (zeros < input.length() && input.charAt(zeros) == ALPHABET[0]) {
+            zeros++;
+        }
+        if (zeros > length) {
+            throw new IllegalArgumentException("Invalid Base58 length");
+        }
+
+        int[] x = new int[(length + 3) >> 2];
+        accumulate(input, zeros, x);
+
+        int pad = x.length * 4 - length;
+        for (int j = 0; j < pad; j++) {
+            if (limbByte(x, j) != 0) {
+                throw new IllegalArgumentException("Invalid Base58 length");
+            }
+        }
+
+        int leading = 0;
+        for (int i = 0; i < length; i++) {
+            output[offset + i] = limbByte(x, pad + i);
+            if (leading == i && output[offset + i] == 0) {
+                leading++;
+            }
+        }
+
+        // one '1' per leading zero byte, or the value was too short
+        if (leading != zeros) {
+            throw new IllegalArgumentException("Invalid Base58 length");
+        }
+    }
+
+    /**
+     * x = value of input[from..], five digits at a time.
+     */
+    private static void accumulate(String input, int from, int[] x) {
+        int length = input.length();
+        int take = (length - from) % 5;
+        if (take == 0) {
+            take = 5;
+        }
+
+        for (int pos = from; pos < length; take = 5) {
+            long v = 0;
+            for (int k = 0; k < take; k++) {
+                v = v * 58 + digit(input.charAt(pos++));
+            }
+
+            long mul = POW58[take];
+            long carry = v;
+            for (int i = x.length - 1; i >= 0; i--) {
+                long cur = (x[i] & 0xffffffffL) * mul + carry;
+                x[i] = (int) cur;
+                carry = cur >>> 32;
+            }
+            if (carry != 0) {
+                throw new IllegalArgumentException("Invalid Base58 length");
+            }
+        }
+    }
+
+    private static int digit(char c) {
+        int d = c < 128 ? INDEXES[c] : -1;
+        if (d < 0) {
+            throw new IllegalArgumentException("Invalid Base58 character: " + c);
+        }
+        return d;
+    }
+
+    private static byte limbByte(int[] x, int index) {
+        return (byte) (x[index >> 2] >>> ((3 - (index & 3)) << 3));
+    }
+
+}
@@ -1,5 +1,6 @@
 package org.p2p.solanaj.core;
 
+import banki.util.Arrays;
 import banki.util.List;
 
 import org.bitcoinj.crypto.DeterministicHierarchy;
@@ -11,6 +12,8 @@ import org.p2p.solanaj.utils.TweetNaclFast;
 
 public class Account {
     private TweetNaclFast.Signature.KeyPair keyPair;
+    private TweetNaclFast.Signature signer;
+    private volatile boolean wiped;
 
     public Account() {
         this.keyPair = TweetNaclFast.Signature.keyPair();
@@ -42,4 +45,47 @@ public class Account {
     public byte[] getSecretKey() {
         return keyPair.getSecretKey();
     }
+
+    public byte[] sign(byte[] message) {
+        byte[] signature = new byte[TweetNaclFast.Signature.signatureLength];
+        sign(message, 0, message.length, signature, 0);
+
+        return signature;
+    }
+
+    /**
+     * Signs {@code message[offset..offset+length)} into {@code signature} at
+     * {@code signatureOffset}. The expanded secret key is kept between calls,
+     * so repeated signing does no key expansion and allocates nothing.
+     */
+    public void sign(byte[] message, int offset, int length, byte[] signature, int signatureOffset) {
+        getSigner().detached(message, offset, length, signature, signatureOffset);
+    }
+
+    /**
+     * Zeroes the secret key and its cached expansion. The account cannot sign
+     * afterwards.
+     */
+    public synchronized void wipe() {
+        wiped = true;
+
+        if (signer != null) {
+            signer.wipe();
+            signer = null;
+        }
+
+        Arrays.fill(keyPair.getSecretKey(), (byte) 0);
+    }
+
+    private synchronized TweetNaclFast.Signature getSigner() {
+        if (wiped) {
+            throw new IllegalStateException("Account has been wiped");
+        }
+
+        if (signer == null) {
+            signer = new TweetNaclFast.Signature(new byte[0], keyPair.getSecretKey());
+        }
+
+        return signer;
+    }
 }
@@ -3,24 +3,36 @@ package org.p2p.solanaj.core;
 import banki.util.ArrayList;
 import banki.util.Collection;
 import banki.util.Comparator;
-import banki.util.HashMap;
 
 public class AccountKeysList {
-    private HashMap<String, AccountMeta> accounts;
+    private ArrayList<AccountMeta> accounts;
+    private PublicKeyIndex index;
 
     public AccountKeysList() {
-        accounts = new HashMap<String, AccountMeta>();
+        accounts = new ArrayList<AccountMeta>();
+        index = new PublicKeyIndex(16);
     }
 
+    /**
+     * Adds an account, or merges it into the entry for the same key so that
+     * the key stays a signer or writable if any of its uses is.
+     */
     public void add(AccountMeta accountMeta) {
-        String key = accountMeta.getPublicKey().toString();
+        PublicKey key = accountMeta.getPublicKey();
+        int i = index.get(key);
 
-        if (accounts.containsKey(key)) {
-            if (!accounts.get(key).isWritable() && accountMeta.isWritable()) {
-                accounts.put(key, accountMeta);
-            }
-        } else {
-            accounts.put(key, accountMeta);
+        if (i < 0) {
+            index.put(key, accounts.size());
+            accounts.add(accountMeta);
+            return;
+        }
+
+        AccountMeta existing = accounts.get(i);
+        boolean isSigner = existing.isSigner() || accountMeta.isSigner();
+        boolean isWritable = existing.isWritable() || accountMeta.isWritable();
+
+        if (isSigner != existing.isSigner() || isWritable != existing.isWritable()) {
+            accounts.set(i, new AccountMeta(existing.getPublicKey(), isSigner, isWritable));
         }
     }
 
@@ -30,8 +42,16 @@ public class AccountKeysList {
         }
     }
 
+    public int size() {
+        return accounts.size();
+    }
+
+    /**
+     * Returns the accounts signers first, then writable ones, each group in
+     * the order the keys were first added.
+     */
     public ArrayList<AccountMeta> getList() {
-        ArrayList<AccountMeta> accountKeysList = new ArrayList<AccountMeta>(accounts.values());
+        ArrayList<AccountMeta> accountKeysList = new ArrayList<AccountMeta>(accounts);
         accountKeysList.sort(metaComparator);
 
         return accountKeysList;
@@ -0,0 +1,108 @@
+package org.p2p.solanaj.core;
+
+import org.p2p.solanaj.utils.ShortvecEncoding;
+
+/**
+ * A message with its header counted, account indices resolved and exact wire
+ * size known, so that it can be written into a caller's buffer in one pass.
+ */
+public class CompiledMessage {
+    static final int HEADER_LENGTH = 3;
+    static final int RECENT_BLOCK_HASH_LENGTH = 32;
+
+    private final byte numRequiredSignatures;
+    private final byte numReadonlySignedAccounts;
+    private final byte numReadonlyUnsignedAccounts;
+    private final PublicKey[] accountKeys;
+    private final byte[] recentBlockhash;
+    private final byte[] programIdIndices;
+    private final byte[][] keyIndices;
+    private final byte[][] data;
+    private final int length;
+
+    CompiledMessage(byte numRequiredSignatures, byte numReadonlySignedAccounts, byte numReadonlyUnsignedAccounts,
+            PublicKey[] accountKeys, byte[] recentBlockhash, byte[] programIdIndices, byte[][] keyIndices,
+            byte[][] data) {
+        this.numRequiredSignatures = numRequiredSignatures;
+        this.numReadonlySignedAccounts = numReadonlySignedAccounts;
+        this.numReadonlyUnsignedAccounts = numReadonlyUnsignedAccounts;
+        this.accountKeys = accountKeys;
+        this.recentBlockhash = recentBlockhash;
+        this.programIdIndices = programIdIndices;
+        this.keyIndices = keyIndices;
+        this.data = data;
+
+        int size = HEADER_LENGTH + ShortvecEncoding.encodedLength(accountKeys.length)
+                + accountKeys.length * PublicKey.PUBLIC_KEY_LENGTH + RECENT_BLOCK_HASH_LENGTH
+                + ShortvecEncoding.encodedLength(programIdIndices.length);
+
+        for (int i = 0; i < programIdIndices.length; i++) {
+            // 1 = programIdIndex length
+            size += 1 + ShortvecEncoding.encodedLength(keyIndices[i].length) + keyIndices[i].length
+                    + ShortvecEncoding.encodedLength(data[i].length) + data[i].length;
+        }
+
+        this.length = size;
+    }
+
+    public int getNumRequiredSignatures() {
+        return numRequiredSignatures;
+    }
+
+    public int getAccountKeysCount() {
+        return accountKeys.length;
+    }
+
+    public PublicKey getAccountKey(int index) {
+        return accountKeys[index];
+    }
+
+    public int getSerializedLength() {
+        return length;
+    }
+
+    /**
+     * Writes the message into {@code out} at {@code offset} and returns the
+     * offset just past it.
+     */
+    public int writeTo(byte[] out, int offset) {
+        if (offset < 0 || out.length - offset < length) {
+            throw new IllegalArgumentException("Buffer too small for message of " + length + " bytes");
+        }
+
+        out[offset++] = numRequiredSignatures;
+        out[offset++] = numReadonlySignedAccounts;
+        out[offset++] = numReadonlyUnsignedAccounts;
+
+        offset = ShortvecEncoding.encodeLength(accountKeys.length, out, offset);
+        for (PublicKey key : accountKeys) {
+            System.arraycopy(key.toByteArray(), 0, out, offset, PublicKey.PUBLIC_KEY_LENGTH);
+            offset += PublicKey.PUBLIC_KEY_LENGTH;
+        }
+
+        System.arraycopy(recentBlockhash, 0, out, offset, RECENT_BLOCK_HASH_LENGTH);
+        offset += RECENT_BLOCK_HASH_LENGTH;
+
+        offset = ShortvecEncoding.encodeLength(programIdIndices.length, out, offset);
+        for (int i = 0; i < programIdIndices.length; i++) {
+            out[offset++] = programIdIndices[i];
+
+            offset = ShortvecEncoding.encodeLength(keyIndices[i].length, out, offset);
+            System.arraycopy(keyIndices[i], 0, out, offset, keyIndices[i].length);
+            offset += keyIndices[i].length;
+
+            offset = ShortvecEncoding.encodeLength(data[i].length, out, offset);
+            System.arraycopy(data[i], 0, out, offset, data[i].length);
+            offset += data[i].length;
+        }
+
+        return offset;
+    }
+
+    public byte[] serialize() {
+        byte[] out = new byte[length];
+        writeTo(out, 0);
+
+        return out;
+    }
+}
@@ -1,46 +1,17 @@
 package org.p2p.solanaj.core;
 
-import banki.nio.ByteBuffer;
 import banki.util.ArrayList;
 import banki.util.List;
 
 import org.banki.util.Base58;
 
-import org.p2p.solanaj.utils.ShortvecEncoding;
-
 public class Message {
-    private class MessageHeader {
-        static final int HEADER_LENGTH = 3;
-
-        byte numRequiredSignatures = 0;
-        byte numReadonlySignedAccounts = 0;
-        byte numReadonlyUnsignedAccounts = 0;
-
-        byte[] toByteArray() {
-            return new byte[] { numRequiredSignatures, numReadonlySignedAccounts, numReadonlyUnsignedAccounts };
-        }
-    }
-
-    private class CompiledInstruction {
-        byte programIdIndex;
-        byte[] keyIndicesCount;
-        byte[] keyIndices;
-        byte[] dataLength;
-        byte[] data;
-
-        int getLength() {
-            // 1 = programIdIndex length
-            return 1 + keyIndicesCount.length + keyIndices.length + dataLength.length + data.length;
-        }
-    }
-
-    private static final int RECENT_BLOCK_HASH_LENGTH = 32;
-
-    private MessageHeader messageHeader;
     private String recentBlockhash;
+    private byte[] recentBlockhashBytes;
     private AccountKeysList accountKeys;
     private List<TransactionInstruction> instructions;
     private Account feePayer;
+    private CompiledMessage compiled;
 
     public Message() {
         this.accountKeys = new AccountKeysList();
@@ -51,15 +22,34 @@ public class Message {
         accountKeys.addAll(instruction.getKeys());
         accountKeys.add(new AccountMeta(instruction.getProgramId(), false, false));
         instructions.add(instruction);
+        compiled = null;
 
         return this;
     }
 
     public void setRecentBlockHash(String recentBlockhash) {
+        if (recentBlockhash != null && recentBlockhash.equals(this.recentBlockhash)) {
+            return;
+        }
+
         this.recentBlockhash = recentBlockhash;
+        this.recentBlockhashBytes = null;
+        compiled = null;
     }
 
     public byte[] serialize() {
+        return compile().serialize();
+    }
+
+    /**
+     * Orders the account keys, counts the header and resolves every
+     * instruction's account indices. The result is kept until the message
+     * changes, so signing and serializing compile only once.
+     */
+    public CompiledMessage compile() {
+        if (compiled != null) {
+            return compiled;
+        }
 
         if (recentBlockhash == null) {
             throw new IllegalArgumentException("recentBlockhash required");
@@ -69,88 +59,75 @@ public class Message {
             throw new IllegalArgumentException("No instructions provided");
         }
 
-        messageHeader = new MessageHeader();
+        if (recentBlockhashBytes == null) {
+            recentBlockhashBytes = Base58.decode32(recentBlockhash);
+        }
 
         List<AccountMeta> keysList = getAccountKeys();
         int accountKeysSize = keysList.size();
 
-        byte[] accountAddressesLength = ShortvecEncoding.encodeLength(accountKeysSize);
-
-        int compiledInstructionsLength = 0;
-        List<CompiledInstruction> compiledInstructions = new ArrayList<CompiledInstruction>();
+        PublicKey[] keys = new PublicKey[accountKeysSize];
+        PublicKeyIndex indices = new PublicKeyIndex(accountKeysSize);
 
-        for (TransactionInstruction instruction : instructions) {
-            int keysSize = instruction.getKeys().size();
-
-            byte[] keyIndices = new byte[keysSize];
-            for (int i = 0; i < keysSize; i++) {
-                keyIndices[i] = (byte) findAccountIndex(keysList, instruction.getKeys().get(i).getPublicKey());
-            }
-
-            CompiledInstruction compiledInstruction = new CompiledInstruction();
-            compiledInstruction.programIdIndex = (byte) findAccountIndex(keysList, instruction.getProgramId());
-            compiledInstruction.keyIndicesCount = ShortvecEncoding.encodeLength(keysSize);
-            compiledInstruction.keyIndices = keyIndices;
-            compiledInstruction.dataLength = ShortvecEncoding.encodeLength(instruction.getData().length);
-            compiledInstruction.data = instruction.getData();
-
-            compiledInstructions.add(compiledInstruction);
-
-            compiledInstructionsLength += compiledInstruction.getLength();
-        }
-
-        byte[] instructionsLength = ShortvecEncoding.encodeLength(compiledInstructions.size());
-
-        int bufferSize = MessageHeader.HEADER_LENGTH + RECENT_BLOCK_HASH_LENGTH + accountAddressesLength.length
-                + (accountKeysSize * PublicKey.PUBLIC_KEY_LENGTH) + instructionsLength.length
-                + compiledInstructionsLength;
+        byte numRequiredSignatures = 0;
+        byte numReadonlySignedAccounts = 0;
+        byte numReadonlyUnsignedAccounts = 0;
 
-        ByteBuffer out = ByteBuffer.allocate(bufferSize);
+        for (int i = 0; i < accountKeysSize; i++) {
+            AccountMeta accountMeta = keysList.get(i);
 
-        ByteBuffer accountKeysBuff = ByteBuffer.allocate(accountKeysSize * PublicKey.PUBLIC_KEY_LENGTH);
-        for (AccountMeta accountMeta : keysList) {
-            accountKeysBuff.put(accountMeta.getPublicKey().toByteArray());
+            keys[i] = accountMeta.getPublicKey();
+            indices.put(keys[i], i);
 
             if (accountMeta.isSigner()) {
-                messageHeader.numRequiredSignatures += 1;
+                numRequiredSignatures += 1;
                 if (!accountMeta.isWritable()) {
-                    messageHeader.numReadonlySignedAccounts += 1;
+                    numReadonlySignedAccounts += 1;
                 }
             } else {
                 if (!accountMeta.isWritable()) {
-                    messageHeader.numReadonlyUnsignedAccounts += 1;
+                    numReadonlyUnsignedAccounts += 1;
                 }
             }
         }
 
-        out.put(messageHeader.toByteArray());
+        int instructionsSize = instructions.size();
+        byte[] programIdIndices = new byte[instructionsSize];
+        byte[][] keyIndices = new byte[instructionsSize][];
+        byte[][] data = new byte[instructionsSize][];
+
+        for (int i = 0; i < instructionsSize; i++) {
+            TransactionInstruction instruction = instructions.get(i);
+            List<AccountMeta> instructionKeys = instruction.getKeys();
 
-        out.put(accountAddressesLength);
-        out.put(accountKeysBuff.array());
+            programIdIndices[i] = (byte) findAccountIndex(indices, instruction.getProgramId());
 
-        out.put(Base58.decode(recentBlockhash));
+            keyIndices[i] = new byte[instructionKeys.size()];
+            for (int j = 0; j < keyIndices[i].length; j++) {
+                keyIndices[i][j] = (byte) findAccountIndex(indices, instructionKeys.get(j).getPublicKey());
+            }
 
-        out.put(instructionsLength);
-        for (CompiledInstruction compiledInstruction : compiledInstructions) {
-            out.put(compiledInstruction.programIdIndex);
-            out.put(compiledInstruction.keyIndicesCount);
-            out.put(compiledInstruction.keyIndices);
-            out.put(compiledInstruction.dataLength);
-            out.put(compiledInstruction.data);
+            data[i] = instruction.getData();
         }
 
-        return out.array();
+        compiled = new CompiledMessage(numRequiredSignatures, numReadonlySignedAccounts, numReadonlyUnsignedAccounts,
+                keys, recentBlockhashBytes, programIdIndices, keyIndices, data);
+
+        return compiled;
     }
 
     protected void setFeePayer(Account feePayer) {
-        this.feePayer = feePayer;
+        if (this.feePayer != feePayer) {
+            this.feePayer = feePayer;
+            compiled = null;
+        }
     }
 
     private List<AccountMeta> getAccountKeys() {
         List<AccountMeta> keysList = accountKeys.getList();
         int feePayerIndex = findAccountIndex(keysList, feePayer.getPublicKey());
 
-        List<AccountMeta> newList = new ArrayList<AccountMeta>();
+        List<AccountMeta> newList = new ArrayList<AccountMeta>(keysList.size());
         AccountMeta feePayerMeta = keysList.get(feePayerIndex);
         newList.add(new AccountMeta(feePayerMeta.getPublicKey(), true, true));
         keysList.remove(feePayerIndex);
@@ -168,4 +145,14 @@ public class Message {
 
         throw new RuntimeException("unable to find account index");
     }
+
+    private int findAccountIndex(PublicKeyIndex indices, PublicKey key) {
+        int index = indices.get(key);
+
+        if (index < 0) {
+            throw new RuntimeException("unable to find account index");
+        }
+
+        return index;
+    }
 }
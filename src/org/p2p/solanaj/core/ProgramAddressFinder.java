@@ -0,0 +1,173 @@
+package org.p2p.solanaj.core;
+
+import banki.nio.ByteBuffer;
+import banki.util.LinkedHashMap;
+import banki.util.List;
+import banki.util.Map;
+
+import org.p2p.solanaj.core.PublicKey.ProgramDerivedAddress;
+import org.p2p.solanaj.utils.Sha256;
+import org.p2p.solanaj.utils.TweetNaclFast;
+
+/**
+ * Derives program addresses without per-attempt allocation. The seeds are
+ * hashed once and every bump nonce continues from that SHA-256 midstate, an
+ * on-curve candidate is simply skipped, and found addresses are kept in a
+ * bounded LRU cache keyed on (seeds, programId).
+ */
+public class ProgramAddressFinder {
+
+    public static final int MAX_SEEDS = 16;
+    public static final int MAX_SEED_LENGTH = 32;
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+
+    private static final byte[] PDA_MARKER = {
+        'P', 'r', 'o', 'g', 'r', 'a', 'm', 'D', 'e', 'r', 'i', 'v', 'e', 'd',
+        'A', 'd', 'd', 'r', 'e', 's', 's'
+    };
+
+    private static final ProgramAddressFinder DEFAULT = new ProgramAddressFinder(DEFAULT_CACHE_SIZE);
+
+    private final Sha256 prefix = new Sha256();
+    private final Sha256 work = new Sha256();
+    private final byte[] hash = new byte[Sha256.HASH_LENGTH];
+    private final byte[][] seedArray = new byte[MAX_SEEDS][];
+    private final Map<ByteBuffer, ProgramDerivedAddress> cache;
+
+    public ProgramAddressFinder(final int cacheSize) {
+        cache = new LinkedHashMap<ByteBuffer, ProgramDerivedAddress>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, ProgramDerivedAddress> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public static ProgramAddressFinder getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return the address for the seeds, or null if it lies on the curve
+     */
+    public synchronized PublicKey createProgramAddress(List<byte[]> seeds, PublicKey programId) {
+        int count = toArray(seeds, MAX_SEEDS);
+
+        prefix.reset();
+        for (int i = 0; i < count; i++) {
+            prefix.update(seedArray[i]);
+        }
+        clearSeeds(count);
+
+        return derive(programId.toByteArray()) ? new PublicKey(hash.clone()) : null;
+    }
+
+    public synchronized ProgramDerivedAddress findProgramAddress(List<byte[]> seeds, PublicKey programId) {
+        int count = toArray(seeds, MAX_SEEDS - 1);
+        ProgramDerivedAddress address = find(seedArray, count, programId);
+        clearSeeds(count);
+        return address;
+    }
+
+    /**
+     * @return the address with the highest bump nonce that falls off the
+     *         curve, or null if none does
+     */
+    public synchronized ProgramDerivedAddress findProgramAddress(byte[][] seeds, PublicKey programId) {
+        if (seeds.length > MAX_SEEDS - 1) {
+            throw new IllegalArgumentException("Max seeds exceeded");
+        }
+        for (byte[] seed : seeds) {
+            checkSeed(seed);
+        }
+
+        return find(seeds, seeds.length, programId);
+    }
+
+    public synchronized void clearCache() {
+        cache.clear();
+    }
+
+    private ProgramDerivedAddress find(byte[][] seeds, int count, PublicKey programId) {
+        byte[] program = programId.toByteArray();
+        ByteBuffer key = cacheKey(seeds, count, program);
+
+        ProgramDerivedAddress cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        prefix.reset();
+        for (int i = 0; i < count; i++) {
+            prefix.update(seeds[i]);
+        }
+
+        for (int nonce = 255; nonce != 0; nonce--) {
+            work.set(prefix);
+            work.update((byte) nonce);
+            if (derive(work, program)) {
+                ProgramDerivedAddress address = new ProgramDerivedAddress(new PublicKey(hash.clone()), nonce);
+                cache.put(key, address);
+                return address;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean derive(byte[] program) {
+        work.set(prefix);
+        return derive(work, program);
+    }
+
+    private boolean derive(Sha256 sha, byte[] program) {
+        sha.update(program);
+        sha.update(PDA_MARKER);
+        sha.digest(hash, 0);
+
+        return !TweetNaclFast.is_on_curve(hash, 0);
+    }
+
+    private static ByteBuffer cacheKey(byte[][] seeds, int count, byte[] program) {
+        int length = program.length;
+        for (int i = 0; i < count; i++) {
+            length += 1 + seeds[i].length;
+        }
+
+        ByteBuffer key = ByteBuffer.allocate(length);
+        for (int i = 0; i < count; i++) {
+            key.put((byte) seeds[i].length);
+            key.put(seeds[i]);
+        }
+        key.put(program);
+        key.flip();
+
+        return key;
+    }
+
+    private int toArray(List<byte[]> seeds, int max) {
+        if (seeds.size() > max) {
+            throw new IllegalArgumentException("Max seeds exceeded");
+        }
+
+        int count = 0;
+        for (byte[] seed : seeds) {
+            checkSeed(seed);
+            seedArray[count++] = seed;
+        }
+        return count;
+    }
+
+    private void clearSeeds(int count) {
+        for (int i = 0; i < count; i++) {
+            seedArray[i] = null;
+        }
+    }
+
+    private static void checkSeed(byte[] seed) {
+        if (seed.length > MAX_SEED_LENGTH) {
+            throw new IllegalArgumentException("Max seed length exceeded");
+        }
+    }
+
+}
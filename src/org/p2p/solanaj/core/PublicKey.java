@@ -1,27 +1,34 @@
 package org.p2p.solanaj.core;
 
-import banki.io.ByteArrayOutputStream;
-import banki.util.ArrayList;
 import banki.util.Arrays;
+import banki.util.HashMap;
 import banki.util.List;
 
 import org.banki.util.Base58;
-import org.bitcoinj.core.Sha256Hash;
 import org.p2p.solanaj.utils.ByteUtils;
-import org.p2p.solanaj.utils.TweetNaclFast;
 
 public class PublicKey {
 
     public static final int PUBLIC_KEY_LENGTH = 32;
 
+    private static final HashMap<PublicKey, PublicKey> interned = new HashMap<PublicKey, PublicKey>();
+
     private byte[] pubkey;
+    private int hash;
+    private String base58;
 
     public PublicKey(String pubkey) {
         if (pubkey.length() < PUBLIC_KEY_LENGTH) {
             throw new IllegalArgumentException("Invalid public key input");
         }
 
-        this.pubkey = Base58.decode(pubkey);
+        try {
+            this.pubkey = Base58.decode32(pubkey);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid public key input");
+        }
+        // decode32 accepts only the canonical encoding, so keep it
+        this.base58 = pubkey;
     }
 
     public PublicKey(byte[] pubkey) {
@@ -33,48 +40,89 @@ public class PublicKey {
         this.pubkey = pubkey;
     }
 
+    /**
+     * Returns the canonical instance for a well-known key such as a program
+     * id, creating it on first use. Meant for a small fixed set of keys; the
+     * pool is never trimmed.
+     */
+    public static PublicKey valueOf(String pubkey) {
+        return intern(new PublicKey(pubkey));
+    }
+
+    public static PublicKey intern(PublicKey key) {
+        synchronized (interned) {
+            PublicKey canonical = interned.get(key);
+            if (canonical == null) {
+                interned.put(key, key);
+                canonical = key;
+            }
+            return canonical;
+        }
+    }
+
+    /**
+     * Reads a key, returning the interned instance if the key is one.
+     */
     public static PublicKey readPubkey(byte[] bytes, int offset) {
         byte[] buf = ByteUtils.readBytes(bytes, offset, PUBLIC_KEY_LENGTH);
-        return new PublicKey(buf);
+        PublicKey key = new PublicKey(buf);
+
+        synchronized (interned) {
+            PublicKey canonical = interned.get(key);
+            return canonical != null ? canonical : key;
+        }
     }
 
     public byte[] toByteArray() {
         return pubkey;
     }
 
+    /**
+     * Encoded on first use and cached, like {@link #hashCode()}.
+     */
     public String toBase58() {
-        return Base58.encode(pubkey);
+        String s = base58;
+        if (s == null) {
+            s = pubkey.length == PUBLIC_KEY_LENGTH ? Base58.encode32(pubkey, 0) : Base58.encode(pubkey);
+            base58 = s;
+        }
+        return s;
     }
 
     public boolean equals(PublicKey pubkey) {
-        return Arrays.equals(this.pubkey, pubkey.toByteArray());
+        return pubkey != null && (pubkey == this || Arrays.equals(this.pubkey, pubkey.pubkey));
     }
 
-    public String toString() {
-        return toBase58();
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PublicKey && equals((PublicKey) o);
     }
 
-    public static PublicKey createProgramAddress(List<byte[]> seeds, PublicKey programId) throws Exception {
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-
-        for (byte[] seed : seeds) {
-            if (seed.length > 32) {
-                throw new IllegalArgumentException("Max seed length exceeded");
-            }
-
-            buffer.writeBytes(seed);
+    /**
+     * Cached, so the bytes behind {@link #toByteArray()} must not be changed.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Arrays.hashCode(pubkey);
+            hash = h;
         }
+        return h;
+    }
 
-        buffer.writeBytes(programId.toByteArray());
-        buffer.writeBytes("ProgramDerivedAddress".getBytes());
+    public String toString() {
+        return toBase58();
+    }
 
-        byte[] hash = Sha256Hash.hash(buffer.toByteArray());
+    public static PublicKey createProgramAddress(List<byte[]> seeds, PublicKey programId) throws Exception {
+        PublicKey address = ProgramAddressFinder.getDefault().createProgramAddress(seeds, programId);
 
-        if (TweetNaclFast.is_on_curve(hash) != 0) {
+        if (address == null) {
             throw new Exception("Invalid seeds, address must fall off the curve");
         }
 
-        return new PublicKey(hash);
+        return address;
     }
 
     public static class ProgramDerivedAddress {
@@ -97,26 +145,13 @@ public class PublicKey {
     }
 
     public static ProgramDerivedAddress findProgramAddress(List<byte[]> seeds, PublicKey programId) throws Exception {
-        int nonce = 255;
-        PublicKey address;
-
-        List<byte[]> seedsWithNonce = new ArrayList<byte[]>();
-        seedsWithNonce.addAll(seeds);
-
-        while (nonce != 0) {
-            try {
-                seedsWithNonce.add(new byte[] { (byte) nonce });
-                address = createProgramAddress(seedsWithNonce, programId);
-            } catch (Exception e) {
-                seedsWithNonce.remove(seedsWithNonce.size() - 1);
-                nonce--;
-                continue;
-            }
+        ProgramDerivedAddress address = ProgramAddressFinder.getDefault().findProgramAddress(seeds, programId);
 
-            return new ProgramDerivedAddress(address, nonce);
+        if (address == null) {
+            throw new Exception("Unable to find a viable program address nonce");
         }
 
-        throw new Exception("Unable to find a viable program address nonce");
+        return address;
     }
 
 }
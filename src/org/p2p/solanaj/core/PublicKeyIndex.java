@@ -0,0 +1,88 @@
+package org.p2p.solanaj.core;
+
+/**
+ * Open-addressed map from public keys to non-negative ints. Keys are matched
+ * on their 32 raw bytes through the cached {@link PublicKey#hashCode()}, with
+ * linear probing in a power-of-two table that is kept at most half full.
+ */
+final class PublicKeyIndex {
+    private PublicKey[] keys;
+    private int[] values;
+    private int size;
+
+    PublicKeyIndex(int expected) {
+        int capacity = 8;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+
+        keys = new PublicKey[capacity];
+        values = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the value stored for the key, or -1 if there is none
+     */
+    int get(PublicKey key) {
+        int mask = keys.length - 1;
+
+        for (int slot = slot(key, mask);; slot = (slot + 1) & mask) {
+            PublicKey k = keys[slot];
+            if (k == null) {
+                return -1;
+            }
+            if (k.equals(key)) {
+                return values[slot];
+            }
+        }
+    }
+
+    void put(PublicKey key, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private void grow() {
+        PublicKey[] oldKeys = keys;
+        int[] oldValues = values;
+
+        keys = new PublicKey[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slot(oldKeys[i], mask);
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int slot(PublicKey key, int mask) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -1,25 +1,23 @@
 package org.p2p.solanaj.core;
 
-import banki.nio.ByteBuffer;
-import banki.util.ArrayList;
 import banki.util.Arrays;
 import banki.util.List;
 
 import org.banki.util.Base58;
 import org.p2p.solanaj.utils.ShortvecEncoding;
-import org.p2p.solanaj.utils.TweetNaclFast;
 
 public class Transaction {
 
     public static final int SIGNATURE_LENGTH = 64;
 
     private Message messgae;
-    private List<String> signatures;
+    // raw signatures, SIGNATURE_LENGTH bytes each, in signer order
+    private byte[] signatures;
     private byte[] serializedMessage;
 
     public Transaction() {
         this.messgae = new Message();
-        this.signatures = new ArrayList<String>();
+        this.signatures = new byte[0];
     }
 
     public Transaction addInstruction(TransactionInstruction instruction) {
@@ -45,32 +43,72 @@ public class Transaction {
         Account feePayer = signers.get(0);
         messgae.setFeePayer(feePayer);
 
-        serializedMessage = messgae.serialize();
+        serializedMessage = messgae.compile().serialize();
 
-        for (Account signer : signers) {
-            TweetNaclFast.Signature signatureProvider = new TweetNaclFast.Signature(new byte[0], signer.getSecretKey());
-            byte[] signature = signatureProvider.detached(serializedMessage);
+        // re-signing, e.g. with a new blockhash, replaces earlier signatures
+        byte[] newSignatures = new byte[signers.size() * SIGNATURE_LENGTH];
 
-            signatures.add(Base58.encode(signature));
+        for (int i = 0; i < signers.size(); i++) {
+            signers.get(i).sign(serializedMessage, 0, serializedMessage.length, newSignatures, i * SIGNATURE_LENGTH);
         }
+
+        signatures = newSignatures;
+    }
+
+    /**
+     * Returns the first signature, which identifies the transaction, in
+     * Base58.
+     */
+    public String getSignature() {
+        if (signatures.length == 0) {
+            return null;
+        }
+
+        return Base58.encode64(signatures, 0);
+    }
+
+    /**
+     * Returns the exact size of the signed transaction on the wire.
+     */
+    public int getSerializedLength() {
+        checkSigned();
+
+        int signaturesSize = signatures.length / SIGNATURE_LENGTH;
+        return ShortvecEncoding.encodedLength(signaturesSize) + signatures.length + serializedMessage.length;
     }
 
     public byte[] serialize() {
-        int signaturesSize = signatures.size();
-        byte[] signaturesLength = ShortvecEncoding.encodeLength(signaturesSize);
+        byte[] out = new byte[getSerializedLength()];
+        serialize(out, 0);
 
-        ByteBuffer out = ByteBuffer
-                .allocate(signaturesLength.length + signaturesSize * SIGNATURE_LENGTH + serializedMessage.length);
+        return out;
+    }
 
-        out.put(signaturesLength);
+    /**
+     * Writes the signed transaction into {@code out} at {@code offset}, e.g.
+     * into a reused buffer, and returns the offset just past it.
+     */
+    public int serialize(byte[] out, int offset) {
+        int length = getSerializedLength();
 
-        for (String signature : signatures) {
-            byte[] rawSignature = Base58.decode(signature);
-            out.put(rawSignature);
+        if (offset < 0 || out.length - offset < length) {
+            throw new IllegalArgumentException("Buffer too small for transaction of " + length + " bytes");
         }
 
-        out.put(serializedMessage);
+        offset = ShortvecEncoding.encodeLength(signatures.length / SIGNATURE_LENGTH, out, offset);
+
+        System.arraycopy(signatures, 0, out, offset, signatures.length);
+        offset += signatures.length;
+
+        System.arraycopy(serializedMessage, 0, out, offset, serializedMessage.length);
+        offset += serializedMessage.length;
 
-        return out.array();
+        return offset;
+    }
+
+    private void checkSigned() {
+        if (serializedMessage == null) {
+            throw new IllegalStateException("Transaction is not signed");
+        }
     }
 }
@@ -0,0 +1,261 @@
+package org.p2p.solanaj.core;
+
+import org.banki.util.Base58;
+import org.p2p.solanaj.utils.ShortvecEncoding;
+
+/**
+ * Reads a serialized legacy transaction in place. Parsing only records
+ * where each part starts, so the accessors return primitives or offsets
+ * into {@link #getData()} instead of building keys, lists and boxed
+ * indices. {@link #wrap} points the same view at another transaction,
+ * reusing its buffers, so a loop over many transactions allocates nothing.
+ */
+public class TransactionView {
+
+    private static final int SIGNATURE_LENGTH = Transaction.SIGNATURE_LENGTH;
+    private static final int KEY_LENGTH = PublicKey.PUBLIC_KEY_LENGTH;
+
+    // per instruction: program id index, account count, accounts offset,
+    // data length, data offset
+    private static final int IX_STRIDE = 5;
+
+    private byte[] data;
+    private int signatureCount;
+    private int signaturesOffset;
+    private int messageOffset;
+    private int messageEnd;
+    private int keyCount;
+    private int keysOffset;
+    private int blockhashOffset;
+    private int instructionCount;
+    private int[] instructions = new int[IX_STRIDE * 4];
+
+    public TransactionView() {
+    }
+
+    public TransactionView(byte[] data) {
+        wrap(data, 0, data.length);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not a complete
+     *                                  legacy transaction
+     */
+    public TransactionView wrap(byte[] data, int offset, int length) {
+        int end = offset + length;
+        if (offset < 0 || end > data.length) {
+            throw new IllegalArgumentException("Invalid transaction");
+        }
+
+        int pos = offset;
+
+        signatureCount = ShortvecEncoding.decodeLength(data, pos);
+        pos += ShortvecEncoding.encodedLength(signatureCount);
+        signaturesOffset = pos;
+        pos = skip(pos, signatureCount * SIGNATURE_LENGTH, end);
+
+        messageOffset = pos;
+        if (pos + 3 > end) {
+            throw new IllegalArgumentException("Invalid transaction");
+        }
+        if ((data[pos] & 0x80) != 0) {
+            throw new IllegalArgumentException("Unsupported message version");
+        }
+        pos += 3;
+
+        keyCount = ShortvecEncoding.decodeLength(data, pos);
+        pos += ShortvecEncoding.encodedLength(keyCount);
+        keysOffset = pos;
+        pos = skip(pos, keyCount * KEY_LENGTH, end);
+
+        blockhashOffset = pos;
+        pos = skip(pos, KEY_LENGTH, end);
+
+        instructionCount = ShortvecEncoding.decodeLength(data, pos);
+        pos += ShortvecEncoding.encodedLength(instructionCount);
+
+        if (instructions.length < instructionCount * IX_STRIDE) {
+            instructions = new int[instructionCount * IX_STRIDE];
+        }
+
+        for (int i = 0, ix = 0; i < instructionCount; i++, ix += IX_STRIDE) {
+            if (pos >= end) {
+                throw new IllegalArgumentException("Invalid transaction");
+            }
+            instructions[ix] = data[pos++] & 0xff;
+
+            int accountCount = ShortvecEncoding.decodeLength(data, pos);
+            pos += ShortvecEncoding.encodedLength(accountCount);
+            instructions[ix + 1] = accountCount;
+            instructions[ix + 2] = pos;
+            pos = skip(pos, accountCount, end);
+
+            int dataLength = ShortvecEncoding.decodeLength(data, pos);
+            pos += ShortvecEncoding.encodedLength(dataLength);
+            instructions[ix + 3] = dataLength;
+            instructions[ix + 4] = pos;
+            pos = skip(pos, dataLength, end);
+        }
+
+        if (pos != end) {
+            throw new IllegalArgumentException("Invalid transaction");
+        }
+
+        messageEnd = pos;
+        this.data = data;
+
+        return this;
+    }
+
+    /**
+     * The array the view reads from; every offset refers to it.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    public int getSignatureCount() {
+        return signatureCount;
+    }
+
+    public int getSignatureOffset(int index) {
+        return signaturesOffset + checkIndex(index, signatureCount) * SIGNATURE_LENGTH;
+    }
+
+    /**
+     * The signature in Base58; the first one identifies the transaction.
+     */
+    public String getSignature(int index) {
+        return Base58.encode64(data, getSignatureOffset(index));
+    }
+
+    /**
+     * Offset of the signed message, e.g. to verify the signatures.
+     */
+    public int getMessageOffset() {
+        return messageOffset;
+    }
+
+    public int getMessageLength() {
+        return messageEnd - messageOffset;
+    }
+
+    public int getNumRequiredSignatures() {
+        return data[messageOffset] & 0xff;
+    }
+
+    public int getNumReadonlySignedAccounts() {
+        return data[messageOffset + 1] & 0xff;
+    }
+
+    public int getNumReadonlyUnsignedAccounts() {
+        return data[messageOffset + 2] & 0xff;
+    }
+
+    public int getAccountKeyCount() {
+        return keyCount;
+    }
+
+    public int getAccountKeyOffset(int index) {
+        return keysOffset + checkIndex(index, keyCount) * KEY_LENGTH;
+    }
+
+    public PublicKey getAccountKey(int index) {
+        return PublicKey.readPubkey(data, getAccountKeyOffset(index));
+    }
+
+    /**
+     * @return the position of the key, or -1 if the message does not
+     *         reference it
+     */
+    public int indexOfAccountKey(PublicKey key) {
+        byte[] k = key.toByteArray();
+
+        outer: for (int i = 0, off = keysOffset; i < keyCount; i++, off += KEY_LENGTH) {
+            for (int j = 0; j < KEY_LENGTH; j++) {
+                if (data[off + j] != k[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+
+        return -1;
+    }
+
+    public boolean isSigner(int index) {
+        return checkIndex(index, keyCount) < getNumRequiredSignatures();
+    }
+
+    public boolean isWritable(int index) {
+        int required = getNumRequiredSignatures();
+        if (checkIndex(index, keyCount) < required) {
+            return index < required - getNumReadonlySignedAccounts();
+        }
+
+        return index < keyCount - getNumReadonlyUnsignedAccounts();
+    }
+
+    public int getRecentBlockhashOffset() {
+        return blockhashOffset;
+    }
+
+    public String getRecentBlockhash() {
+        return Base58.encode32(data, blockhashOffset);
+    }
+
+    public int getInstructionCount() {
+        return instructionCount;
+    }
+
+    public int getProgramIdIndex(int instruction) {
+        return instructions[ix(instruction)];
+    }
+
+    public int getInstructionAccountCount(int instruction) {
+        return instructions[ix(instruction) + 1];
+    }
+
+    /**
+     * @return the index into the account keys of the instruction's
+     *         {@code account}th account
+     */
+    public int getInstructionAccount(int instruction, int account) {
+        int ix = ix(instruction);
+        return data[instructions[ix + 2] + checkIndex(account, instructions[ix + 1])] & 0xff;
+    }
+
+    public int getInstructionDataOffset(int instruction) {
+        return instructions[ix(instruction) + 4];
+    }
+
+    public int getInstructionDataLength(int instruction) {
+        return instructions[ix(instruction) + 3];
+    }
+
+    public byte[] getInstructionData(int instruction) {
+        int ix = ix(instruction);
+        byte[] out = new byte[instructions[ix + 3]];
+        System.arraycopy(data, instructions[ix + 4], out, 0, out.length);
+        return out;
+    }
+
+    private int ix(int instruction) {
+        return checkIndex(instruction, instructionCount) * IX_STRIDE;
+    }
+
+    private static int checkIndex(int index, int count) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+        return index;
+    }
+
+    private static int skip(int pos, int length, int end) {
+        if (length > end - pos) {
+            throw new IllegalArgumentException("Invalid transaction");
+        }
+        return pos + length;
+    }
+
+}
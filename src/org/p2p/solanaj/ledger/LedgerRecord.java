@@ -0,0 +1,225 @@
+package org.p2p.solanaj.ledger;
+
+import banki.util.List;
+
+import org.banki.util.Base58;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.core.TransactionView;
+import org.p2p.solanaj.rpc.types.ConfirmedTransaction;
+
+/**
+ * A confirmed transaction reduced to what a wallet shows: its signature,
+ * slot, block time, fee, outcome, account keys and the balance of each key
+ * before and after. Fields are read straight from the encoded bytes, which
+ * are exactly what {@link LedgerStore} writes to disk.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ *  0  signature          64 bytes
+ * 64  slot               8
+ * 72  block time         8, Long.MIN_VALUE if unknown
+ * 80  fee                8
+ * 88  flags              1, bit 0 set if the transaction failed
+ * 89  header             3, as in the message
+ * 92  key count          2
+ * 94  keys               32 each
+ *  .. balances           8 pre and 8 post for each key
+ * </pre>
+ */
+public class LedgerRecord {
+    public static final int SIGNATURE_LENGTH = 64;
+
+    static final int SLOT = 64;
+    static final int BLOCK_TIME = 72;
+    static final int FEE = 80;
+    static final int FLAGS = 88;
+    static final int HEADER = 89;
+    static final int KEY_COUNT = 92;
+    static final int KEYS = 94;
+
+    private static final int FLAG_FAILED = 1;
+    private static final long NO_BLOCK_TIME = Long.MIN_VALUE;
+
+    final byte[] data;
+
+    LedgerRecord(byte[] data) {
+        this.data = data;
+    }
+
+    static int length(int keyCount) {
+        return KEYS + keyCount * (PublicKey.PUBLIC_KEY_LENGTH + 16);
+    }
+
+    /**
+     * Works for transactions fetched both as JSON and in base64.
+     */
+    public static LedgerRecord fromTransaction(String signature, ConfirmedTransaction transaction) {
+        byte[] raw = transaction.getRawTransaction();
+        TransactionView view = raw != null ? new TransactionView(raw) : null;
+
+        List<String> keys = null;
+        int keyCount;
+        if (view != null) {
+            keyCount = view.getAccountKeyCount();
+        } else {
+            keys = transaction.getTransaction().getMessage().getAccountKeys();
+            keyCount = keys.size();
+        }
+        if (keyCount > 0xffff) {
+            throw new IllegalArgumentException("Too many account keys");
+        }
+
+        byte[] data = new byte[length(keyCount)];
+
+        Base58.decode(signature, data, 0, SIGNATURE_LENGTH);
+        putLong(data, SLOT, transaction.getSlot());
+        Long blockTime = transaction.getBlockTime();
+        putLong(data, BLOCK_TIME, blockTime != null ? blockTime : NO_BLOCK_TIME);
+
+        ConfirmedTransaction.Meta meta = transaction.getMeta();
+        if (meta != null) {
+            putLong(data, FEE, meta.getFee());
+            if (meta.getErr() != null) {
+                data[FLAGS] = FLAG_FAILED;
+            }
+        }
+
+        if (view != null) {
+            data[HEADER] = (byte) view.getNumRequiredSignatures();
+            data[HEADER + 1] = (byte) view.getNumReadonlySignedAccounts();
+            data[HEADER + 2] = (byte) view.getNumReadonlyUnsignedAccounts();
+            if (keyCount > 0) {
+                System.arraycopy(raw, view.getAccountKeyOffset(0), data, KEYS,
+                        keyCount * PublicKey.PUBLIC_KEY_LENGTH);
+            }
+        } else {
+            ConfirmedTransaction.Header header = transaction.getTransaction().getMessage().getHeader();
+            data[HEADER] = (byte) header.getNumRequiredSignatures();
+            data[HEADER + 1] = (byte) header.getNumReadonlySignedAccounts();
+            data[HEADER + 2] = (byte) header.getNumReadonlyUnsignedAccounts();
+            for (int i = 0; i < keyCount; i++) {
+                Base58.decode(keys.get(i), data, KEYS + i * PublicKey.PUBLIC_KEY_LENGTH,
+                        PublicKey.PUBLIC_KEY_LENGTH);
+            }
+        }
+        data[KEY_COUNT] = (byte) (keyCount >> 8);
+        data[KEY_COUNT + 1] = (byte) keyCount;
+
+        int balances = KEYS + keyCount * PublicKey.PUBLIC_KEY_LENGTH;
+        List<Long> pre = meta != null ? meta.getPreBalances() : null;
+        List<Long> post = meta != null ? meta.getPostBalances() : null;
+
+        for (int i = 0; i < keyCount; i++) {
+            if (pre != null && i < pre.size()) {
+                putLong(data, balances + i * 16, pre.get(i));
+            }
+            if (post != null && i < post.size()) {
+                putLong(data, balances + i * 16 + 8, post.get(i));
+            }
+        }
+
+        return new LedgerRecord(data);
+    }
+
+    public String getSignature() {
+        return Base58.encode64(data, 0);
+    }
+
+    public long getSlot() {
+        return getLong(data, SLOT);
+    }
+
+    /**
+     * Unix seconds, or {@code null} if the node did not know it.
+     */
+    public Long getBlockTime() {
+        long blockTime = getLong(data, BLOCK_TIME);
+        return blockTime != NO_BLOCK_TIME ? blockTime : null;
+    }
+
+    public long getFee() {
+        return getLong(data, FEE);
+    }
+
+    public boolean isFailed() {
+        return (data[FLAGS] & FLAG_FAILED) != 0;
+    }
+
+    public int getKeyCount() {
+        return ((data[KEY_COUNT] & 0xff) << 8) | (data[KEY_COUNT + 1] & 0xff);
+    }
+
+    public PublicKey getKey(int index) {
+        return PublicKey.readPubkey(data, KEYS + index * PublicKey.PUBLIC_KEY_LENGTH);
+    }
+
+    /**
+     * @return the position of the key, or -1 if the transaction does not
+     *         reference it
+     */
+    public int indexOf(PublicKey key) {
+        byte[] k = key.toByteArray();
+        int keyCount = getKeyCount();
+
+        outer: for (int i = 0, off = KEYS; i < keyCount; i++, off += PublicKey.PUBLIC_KEY_LENGTH) {
+            for (int j = 0; j < PublicKey.PUBLIC_KEY_LENGTH; j++) {
+                if (data[off + j] != k[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+
+        return -1;
+    }
+
+    public boolean isSigner(int index) {
+        return index < (data[HEADER] & 0xff);
+    }
+
+    public boolean isWritable(int index) {
+        int required = data[HEADER] & 0xff;
+        if (index < required) {
+            return index < required - (data[HEADER + 1] & 0xff);
+        }
+
+        return index < getKeyCount() - (data[HEADER + 2] & 0xff);
+    }
+
+    public long getPreBalance(int index) {
+        return getLong(data, balances() + index * 16);
+    }
+
+    public long getPostBalance(int index) {
+        return getLong(data, balances() + index * 16 + 8);
+    }
+
+    /**
+     * Lamports gained by the key, negative if it paid; 0 if the transaction
+     * does not reference it.
+     */
+    public long getBalanceChange(PublicKey key) {
+        int index = indexOf(key);
+        return index < 0 ? 0 : getPostBalance(index) - getPreBalance(index);
+    }
+
+    private int balances() {
+        return KEYS + getKeyCount() * PublicKey.PUBLIC_KEY_LENGTH;
+    }
+
+    static long getLong(byte[] b, int off) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (b[off + i] & 0xff);
+        }
+        return v;
+    }
+
+    private static void putLong(byte[] b, int off, long v) {
+        for (int i = 7; i >= 0; i--) {
+            b[off + i] = (byte) v;
+            v >>>= 8;
+        }
+    }
+
+}
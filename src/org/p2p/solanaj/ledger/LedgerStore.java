@@ -0,0 +1,439 @@
+package org.p2p.solanaj.ledger;
+
+import banki.io.Closeable;
+import banki.io.File;
+import banki.io.IOException;
+import banki.io.RandomAccessFile;
+import banki.nio.ByteBuffer;
+import banki.nio.MappedByteBuffer;
+import banki.nio.channels.FileChannel;
+import banki.util.ArrayList;
+import banki.util.HashMap;
+import banki.util.List;
+import banki.util.Map;
+import banki.util.zip.CRC32;
+
+import org.banki.util.Base58;
+import org.p2p.solanaj.core.PublicKey;
+
+/**
+ * Append-only file of {@link LedgerRecord}s, so history survives restarts
+ * and can be shown without the network or any JSON parsing.
+ * <p>
+ * Each record is framed by its length and CRC-32 and written past the last
+ * complete one, then the file is forced to disk. Opening the store scans
+ * the frames and cuts the file at the first torn or corrupt one, so a crash
+ * during an append loses at most the records that were being appended.
+ * Reads go through a read-only mapping of the file, grown when appends pass
+ * its end. An in-memory index, rebuilt on open, maps each signature to its
+ * record and each writable account key to its records sorted by slot.
+ * <p>
+ * When the file grows past the size budget, the newest records that fit in
+ * three quarters of it are copied to a new file, which then replaces the
+ * old one.
+ */
+public class LedgerStore implements Closeable {
+    public static final long DEFAULT_SIZE_BUDGET = 8L << 20;
+
+    private static final int FRAME_HEADER = 8;
+
+    /**
+     * Record offsets ordered by slot, then by position in the file.
+     */
+    private static class SlotIndex {
+        long[] slots = new long[4];
+        int[] offsets = new int[4];
+        int size;
+
+        void insert(long slot, int offset) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (slots[mid] <= slot) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            if (size == slots.length) {
+                long[] s = new long[size * 2];
+                int[] o = new int[size * 2];
+                System.arraycopy(slots, 0, s, 0, size);
+                System.arraycopy(offsets, 0, o, 0, size);
+                slots = s;
+                offsets = o;
+            }
+
+            System.arraycopy(slots, lo, slots, lo + 1, size - lo);
+            System.arraycopy(offsets, lo, offsets, lo + 1, size - lo);
+            slots[lo] = slot;
+            offsets[lo] = offset;
+            size++;
+        }
+
+        /**
+         * @return the number of entries with a slot below {@code slot}
+         */
+        int countBelow(long slot) {
+            int lo = 0;
+            int hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (slots[mid] < slot) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    private final File file;
+    private final File compactFile;
+    private final long sizeBudget;
+    private final CRC32 crc = new CRC32();
+
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int end;
+
+    private Map<ByteBuffer, Integer> bySignature;
+    private Map<PublicKey, SlotIndex> byAddress;
+    private SlotIndex bySlot;
+
+    private LedgerStore(File file, long sizeBudget) {
+        this.file = file;
+        this.compactFile = new File(file.getPath() + ".compact");
+        this.sizeBudget = sizeBudget;
+    }
+
+    public static LedgerStore open(File file) throws IOException {
+        return open(file, DEFAULT_SIZE_BUDGET);
+    }
+
+    public static LedgerStore open(File file, long sizeBudget) throws IOException {
+        if (sizeBudget <= 0 || sizeBudget > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Size budget must be positive and below 2 GB");
+        }
+
+        LedgerStore store = new LedgerStore(file, sizeBudget);
+        store.recoverCompaction();
+        store.load();
+        if (store.end > sizeBudget) {
+            store.compact();
+        }
+        return store;
+    }
+
+    /**
+     * @return false if a record with the same signature is already stored
+     */
+    public synchronized boolean append(LedgerRecord record) throws IOException {
+        if (!write(record)) {
+            return false;
+        }
+
+        commit();
+        return true;
+    }
+
+    /**
+     * Appends the records with a single sync to disk.
+     *
+     * @return how many were not stored yet
+     */
+    public synchronized int appendAll(List<LedgerRecord> records) throws IOException {
+        int added = 0;
+        for (LedgerRecord record : records) {
+            if (write(record)) {
+                added++;
+            }
+        }
+
+        if (added > 0) {
+            commit();
+        }
+        return added;
+    }
+
+    public synchronized boolean contains(String signature) {
+        return bySignature.containsKey(signatureKey(signature));
+    }
+
+    public synchronized LedgerRecord get(String signature) throws IOException {
+        Integer offset = bySignature.get(signatureKey(signature));
+        return offset != null ? read(offset) : null;
+    }
+
+    /**
+     * Returns up to {@code limit} records that write to the address, newest
+     * first.
+     */
+    public synchronized List<LedgerRecord> getRecent(PublicKey address, int limit) throws IOException {
+        return getBefore(address, Long.MAX_VALUE, limit);
+    }
+
+    /**
+     * Returns up to {@code limit} records that write to the address from
+     * slots before {@code slot}, newest first.
+     */
+    public synchronized List<LedgerRecord> getBefore(PublicKey address, long slot, int limit) throws IOException {
+        List<LedgerRecord> records = new ArrayList<LedgerRecord>();
+
+        SlotIndex index = byAddress.get(address);
+        if (index == null) {
+            return records;
+        }
+
+        for (int i = index.countBelow(slot) - 1; i >= 0 && records.size() < limit; i--) {
+            records.add(read(index.offsets[i]));
+        }
+
+        return records;
+    }
+
+    public synchronized int getRecordCount() {
+        return bySlot.size;
+    }
+
+    /**
+     * @return the bytes used on disk
+     */
+    public synchronized long size() {
+        return end;
+    }
+
+    /**
+     * Keeps the newest records that fit in three quarters of the size
+     * budget and drops the rest.
+     */
+    public synchronized void compact() throws IOException {
+        long target = sizeBudget * 3 / 4;
+
+        int first = bySlot.size;
+        long kept = 0;
+        while (first > 0) {
+            int frame = frameLength(bySlot.offsets[first - 1]);
+            if (kept + frame > target) {
+                break;
+            }
+            kept += frame;
+            first--;
+        }
+
+        RandomAccessFile out = new RandomAccessFile(compactFile, "rw");
+        try {
+            FileChannel outChannel = out.getChannel();
+            outChannel.truncate(0);
+
+            for (int i = first; i < bySlot.size; i++) {
+                int offset = bySlot.offsets[i];
+                long from = offset;
+                long to = offset + frameLength(offset);
+                while (from < to) {
+                    from += channel.transferTo(from, to - from, outChannel);
+                }
+            }
+
+            outChannel.force(true);
+        } finally {
+            out.close();
+        }
+
+        closeFile();
+
+        boolean replaced = file.delete() && compactFile.renameTo(file);
+
+        recoverCompaction();
+        load();
+
+        if (!replaced) {
+            throw new IOException("Cannot replace " + file.getPath());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeFile();
+    }
+
+    private boolean write(LedgerRecord record) throws IOException {
+        ByteBuffer key = signatureKey(record);
+        if (bySignature.containsKey(key)) {
+            return false;
+        }
+
+        byte[] body = record.data;
+        if ((long) end + FRAME_HEADER + body.length > Integer.MAX_VALUE) {
+            throw new IOException("Ledger file is full");
+        }
+
+        crc.reset();
+        crc.update(body, 0, body.length);
+
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER + body.length);
+        frame.putInt(body.length);
+        frame.putInt((int) crc.getValue());
+        frame.put(body);
+        frame.flip();
+
+        long position = end;
+        while (frame.hasRemaining()) {
+            position += channel.write(frame, position);
+        }
+
+        index(record, end);
+        end = (int) position;
+
+        return true;
+    }
+
+    private void commit() throws IOException {
+        channel.force(false);
+
+        if (end > sizeBudget) {
+            compact();
+        }
+    }
+
+    private LedgerRecord read(int offset) throws IOException {
+        int length = frameLength(offset) - FRAME_HEADER;
+
+        byte[] data = new byte[length];
+        ByteBuffer view = map.duplicate();
+        view.position(offset + FRAME_HEADER);
+        view.get(data);
+
+        return new LedgerRecord(data);
+    }
+
+    private int frameLength(int offset) throws IOException {
+        if (offset + FRAME_HEADER > map.capacity()) {
+            remap();
+        }
+        int frame = FRAME_HEADER + map.getInt(offset);
+        if (offset + frame > map.capacity()) {
+            remap();
+        }
+        return frame;
+    }
+
+    private void remap() throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_ONLY, 0, end);
+    }
+
+    private void load() throws IOException {
+        raf = new RandomAccessFile(file, "rw");
+        channel = raf.getChannel();
+
+        long fileSize = channel.size();
+        if (fileSize > Integer.MAX_VALUE) {
+            fileSize = Integer.MAX_VALUE;
+        }
+
+        bySignature = new HashMap<ByteBuffer, Integer>();
+        byAddress = new HashMap<PublicKey, SlotIndex>();
+        bySlot = new SlotIndex();
+
+        map = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+
+        int offset = 0;
+        while (offset + FRAME_HEADER <= fileSize) {
+            int length = map.getInt(offset);
+            if (length < LedgerRecord.KEYS || length > fileSize - offset - FRAME_HEADER) {
+                break;
+            }
+
+            byte[] data = new byte[length];
+            ByteBuffer view = map.duplicate();
+            view.position(offset + FRAME_HEADER);
+            view.get(data);
+
+            crc.reset();
+            crc.update(data, 0, length);
+            if ((int) crc.getValue() != map.getInt(offset + 4)) {
+                break;
+            }
+
+            LedgerRecord record = new LedgerRecord(data);
+            if (LedgerRecord.length(record.getKeyCount()) != length) {
+                break;
+            }
+
+            index(record, offset);
+            offset += FRAME_HEADER + length;
+        }
+
+        end = offset;
+        if (end < channel.size()) {
+            // the tail is a torn append; drop it
+            channel.truncate(end);
+            channel.force(true);
+        }
+    }
+
+    private void index(LedgerRecord record, int offset) {
+        long slot = record.getSlot();
+
+        bySignature.put(signatureKey(record), offset);
+        bySlot.insert(slot, offset);
+
+        int keyCount = record.getKeyCount();
+        for (int i = 0; i < keyCount; i++) {
+            if (!record.isWritable(i)) {
+                continue;
+            }
+
+            PublicKey key = record.getKey(i);
+            SlotIndex index = byAddress.get(key);
+            if (index == null) {
+                index = new SlotIndex();
+                byAddress.put(key, index);
+            }
+            index.insert(slot, offset);
+        }
+    }
+
+    /**
+     * A crash during compaction leaves either both files, where the old one
+     * is still complete, or only the compacted one.
+     */
+    private void recoverCompaction() throws IOException {
+        if (!compactFile.exists()) {
+            return;
+        }
+
+        if (file.exists()) {
+            compactFile.delete();
+        } else if (!compactFile.renameTo(file)) {
+            throw new IOException("Cannot restore " + file.getPath());
+        }
+    }
+
+    private void closeFile() throws IOException {
+        map = null;
+        channel = null;
+        if (raf != null) {
+            raf.close();
+            raf = null;
+        }
+    }
+
+    // a copy, so the index does not keep every record's data reachable
+    private static ByteBuffer signatureKey(LedgerRecord record) {
+        byte[] key = new byte[LedgerRecord.SIGNATURE_LENGTH];
+        System.arraycopy(record.data, 0, key, 0, key.length);
+        return ByteBuffer.wrap(key);
+    }
+
+    private static ByteBuffer signatureKey(String signature) {
+        byte[] key = new byte[LedgerRecord.SIGNATURE_LENGTH];
+        Base58.decode(signature, key, 0, key.length);
+        return ByteBuffer.wrap(key);
+    }
+
+}
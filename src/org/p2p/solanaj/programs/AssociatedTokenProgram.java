@@ -0,0 +1,46 @@
+package org.p2p.solanaj.programs;
+
+import banki.util.ArrayList;
+import banki.util.List;
+
+import org.p2p.solanaj.core.ProgramAddressFinder;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.core.PublicKey.ProgramDerivedAddress;
+
+public class AssociatedTokenProgram {
+    public static final PublicKey PROGRAM_ID = PublicKey.valueOf("ATokenGPvbdGVxr1b2hvZbsiqW5xWH25efTNsLJA8knL");
+    public static final PublicKey TOKEN_PROGRAM_ID = PublicKey.valueOf("TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA");
+
+    public static PublicKey getAssociatedTokenAddress(PublicKey owner, PublicKey mint) {
+        byte[][] seeds = { owner.toByteArray(), TOKEN_PROGRAM_ID.toByteArray(), mint.toByteArray() };
+
+        return find(ProgramAddressFinder.getDefault(), seeds);
+    }
+
+    /**
+     * Derives the token account of every owner for one mint, sharing a
+     * single seed array across the batch.
+     */
+    public static List<PublicKey> getAssociatedTokenAddresses(List<PublicKey> owners, PublicKey mint) {
+        ProgramAddressFinder finder = ProgramAddressFinder.getDefault();
+        List<PublicKey> addresses = new ArrayList<PublicKey>(owners.size());
+        byte[][] seeds = { null, TOKEN_PROGRAM_ID.toByteArray(), mint.toByteArray() };
+
+        for (PublicKey owner : owners) {
+            seeds[0] = owner.toByteArray();
+            addresses.add(find(finder, seeds));
+        }
+
+        return addresses;
+    }
+
+    private static PublicKey find(ProgramAddressFinder finder, byte[][] seeds) {
+        ProgramDerivedAddress address = finder.findProgramAddress(seeds, PROGRAM_ID);
+
+        if (address == null) {
+            throw new IllegalStateException("Unable to find a viable program address nonce");
+        }
+
+        return address.getAddress();
+    }
+}
@@ -0,0 +1,75 @@
+package org.p2p.solanaj.programs;
+
+import org.banki.util.Base58;
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.utils.ByteUtils;
+
+/**
+ * Reads a durable nonce account, the only system program account that
+ * holds data, in the same way as {@link TokenAccount}. Plain system
+ * accounts have no data; their balance is all there is.
+ */
+public class NonceAccount {
+    public static final int LENGTH = 80;
+
+    public static final int VERSION_LEGACY = 0;
+    public static final int VERSION_CURRENT = 1;
+
+    private static final int VERSION = 0;
+    private static final int STATE = 4;
+    private static final int AUTHORITY = 8;
+    private static final int BLOCKHASH = 40;
+    private static final int LAMPORTS_PER_SIGNATURE = 72;
+
+    private byte[] data;
+    private int offset;
+
+    public NonceAccount() {
+    }
+
+    public NonceAccount(byte[] data) {
+        wrap(data, 0);
+    }
+
+    public NonceAccount wrap(byte[] data) {
+        return wrap(data, 0);
+    }
+
+    public NonceAccount wrap(byte[] data, int offset) {
+        if (offset < 0 || data.length - offset < LENGTH) {
+            throw new IllegalArgumentException("Not a nonce account");
+        }
+
+        this.data = data;
+        this.offset = offset;
+        return this;
+    }
+
+    public int getVersion() {
+        return (int) ByteUtils.readUint32LE(data, offset + VERSION);
+    }
+
+    public boolean isInitialized() {
+        return ByteUtils.readUint32LE(data, offset + STATE) != 0;
+    }
+
+    public PublicKey getAuthority() {
+        return PublicKey.readPubkey(data, offset + AUTHORITY);
+    }
+
+    public boolean isAuthority(PublicKey authority) {
+        return ByteUtils.equals(data, offset + AUTHORITY, authority.toByteArray(), 0, PublicKey.PUBLIC_KEY_LENGTH);
+    }
+
+    /**
+     * The stored nonce, used in place of a recent blockhash.
+     */
+    public String getNonce() {
+        return Base58.encode32(data, offset + BLOCKHASH);
+    }
+
+    public long getLamportsPerSignature() {
+        return ByteUtils.readInt64LE(data, offset + LAMPORTS_PER_SIGNATURE);
+    }
+
+}
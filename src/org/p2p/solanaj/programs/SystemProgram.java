@@ -9,7 +9,7 @@ import org.p2p.solanaj.core.AccountMeta;
 import static org.bitcoinj.core.Utils.*;
 
 public class SystemProgram {
-    public static final PublicKey PROGRAM_ID = new PublicKey("11111111111111111111111111111111");
+    public static final PublicKey PROGRAM_ID = PublicKey.valueOf("11111111111111111111111111111111");
 
     public static final int PROGRAM_INDEX_CREATE_ACCOUNT = 0;
     public static final int PROGRAM_INDEX_TRANSFER = 2;
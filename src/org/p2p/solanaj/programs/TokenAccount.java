@@ -0,0 +1,135 @@
+package org.p2p.solanaj.programs;
+
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.utils.ByteUtils;
+
+/**
+ * Reads the fields of an SPL Token account straight from its data. A
+ * single instance can be {@link #wrap wrapped} around one account after
+ * another; amounts are u64s returned as raw longs (see the uint64 helpers
+ * in {@link ByteUtils}), and keys can be compared in place with the
+ * {@code is...} methods, so scanning many accounts allocates nothing.
+ */
+public class TokenAccount {
+    public static final int LENGTH = 165;
+
+    public static final int STATE_UNINITIALIZED = 0;
+    public static final int STATE_INITIALIZED = 1;
+    public static final int STATE_FROZEN = 2;
+
+    private static final int MINT = 0;
+    private static final int OWNER = 32;
+    private static final int AMOUNT = 64;
+    private static final int DELEGATE = 72;
+    private static final int STATE = 108;
+    private static final int IS_NATIVE = 109;
+    private static final int DELEGATED_AMOUNT = 121;
+    private static final int CLOSE_AUTHORITY = 129;
+
+    private byte[] data;
+    private int offset;
+
+    public TokenAccount() {
+    }
+
+    public TokenAccount(byte[] data) {
+        wrap(data, 0);
+    }
+
+    public TokenAccount wrap(byte[] data) {
+        return wrap(data, 0);
+    }
+
+    /**
+     * @throws IllegalArgumentException if fewer than {@link #LENGTH} bytes
+     *                                  follow {@code offset}
+     */
+    public TokenAccount wrap(byte[] data, int offset) {
+        if (offset < 0 || data.length - offset < LENGTH) {
+            throw new IllegalArgumentException("Not a token account");
+        }
+
+        this.data = data;
+        this.offset = offset;
+        return this;
+    }
+
+    public PublicKey getMint() {
+        return PublicKey.readPubkey(data, offset + MINT);
+    }
+
+    public boolean isMint(PublicKey mint) {
+        return ByteUtils.equals(data, offset + MINT, mint.toByteArray(), 0, PublicKey.PUBLIC_KEY_LENGTH);
+    }
+
+    public PublicKey getOwner() {
+        return PublicKey.readPubkey(data, offset + OWNER);
+    }
+
+    public boolean isOwner(PublicKey owner) {
+        return ByteUtils.equals(data, offset + OWNER, owner.toByteArray(), 0, PublicKey.PUBLIC_KEY_LENGTH);
+    }
+
+    /**
+     * The balance in base units, as a u64.
+     */
+    public long getAmount() {
+        return ByteUtils.readInt64LE(data, offset + AMOUNT);
+    }
+
+    public boolean hasDelegate() {
+        return isSome(DELEGATE);
+    }
+
+    /**
+     * @return the delegate, or null if there is none
+     */
+    public PublicKey getDelegate() {
+        return hasDelegate() ? PublicKey.readPubkey(data, offset + DELEGATE + 4) : null;
+    }
+
+    public long getDelegatedAmount() {
+        return ByteUtils.readInt64LE(data, offset + DELEGATED_AMOUNT);
+    }
+
+    public int getState() {
+        return data[offset + STATE] & 0xff;
+    }
+
+    public boolean isInitialized() {
+        return getState() != STATE_UNINITIALIZED;
+    }
+
+    public boolean isFrozen() {
+        return getState() == STATE_FROZEN;
+    }
+
+    /**
+     * True for wrapped SOL accounts.
+     */
+    public boolean isNative() {
+        return isSome(IS_NATIVE);
+    }
+
+    /**
+     * The rent-exempt reserve of a wrapped SOL account, which is not part of
+     * its amount; 0 for other accounts.
+     */
+    public long getNativeRentExemptReserve() {
+        return isNative() ? ByteUtils.readInt64LE(data, offset + IS_NATIVE + 4) : 0;
+    }
+
+    public boolean hasCloseAuthority() {
+        return isSome(CLOSE_AUTHORITY);
+    }
+
+    public PublicKey getCloseAuthority() {
+        return hasCloseAuthority() ? PublicKey.readPubkey(data, offset + CLOSE_AUTHORITY + 4) : null;
+    }
+
+    // COption tags are little-endian u32s
+    private boolean isSome(int field) {
+        return ByteUtils.readUint32LE(data, offset + field) != 0;
+    }
+
+}
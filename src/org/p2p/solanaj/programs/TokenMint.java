@@ -0,0 +1,81 @@
+package org.p2p.solanaj.programs;
+
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.utils.ByteUtils;
+
+/**
+ * Reads the fields of an SPL Token mint straight from its data, in the
+ * same way as {@link TokenAccount}.
+ */
+public class TokenMint {
+    public static final int LENGTH = 82;
+
+    private static final int MINT_AUTHORITY = 0;
+    private static final int SUPPLY = 36;
+    private static final int DECIMALS = 44;
+    private static final int IS_INITIALIZED = 45;
+    private static final int FREEZE_AUTHORITY = 46;
+
+    private byte[] data;
+    private int offset;
+
+    public TokenMint() {
+    }
+
+    public TokenMint(byte[] data) {
+        wrap(data, 0);
+    }
+
+    public TokenMint wrap(byte[] data) {
+        return wrap(data, 0);
+    }
+
+    public TokenMint wrap(byte[] data, int offset) {
+        if (offset < 0 || data.length - offset < LENGTH) {
+            throw new IllegalArgumentException("Not a token mint");
+        }
+
+        this.data = data;
+        this.offset = offset;
+        return this;
+    }
+
+    public boolean hasMintAuthority() {
+        return isSome(MINT_AUTHORITY);
+    }
+
+    /**
+     * @return the mint authority, or null once the supply is fixed
+     */
+    public PublicKey getMintAuthority() {
+        return hasMintAuthority() ? PublicKey.readPubkey(data, offset + MINT_AUTHORITY + 4) : null;
+    }
+
+    /**
+     * The total supply in base units, as a u64.
+     */
+    public long getSupply() {
+        return ByteUtils.readInt64LE(data, offset + SUPPLY);
+    }
+
+    public int getDecimals() {
+        return data[offset + DECIMALS] & 0xff;
+    }
+
+    public boolean isInitialized() {
+        return data[offset + IS_INITIALIZED] != 0;
+    }
+
+    public boolean hasFreezeAuthority() {
+        return isSome(FREEZE_AUTHORITY);
+    }
+
+    public PublicKey getFreezeAuthority() {
+        return hasFreezeAuthority() ? PublicKey.readPubkey(data, offset + FREEZE_AUTHORITY + 4) : null;
+    }
+
+    private boolean isSome(int field) {
+        return ByteUtils.readUint32LE(data, offset + field) != 0;
+    }
+
+}
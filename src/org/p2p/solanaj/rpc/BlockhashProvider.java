@@ -0,0 +1,236 @@
+package org.p2p.solanaj.rpc;
+
+import banki.util.LinkedHashMap;
+import banki.util.Map;
+import banki.util.concurrent.ScheduledExecutorService;
+import banki.util.concurrent.ScheduledFuture;
+import banki.util.concurrent.TimeUnit;
+import banki.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caches the recent blockhash used to sign transactions. A blockhash stays
+ * valid for roughly 150 slots, so one fetch can serve every send within the
+ * TTL. Once an entry is older than the refresh interval, a replacement is
+ * fetched asynchronously while the current one keeps being served; with
+ * {@link #start(ScheduledExecutorService)} it is refreshed on a schedule
+ * instead.
+ * <p>
+ * Signing is deterministic, so two identical transactions, e.g. the same
+ * transfer twice in a payout run, signed with the same blockhash are the
+ * same transaction, and the cluster drops the second as already processed.
+ * The provider therefore remembers the last {@link #MAX_SENT_SIGNATURES}
+ * signatures sent under each blockhash; {@link #claim} reports a repeat, and
+ * {@link RpcApi#sendTransaction} then signs again with a fresh blockhash, or
+ * fails if the cluster has not moved on yet.
+ */
+public class BlockhashProvider {
+    public static final long DEFAULT_TTL_MILLIS = 45000;
+    public static final long DEFAULT_REFRESH_INTERVAL_MILLIS = 30000;
+    public static final int MAX_SENT_SIGNATURES = 8192;
+
+    private static class Entry {
+        final String blockhash;
+        final long fetchedAt;
+        final Map<String, Boolean> sent;
+
+        Entry(String blockhash, long fetchedAt, Map<String, Boolean> sent) {
+            this.blockhash = blockhash;
+            this.fetchedAt = fetchedAt;
+            this.sent = sent;
+        }
+    }
+
+    private final RpcApi api;
+    private final long ttlMillis;
+    private final long refreshIntervalMillis;
+    private final Object fetchLock = new Object();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile Entry entry;
+    // the entry before the current one, as sends signed with it may still
+    // be claiming
+    private volatile Entry previous;
+    private ScheduledFuture<?> refreshTask;
+
+    public BlockhashProvider(RpcApi api) {
+        this(api, DEFAULT_TTL_MILLIS, DEFAULT_REFRESH_INTERVAL_MILLIS);
+    }
+
+    public BlockhashProvider(RpcApi api, long ttlMillis, long refreshIntervalMillis) {
+        if (refreshIntervalMillis <= 0 || refreshIntervalMillis > ttlMillis) {
+            throw new IllegalArgumentException("Refresh interval must be positive and no longer than the TTL");
+        }
+
+        this.api = api;
+        this.ttlMillis = ttlMillis;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    /**
+     * Returns a blockhash that is still within its TTL, blocking on a fetch
+     * only when there is none. Concurrent callers share a single fetch.
+     */
+    public String getBlockhash() throws RpcException {
+        String blockhash = getCachedBlockhash();
+        if (blockhash != null) {
+            return blockhash;
+        }
+
+        synchronized (fetchLock) {
+            blockhash = getCachedBlockhash();
+            if (blockhash != null) {
+                return blockhash;
+            }
+
+            return refresh();
+        }
+    }
+
+    /**
+     * Returns the cached blockhash, or {@code null} if it has expired.
+     */
+    public String getCachedBlockhash() {
+        Entry current = entry;
+        if (current == null) {
+            return null;
+        }
+
+        long age = System.currentTimeMillis() - current.fetchedAt;
+        if (age >= ttlMillis) {
+            return null;
+        }
+
+        if (age >= refreshIntervalMillis) {
+            refreshAhead();
+        }
+
+        return current.blockhash;
+    }
+
+    public String refresh() throws RpcException {
+        String blockhash = api.getRecentBlockhash();
+        update(blockhash);
+
+        return blockhash;
+    }
+
+    public synchronized void update(String blockhash) {
+        Entry current = entry;
+        Map<String, Boolean> sent = sentUnder(blockhash);
+
+        if (current != null && !current.blockhash.equals(blockhash)) {
+            previous = current;
+        }
+        entry = new Entry(blockhash, System.currentTimeMillis(), sent != null ? sent : newSentMap());
+    }
+
+    public synchronized void invalidate() {
+        if (entry != null) {
+            previous = entry;
+        }
+        entry = null;
+    }
+
+    /**
+     * Records that a transaction with the given signature is about to be
+     * sent under the blockhash.
+     *
+     * @return false if the same signature was already sent under it, so the
+     *         transaction would be dropped as a duplicate
+     */
+    public boolean claim(String blockhash, String signature) {
+        Map<String, Boolean> sent = sentUnder(blockhash);
+        if (sent == null) {
+            // not a blockhash handed out here
+            return true;
+        }
+
+        synchronized (sent) {
+            return sent.put(signature, Boolean.TRUE) == null;
+        }
+    }
+
+    /**
+     * Drops the given blockhash, e.g. after the cluster rejected it, unless
+     * it has already been replaced by a newer one.
+     */
+    public synchronized void invalidate(String blockhash) {
+        Entry current = entry;
+        if (current != null && current.blockhash.equals(blockhash)) {
+            previous = current;
+            entry = null;
+        }
+    }
+
+    public synchronized void start(ScheduledExecutorService executor) {
+        if (refreshTask != null) {
+            return;
+        }
+
+        refreshTask = executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refresh();
+                } catch (RpcException e) {
+                    // keep serving the current entry until it expires
+                }
+            }
+        }, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            refreshTask = null;
+        }
+    }
+
+    public static boolean isBlockhashNotFound(RpcException e) {
+        String message = e.getMessage();
+        return message != null && message.toLowerCase().contains("blockhash not found");
+    }
+
+    private Map<String, Boolean> sentUnder(String blockhash) {
+        Entry current = entry;
+        if (current != null && current.blockhash.equals(blockhash)) {
+            return current.sent;
+        }
+
+        Entry before = previous;
+        if (before != null && before.blockhash.equals(blockhash)) {
+            return before.sent;
+        }
+
+        return null;
+    }
+
+    private static Map<String, Boolean> newSentMap() {
+        return new LinkedHashMap<String, Boolean>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > MAX_SENT_SIGNATURES;
+            }
+        };
+    }
+
+    private void refreshAhead() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        api.getRecentBlockhashAsync().addCallback(new RpcCallback<String>() {
+            @Override
+            public void onSuccess(String blockhash) {
+                update(blockhash);
+                refreshing.set(false);
+            }
+
+            @Override
+            public void onFailure(RpcException exception) {
+                refreshing.set(false);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,188 @@
+package org.p2p.solanaj.rpc;
+
+import banki.util.ArrayList;
+import banki.util.List;
+import banki.util.concurrent.ConcurrentHashMap;
+import banki.util.concurrent.ScheduledExecutorService;
+import banki.util.concurrent.ScheduledFuture;
+import banki.util.concurrent.TimeUnit;
+
+import org.p2p.solanaj.rpc.types.SignatureStatuses;
+import org.p2p.solanaj.rpc.types.SignatureStatuses.ConfirmationStatus;
+import org.p2p.solanaj.ws.SignatureNotification;
+import org.p2p.solanaj.ws.listeners.NotificationEventListener;
+
+/**
+ * Confirms transactions by polling getSignatureStatuses instead of waiting
+ * for a signatureNotification. Every pending signature is covered by one
+ * batched request per poll, however many transfers are outstanding. Polls
+ * start at the minimum interval and back off while nothing changes or the
+ * node is failing, up to the maximum; a new signature or a confirmation
+ * brings them back to the minimum. Nothing is polled while no signature is
+ * pending.
+ * <p>
+ * Listeners receive the same {@link SignatureNotification} the WebSocket
+ * subscription delivers. A signature the node still has not seen after the
+ * timeout is reported with the error {@link #EXPIRED}.
+ */
+public class ConfirmationTracker {
+    public static final long DEFAULT_MIN_INTERVAL_MILLIS = 500;
+    public static final long DEFAULT_MAX_INTERVAL_MILLIS = 8000;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 90000;
+
+    public static final String EXPIRED = "TransactionExpired";
+
+    private static class Pending {
+        final NotificationEventListener listener;
+        final long trackedAt;
+
+        Pending(NotificationEventListener listener, long trackedAt) {
+            this.listener = listener;
+            this.trackedAt = trackedAt;
+        }
+    }
+
+    private final RpcApi api;
+    private final ScheduledExecutorService executor;
+    private final ConfirmationStatus commitment;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final long timeoutMillis;
+    private final ConcurrentHashMap<String, Pending> pending = new ConcurrentHashMap<String, Pending>();
+
+    private final Runnable pollTask = new Runnable() {
+        @Override
+        public void run() {
+            poll();
+        }
+    };
+
+    private ScheduledFuture<?> pollFuture;
+    private long intervalMillis;
+    private boolean stopped;
+
+    public ConfirmationTracker(RpcApi api, ScheduledExecutorService executor) {
+        this(api, executor, ConfirmationStatus.finalized, DEFAULT_MIN_INTERVAL_MILLIS, DEFAULT_MAX_INTERVAL_MILLIS,
+                DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public ConfirmationTracker(RpcApi api, ScheduledExecutorService executor, ConfirmationStatus commitment,
+            long minIntervalMillis, long maxIntervalMillis, long timeoutMillis) {
+        if (minIntervalMillis <= 0 || maxIntervalMillis < minIntervalMillis) {
+            throw new IllegalArgumentException("Intervals must be positive and the maximum no less than the minimum");
+        }
+
+        this.api = api;
+        this.executor = executor;
+        this.commitment = commitment;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.intervalMillis = minIntervalMillis;
+    }
+
+    /**
+     * Notifies {@code listener} once the signature reaches the tracker's
+     * commitment or fails. Tracking a signature again replaces its listener.
+     */
+    public void track(String signature, NotificationEventListener listener) {
+        pending.put(signature, new Pending(listener, System.currentTimeMillis()));
+
+        synchronized (this) {
+            intervalMillis = minIntervalMillis;
+            if (pollFuture == null && !stopped) {
+                pollFuture = executor.schedule(pollTask, minIntervalMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Stops tracking the signature without notifying its listener.
+     */
+    public boolean untrack(String signature) {
+        return pending.remove(signature) != null;
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Cancels polling and drops every pending signature.
+     */
+    public synchronized void stop() {
+        stopped = true;
+        if (pollFuture != null) {
+            pollFuture.cancel(false);
+            pollFuture = null;
+        }
+        pending.clear();
+    }
+
+    private void poll() {
+        List<String> signatures = new ArrayList<String>(pending.keySet());
+        if (signatures.isEmpty()) {
+            reschedule(false, false);
+            return;
+        }
+
+        List<SignatureStatuses.Value> statuses;
+        try {
+            statuses = api.getSignatureStatuses(signatures, false);
+        } catch (RpcException | RuntimeException e) {
+            reschedule(false, true);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        boolean progress = false;
+
+        for (int i = 0; i < signatures.size() && i < statuses.size(); i++) {
+            String signature = signatures.get(i);
+            SignatureStatuses.Value status = statuses.get(i);
+
+            Pending p = pending.get(signature);
+            if (p == null) {
+                continue;
+            }
+
+            if (status == null) {
+                if (now - p.trackedAt >= timeoutMillis && pending.remove(signature, p)) {
+                    complete(p, EXPIRED);
+                }
+            } else if (status.hasError() || status.hasReached(commitment)) {
+                if (pending.remove(signature, p)) {
+                    complete(p, status.getErr());
+                    progress = true;
+                }
+            }
+        }
+
+        reschedule(progress, false);
+    }
+
+    private synchronized void reschedule(boolean progress, boolean failed) {
+        if (stopped || pending.isEmpty()) {
+            pollFuture = null;
+            intervalMillis = minIntervalMillis;
+            return;
+        }
+
+        if (progress) {
+            intervalMillis = minIntervalMillis;
+        } else {
+            intervalMillis = Math.min(failed ? intervalMillis * 2 : intervalMillis * 3 / 2, maxIntervalMillis);
+        }
+
+        pollFuture = executor.schedule(pollTask, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static void complete(Pending p, Object error) {
+        try {
+            p.listener.onNotifiacationEvent(new SignatureNotification(error));
+        } catch (RuntimeException e) {
+            // one listener must not stop the others from being notified
+        }
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.p2p.solanaj.rpc;
+
+import banki.io.FilterInputStream;
+import banki.io.IOException;
+import banki.io.InputStream;
+import banki.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adds the number of bytes read through it to one or more counters.
+ */
+class CountingInputStream extends FilterInputStream {
+    private final AtomicLong[] counters;
+
+    CountingInputStream(InputStream in, AtomicLong... counters) {
+        super(in);
+        this.counters = counters;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = in.read();
+        if (b != -1) {
+            count(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int n = in.read(buffer, offset, length);
+        if (n > 0) {
+            count(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(n);
+        if (skipped > 0) {
+            count(skipped);
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long n) {
+        for (AtomicLong counter : counters) {
+            counter.addAndGet(n);
+        }
+    }
+}
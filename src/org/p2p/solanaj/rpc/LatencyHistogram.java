@@ -0,0 +1,146 @@
+package org.p2p.solanaj.rpc;
+
+import banki.util.concurrent.atomic.AtomicLong;
+import banki.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts values in log-linear buckets, in the manner of HdrHistogram: each
+ * power of two is split into 32 equal buckets, so any percentile is within
+ * about 3% of the true value across the whole range while the histogram
+ * stays a fixed array. Recording is a few atomic increments and never
+ * blocks, so it can sit on every call path; readers see a slightly moving
+ * picture unless they work on a {@link #snapshot()}.
+ * <p>
+ * {@link RpcMetrics} records microseconds, which covers up to about 71
+ * minutes; larger values count as {@link #MAX_VALUE}.
+ */
+public class LatencyHistogram {
+    public static final long MAX_VALUE = (1L << 32) - 1;
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = index(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKET_COUNT);
+    }
+
+    private LatencyHistogram(long[] counts, long sum, long max) {
+        this.counts = new AtomicLongArray(counts);
+
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        this.count.set(total);
+        this.sum.set(sum);
+        this.max.set(max);
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        } else if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+
+        counts.incrementAndGet(index(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * The exact mean of the recorded values, or 0 if there are none.
+     */
+    public double getMean() {
+        long n = count.get();
+        return n > 0 ? (double) sum.get() / n : 0;
+    }
+
+    /**
+     * Returns the value that the given fraction (0..1) of recorded values do
+     * not exceed, rounded up to the end of its bucket, or 0 if nothing was
+     * recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException("Percentile must be in [0, 1]");
+        }
+
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(percentile * total));
+        long seen = 0;
+        int i = 0;
+        for (; i < BUCKET_COUNT - 1; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                break;
+            }
+        }
+
+        return Math.min(highestEquivalent(i), max.get());
+    }
+
+    /**
+     * Copies the histogram, so several percentiles can be read from the same
+     * set of values while recording goes on.
+     */
+    public LatencyHistogram snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            copy[i] = counts.get(i);
+        }
+
+        return new LatencyHistogram(copy, sum.get(), max.get());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    // values below 64 map one to one; above, the bucket width doubles with
+    // each power of two
+    private static int index(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    private static long highestEquivalent(int index) {
+        int shift = Math.max(0, index / SUB_BUCKET_HALF - 1);
+        long lowest = (long) (index - shift * SUB_BUCKET_HALF) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+}
@@ -0,0 +1,10 @@
+package org.p2p.solanaj.rpc;
+
+import org.p2p.solanaj.rpc.types.ProgramAccount;
+
+/**
+ * Receives program accounts one at a time while the response is parsed.
+ */
+public interface ProgramAccountVisitor {
+    public void visit(ProgramAccount account);
+}
@@ -1,10 +1,19 @@
 package org.p2p.solanaj.rpc;
 
-import banki.util.AbstractMap;
+import banki.io.Closeable;
+import banki.io.IOException;
 import banki.util.ArrayList;
 import banki.util.Arrays;
 import banki.util.Base64;
 import banki.util.List;
+import banki.util.concurrent.Executors;
+import banki.util.concurrent.ScheduledExecutorService;
+import banki.util.concurrent.ThreadFactory;
+import banki.util.concurrent.atomic.AtomicBoolean;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 import org.p2p.solanaj.core.Account;
 import org.p2p.solanaj.core.PublicKey;
@@ -12,24 +21,149 @@ import org.p2p.solanaj.core.Transaction;
 import org.p2p.solanaj.rpc.types.ConfigObjects.*;
 import org.p2p.solanaj.rpc.types.AccountInfo;
 import org.p2p.solanaj.rpc.types.ConfirmedTransaction;
+import org.p2p.solanaj.rpc.types.JsonAdapters;
+import org.p2p.solanaj.rpc.types.MultipleAccounts;
 import org.p2p.solanaj.rpc.types.ProgramAccount;
 import org.p2p.solanaj.rpc.types.RecentBlockhash;
+import org.p2p.solanaj.rpc.types.ResultReader;
+import org.p2p.solanaj.rpc.types.RpcRequest;
 import org.p2p.solanaj.rpc.types.RpcSendTransactionConfig;
 import org.p2p.solanaj.rpc.types.SignatureInformation;
+import org.p2p.solanaj.rpc.types.SignatureStatuses;
 import org.p2p.solanaj.rpc.types.RpcResultTypes.ValueLong;
 import org.p2p.solanaj.rpc.types.RpcSendTransactionConfig.Encoding;
-import org.p2p.solanaj.ws.SubscriptionWebSocketClient;
+import org.p2p.solanaj.ws.SubscriptionManager;
 import org.p2p.solanaj.ws.listeners.NotificationEventListener;
 
-public class RpcApi {
+public class RpcApi implements Closeable {
+    public static final int MAX_MULTIPLE_ACCOUNTS = 100;
+    public static final int MAX_SIGNATURE_STATUSES = 256;
+
+    private static final JsonAdapter<List<SignatureInformation>> SIGNATURE_INFORMATION_LIST = JsonAdapters
+            .listOf(SignatureInformation.ADAPTER);
+    private static final JsonAdapter<List<ProgramAccount>> PROGRAM_ACCOUNT_LIST = JsonAdapters
+            .listOf(ProgramAccount.ADAPTER);
+
+    // unwrap the value while decoding so async callers get the plain result;
+    // encoding writes it back in the same envelope, without the context
+    private static final JsonAdapter<Long> BALANCE = new JsonAdapter<Long>() {
+        @Override
+        public Long fromJson(JsonReader reader) throws IOException {
+            return ValueLong.ADAPTER.fromJson(reader).getValue();
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, Long value) throws IOException {
+            writer.beginObject();
+            writer.name("value").value(value);
+            writer.endObject();
+        }
+    }.nullSafe();
+
+    private static final JsonAdapter<String> BLOCKHASH = new JsonAdapter<String>() {
+        @Override
+        public String fromJson(JsonReader reader) throws IOException {
+            return RecentBlockhash.ADAPTER.fromJson(reader).getRecentBlockhash();
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, String value) throws IOException {
+            writer.beginObject();
+            writer.name("value");
+            writer.beginObject();
+            writer.name("blockhash").value(value);
+            writer.endObject();
+            writer.endObject();
+        }
+    }.nullSafe();
+
     private RpcClient client;
+    private BlockhashProvider blockhashProvider;
+    private volatile ConfirmationTracker confirmationTracker;
+    private SubscriptionManager subscriptionManager;
+    // set while subscriptionManager is the one started here
+    private ScheduledExecutorService ownScheduler;
 
     public RpcApi(RpcClient client) {
         this.client = client;
+        this.blockhashProvider = new BlockhashProvider(this);
+    }
+
+    public BlockhashProvider getBlockhashProvider() {
+        return blockhashProvider;
+    }
+
+    public void setBlockhashProvider(BlockhashProvider blockhashProvider) {
+        this.blockhashProvider = blockhashProvider;
+    }
+
+    public ConfirmationTracker getConfirmationTracker() {
+        return confirmationTracker;
+    }
+
+    /**
+     * With a tracker set, {@link #sendAndConfirmTransaction} also polls for
+     * the signature's status, so it is confirmed even if the WebSocket never
+     * connects.
+     */
+    public void setConfirmationTracker(ConfirmationTracker confirmationTracker) {
+        this.confirmationTracker = confirmationTracker;
+    }
+
+    /**
+     * The subscriptions {@link #sendAndConfirmTransaction} waits on. Unless
+     * one was set, a manager for the client's endpoint is started on first
+     * use and stopped by {@link #close()}.
+     */
+    public synchronized SubscriptionManager getSubscriptionManager() {
+        if (subscriptionManager == null) {
+            ownScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "ws-reconnect");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            subscriptionManager = new SubscriptionManager(client.getEndpoint(), ownScheduler);
+            subscriptionManager.start();
+        }
+
+        return subscriptionManager;
+    }
+
+    /**
+     * Uses the given manager from now on; it is not closed by
+     * {@link #close()}.
+     */
+    public synchronized void setSubscriptionManager(SubscriptionManager subscriptionManager) {
+        closeOwnSubscriptionManager();
+        this.subscriptionManager = subscriptionManager;
+    }
+
+    /**
+     * Stops the subscription manager started by
+     * {@link #getSubscriptionManager()}, if any. A manager that was set is
+     * left to its owner.
+     */
+    @Override
+    public synchronized void close() {
+        closeOwnSubscriptionManager();
+    }
+
+    private void closeOwnSubscriptionManager() {
+        if (ownScheduler == null) {
+            return;
+        }
+
+        subscriptionManager.close();
+        ownScheduler.shutdownNow();
+        subscriptionManager = null;
+        ownScheduler = null;
     }
 
     public String getRecentBlockhash() throws RpcException {
-        return client.call("getRecentBlockhash", null, RecentBlockhash.class).getRecentBlockhash();
+        return client.call("getRecentBlockhash", null, RecentBlockhash.ADAPTER).getRecentBlockhash();
     }
 
     public String sendTransaction(Transaction transaction, Account signer) throws RpcException {
@@ -37,7 +171,46 @@ public class RpcApi {
     }
 
     public String sendTransaction(Transaction transaction, List<Account> signers) throws RpcException {
-        String recentBlockhash = getRecentBlockhash();
+        String recentBlockhash = blockhashProvider.getBlockhash();
+
+        try {
+            return client.call("sendTransaction", signUnique(transaction, signers, recentBlockhash),
+                    JsonAdapters.STRING);
+        } catch (RpcException e) {
+            if (!BlockhashProvider.isBlockhashNotFound(e)) {
+                throw e;
+            }
+
+            // the cached blockhash expired early; sign once more with a fresh one
+            blockhashProvider.invalidate(recentBlockhash);
+            recentBlockhash = blockhashProvider.getBlockhash();
+
+            return client.call("sendTransaction", signUnique(transaction, signers, recentBlockhash),
+                    JsonAdapters.STRING);
+        }
+    }
+
+    // an identical transaction already sent under the cached blockhash has
+    // the same signature and would be dropped as processed, so it is signed
+    // again with a fresh blockhash
+    private List<Object> signUnique(Transaction transaction, List<Account> signers, String recentBlockhash)
+            throws RpcException {
+        List<Object> params = signTransaction(transaction, signers, recentBlockhash);
+        if (blockhashProvider.claim(recentBlockhash, transaction.getSignature())) {
+            return params;
+        }
+
+        recentBlockhash = blockhashProvider.refresh();
+        params = signTransaction(transaction, signers, recentBlockhash);
+        if (!blockhashProvider.claim(recentBlockhash, transaction.getSignature())) {
+            throw new RpcException("Transaction " + transaction.getSignature()
+                    + " was already sent with blockhash " + recentBlockhash);
+        }
+
+        return params;
+    }
+
+    private List<Object> signTransaction(Transaction transaction, List<Account> signers, String recentBlockhash) {
         transaction.setRecentBlockHash(recentBlockhash);
         transaction.sign(signers);
         byte[] serializedTransaction = transaction.serialize();
@@ -49,15 +222,32 @@ public class RpcApi {
         params.add(base64Trx);
         params.add(new RpcSendTransactionConfig());
 
-        return client.call("sendTransaction", params, String.class);
+        return params;
     }
 
     public void sendAndConfirmTransaction(Transaction transaction, List<Account> signers,
             NotificationEventListener listener) throws RpcException {
-        String signature = sendTransaction(transaction, signers);
+        final String signature = sendTransaction(transaction, signers);
+
+        final ConfirmationTracker tracker = confirmationTracker;
+        if (tracker != null) {
+            // whichever of the subscription and the poll sees it first reports it
+            final NotificationEventListener target = listener;
+            final AtomicBoolean notified = new AtomicBoolean();
+
+            listener = new NotificationEventListener() {
+                @Override
+                public void onNotifiacationEvent(Object data) {
+                    if (notified.compareAndSet(false, true)) {
+                        tracker.untrack(signature);
+                        target.onNotifiacationEvent(data);
+                    }
+                }
+            };
+            tracker.track(signature, listener);
+        }
 
-        SubscriptionWebSocketClient subClient = SubscriptionWebSocketClient.getInstance(client.getEndpoint());
-        subClient.signatureSubscribe(signature, listener);
+        getSubscriptionManager().signatureSubscribe(signature, listener);
     }
 
     public long getBalance(PublicKey account) throws RpcException {
@@ -65,21 +255,52 @@ public class RpcApi {
 
         params.add(account.toString());
 
-        return client.call("getBalance", params, ValueLong.class).getValue();
+        return client.call("getBalance", params, ValueLong.ADAPTER).getValue();
+    }
+
+    public List<Long> getBalance(List<PublicKey> accounts) throws RpcException {
+        List<RpcRequest> requests = new ArrayList<RpcRequest>(accounts.size());
+
+        for (PublicKey account : accounts) {
+            List<Object> params = new ArrayList<Object>();
+
+            params.add(account.toString());
+
+            requests.add(new RpcRequest("getBalance", params));
+        }
+
+        List<ValueLong> balances = client.callBatch(requests, ValueLong.ADAPTER);
+
+        List<Long> result = new ArrayList<Long>(balances.size());
+        for (ValueLong balance : balances) {
+            result.add(balance.getValue());
+        }
+
+        return result;
     }
 
     public ConfirmedTransaction getConfirmedTransaction(String signature) throws RpcException {
         List<Object> params = new ArrayList<Object>();
 
         params.add(signature);
-        // TODO jsonParsed, base58, base64
-        // the default encoding is JSON
-        // params.add("json");
 
-        return client.call("getConfirmedTransaction", params, ConfirmedTransaction.class);
+        return client.call("getConfirmedTransaction", params, ConfirmedTransaction.ADAPTER);
+    }
+
+    /**
+     * With {@link Encoding#base64} the transaction arrives in wire format,
+     * about a third of the size of the JSON, and is left undecoded in
+     * {@link ConfirmedTransaction#getRawTransaction()}.
+     */
+    public ConfirmedTransaction getConfirmedTransaction(String signature, Encoding encoding) throws RpcException {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(signature);
+        params.add(new RpcSendTransactionConfig(encoding));
+
+        return client.call("getConfirmedTransaction", params, ConfirmedTransaction.ADAPTER);
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public List<SignatureInformation> getConfirmedSignaturesForAddress2(PublicKey account, int limit)
             throws RpcException {
         List<Object> params = new ArrayList<Object>();
@@ -87,14 +308,22 @@ public class RpcApi {
         params.add(account.toString());
         params.add(new ConfirmedSignFAddr2(limit));
 
-        List<AbstractMap> rawResult = client.call("getConfirmedSignaturesForAddress2", params, List.class);
+        return client.call("getConfirmedSignaturesForAddress2", params, SIGNATURE_INFORMATION_LIST);
+    }
 
-        List<SignatureInformation> result = new ArrayList<SignatureInformation>();
-        for (AbstractMap item : rawResult) {
-            result.add(new SignatureInformation(item));
-        }
+    /**
+     * Returns up to {@code limit} signatures, newest first, older than
+     * {@code before} and newer than {@code until}. Either cursor may be
+     * {@code null}.
+     */
+    public List<SignatureInformation> getConfirmedSignaturesForAddress2(PublicKey account, int limit, String before,
+            String until) throws RpcException {
+        List<Object> params = new ArrayList<Object>();
 
-        return result;
+        params.add(account.toString());
+        params.add(new ConfirmedSignFAddr2(limit, before, until));
+
+        return client.call("getConfirmedSignaturesForAddress2", params, SIGNATURE_INFORMATION_LIST);
     }
 
     public List<ProgramAccount> getProgramAccounts(PublicKey account, long offset, String bytes) throws RpcException {
@@ -109,7 +338,6 @@ public class RpcApi {
         return getProgramAccounts(account, new ProgramAccountConfig(Encoding.base64));
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     public List<ProgramAccount> getProgramAccounts(PublicKey account, ProgramAccountConfig programAccountConfig)
             throws RpcException {
         List<Object> params = new ArrayList<Object>();
@@ -120,14 +348,42 @@ public class RpcApi {
             params.add(programAccountConfig);
         }
 
-        List<AbstractMap> rawResult = client.call("getProgramAccounts", params, List.class);
+        return client.call("getProgramAccounts", params, PROGRAM_ACCOUNT_LIST);
+    }
 
-        List<ProgramAccount> result = new ArrayList<ProgramAccount>();
-        for (AbstractMap item : rawResult) {
-            result.add(new ProgramAccount(item));
+    /**
+     * Streams the program's accounts to {@code visitor} as they are parsed
+     * and returns how many there were. Only one account is held at a time,
+     * so memory use does not grow with the result; combine with a
+     * {@link DataSlice} to cut the data of each account down as well.
+     */
+    public long getProgramAccounts(PublicKey account, ProgramAccountConfig programAccountConfig,
+            final ProgramAccountVisitor visitor) throws RpcException {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(account.toString());
+
+        if (programAccountConfig != null) {
+            params.add(programAccountConfig);
         }
 
-        return result;
+        Long count = client.callStreaming("getProgramAccounts", params, new ResultReader<Long>() {
+            @Override
+            public Long read(JsonReader reader) throws IOException {
+                long count = 0;
+
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    visitor.visit(ProgramAccount.ADAPTER.fromJson(reader));
+                    count++;
+                }
+                reader.endArray();
+
+                return count;
+            }
+        });
+
+        return count != null ? count : 0;
     }
 
     public AccountInfo getAccountInfo(PublicKey account) throws RpcException {
@@ -136,7 +392,84 @@ public class RpcApi {
         params.add(account.toString());
         params.add(new RpcSendTransactionConfig());
 
-        return client.call("getAccountInfo", params, AccountInfo.class);
+        return client.call("getAccountInfo", params, AccountInfo.ADAPTER);
+    }
+
+    public List<AccountInfo> getAccountInfo(List<PublicKey> accounts) throws RpcException {
+        List<RpcRequest> requests = new ArrayList<RpcRequest>(accounts.size());
+
+        for (PublicKey account : accounts) {
+            List<Object> params = new ArrayList<Object>();
+
+            params.add(account.toString());
+            params.add(new RpcSendTransactionConfig());
+
+            requests.add(new RpcRequest("getAccountInfo", params));
+        }
+
+        return client.callBatch(requests, AccountInfo.ADAPTER);
+    }
+
+    /**
+     * Fetches any number of accounts in a single round trip. Keys beyond
+     * {@link #MAX_MULTIPLE_ACCOUNTS} are split into several
+     * getMultipleAccounts requests sent together as one batch.
+     */
+    public List<AccountInfo.Value> getMultipleAccounts(List<PublicKey> accounts) throws RpcException {
+        List<RpcRequest> requests = new ArrayList<RpcRequest>();
+
+        for (int from = 0; from < accounts.size(); from += MAX_MULTIPLE_ACCOUNTS) {
+            int to = Math.min(from + MAX_MULTIPLE_ACCOUNTS, accounts.size());
+
+            List<Object> keys = new ArrayList<Object>(to - from);
+            for (int i = from; i < to; i++) {
+                keys.add(accounts.get(i).toString());
+            }
+
+            List<Object> params = new ArrayList<Object>();
+
+            params.add(keys);
+            params.add(new RpcSendTransactionConfig());
+
+            requests.add(new RpcRequest("getMultipleAccounts", params));
+        }
+
+        List<AccountInfo.Value> result = new ArrayList<AccountInfo.Value>(accounts.size());
+        for (MultipleAccounts chunk : client.callBatch(requests, MultipleAccounts.ADAPTER)) {
+            result.addAll(chunk.getValue());
+        }
+
+        return result;
+    }
+
+    /**
+     * Looks up the status of any number of signatures in a single round
+     * trip. Signatures beyond {@link #MAX_SIGNATURE_STATUSES} are split into
+     * several getSignatureStatuses requests sent together as one batch.
+     */
+    public List<SignatureStatuses.Value> getSignatureStatuses(List<String> signatures,
+            boolean searchTransactionHistory) throws RpcException {
+        List<RpcRequest> requests = new ArrayList<RpcRequest>();
+
+        for (int from = 0; from < signatures.size(); from += MAX_SIGNATURE_STATUSES) {
+            int to = Math.min(from + MAX_SIGNATURE_STATUSES, signatures.size());
+
+            List<Object> params = new ArrayList<Object>();
+
+            params.add(new ArrayList<Object>(signatures.subList(from, to)));
+            if (searchTransactionHistory) {
+                params.add(new SignatureStatusConfig(true));
+            }
+
+            requests.add(new RpcRequest("getSignatureStatuses", params));
+        }
+
+        List<SignatureStatuses.Value> result = new ArrayList<SignatureStatuses.Value>(signatures.size());
+        for (SignatureStatuses chunk : client.callBatch(requests, SignatureStatuses.ADAPTER)) {
+            result.addAll(chunk.getValue());
+        }
+
+        return result;
     }
 
     public long getMinimumBalanceForRentExemption(long dataLength) throws RpcException {
@@ -144,7 +477,7 @@ public class RpcApi {
 
         params.add(dataLength);
 
-        return client.call("getMinimumBalanceForRentExemption", params, Long.class);
+        return client.call("getMinimumBalanceForRentExemption", params, JsonAdapters.LONG);
     }
 
     public long getBlockTime(long block) throws RpcException {
@@ -152,7 +485,7 @@ public class RpcApi {
 
         params.add(block);
 
-        return client.call("getBlockTime", params, Long.class);
+        return client.call("getBlockTime", params, JsonAdapters.LONG);
     }
 
     public String requestAirdrop(PublicKey address, long lamports) throws RpcException {
@@ -161,7 +494,184 @@ public class RpcApi {
         params.add(address.toString());
         params.add(lamports);
 
-        return client.call("requestAirdrop", params, String.class);
+        return client.call("requestAirdrop", params, JsonAdapters.STRING);
+    }
+
+    public RpcFuture<String> getRecentBlockhashAsync() {
+        return client.callAsync("getRecentBlockhash", null, BLOCKHASH);
+    }
+
+    /**
+     * Signs and sends the transaction without blocking the caller, fetching
+     * a blockhash asynchronously if the provider has no fresh one.
+     * Cancelling the returned future stops the send if the blockhash request
+     * is still outstanding.
+     */
+    public RpcFuture<String> sendTransactionAsync(final Transaction transaction, final List<Account> signers) {
+        final RpcFuture<String> result = new RpcFuture<String>();
+
+        String cachedBlockhash = blockhashProvider.getCachedBlockhash();
+        if (cachedBlockhash != null) {
+            sendAsync(result, transaction, signers, cachedBlockhash, true);
+            return result;
+        }
+
+        getRecentBlockhashAsync().addCallback(new RpcCallback<String>() {
+            @Override
+            public void onSuccess(String recentBlockhash) {
+                blockhashProvider.update(recentBlockhash);
+                sendAsync(result, transaction, signers, recentBlockhash, false);
+            }
+
+            @Override
+            public void onFailure(RpcException exception) {
+                result.fail(exception);
+            }
+        });
+
+        return result;
+    }
+
+    private void sendAsync(final RpcFuture<String> result, final Transaction transaction,
+            final List<Account> signers, final String recentBlockhash, final boolean retryOnExpired) {
+        if (result.isDone()) {
+            return;
+        }
+
+        List<Object> params;
+        try {
+            params = signTransaction(transaction, signers, recentBlockhash);
+        } catch (RuntimeException e) {
+            result.fail(new RpcException(e.getMessage(), e));
+            return;
+        }
+
+        client.callAsync("sendTransaction", params, JsonAdapters.STRING).addCallback(new RpcCallback<String>() {
+            @Override
+            public void onSuccess(String signature) {
+                result.complete(signature);
+            }
+
+            @Override
+            public void onFailure(RpcException exception) {
+                if (!BlockhashProvider.isBlockhashNotFound(exception)) {
+                    result.fail(exception);
+                    return;
+                }
+
+                blockhashProvider.invalidate(recentBlockhash);
+
+                if (!retryOnExpired) {
+                    result.fail(exception);
+                    return;
+                }
+
+                getRecentBlockhashAsync().addCallback(new RpcCallback<String>() {
+                    @Override
+                    public void onSuccess(String freshBlockhash) {
+                        blockhashProvider.update(freshBlockhash);
+                        sendAsync(result, transaction, signers, freshBlockhash, false);
+                    }
+
+                    @Override
+                    public void onFailure(RpcException exception) {
+                        result.fail(exception);
+                    }
+                });
+            }
+        });
+    }
+
+    public RpcFuture<Long> getBalanceAsync(PublicKey account) {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(account.toString());
+
+        return client.callAsync("getBalance", params, BALANCE);
+    }
+
+    public RpcFuture<ConfirmedTransaction> getConfirmedTransactionAsync(String signature) {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(signature);
+
+        return client.callAsync("getConfirmedTransaction", params, ConfirmedTransaction.ADAPTER);
+    }
+
+    public RpcFuture<ConfirmedTransaction> getConfirmedTransactionAsync(String signature, Encoding encoding) {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(signature);
+        params.add(new RpcSendTransactionConfig(encoding));
+
+        return client.callAsync("getConfirmedTransaction", params, ConfirmedTransaction.ADAPTER);
+    }
+
+    public RpcFuture<List<SignatureInformation>> getConfirmedSignaturesForAddress2Async(PublicKey account,
+            int limit) {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(account.toString());
+        params.add(new ConfirmedSignFAddr2(limit));
+
+        return client.callAsync("getConfirmedSignaturesForAddress2", params, SIGNATURE_INFORMATION_LIST);
+    }
+
+    public RpcFuture<List<SignatureInformation>> getConfirmedSignaturesForAddress2Async(PublicKey account,
+            int limit, String before, String until) {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(account.toString());
+        params.add(new ConfirmedSignFAddr2(limit, before, until));
+
+        return client.callAsync("getConfirmedSignaturesForAddress2", params, SIGNATURE_INFORMATION_LIST);
+    }
+
+    public RpcFuture<List<ProgramAccount>> getProgramAccountsAsync(PublicKey account,
+            ProgramAccountConfig programAccountConfig) {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(account.toString());
+
+        if (programAccountConfig != null) {
+            params.add(programAccountConfig);
+        }
+
+        return client.callAsync("getProgramAccounts", params, PROGRAM_ACCOUNT_LIST);
+    }
+
+    public RpcFuture<AccountInfo> getAccountInfoAsync(PublicKey account) {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(account.toString());
+        params.add(new RpcSendTransactionConfig());
+
+        return client.callAsync("getAccountInfo", params, AccountInfo.ADAPTER);
+    }
+
+    public RpcFuture<Long> getMinimumBalanceForRentExemptionAsync(long dataLength) {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(dataLength);
+
+        return client.callAsync("getMinimumBalanceForRentExemption", params, JsonAdapters.LONG);
+    }
+
+    public RpcFuture<Long> getBlockTimeAsync(long block) {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(block);
+
+        return client.callAsync("getBlockTime", params, JsonAdapters.LONG);
+    }
+
+    public RpcFuture<String> requestAirdropAsync(PublicKey address, long lamports) {
+        List<Object> params = new ArrayList<Object>();
+
+        params.add(address.toString());
+        params.add(lamports);
+
+        return client.callAsync("requestAirdrop", params, JsonAdapters.STRING);
     }
 
 }
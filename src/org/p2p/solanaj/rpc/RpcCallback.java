@@ -0,0 +1,7 @@
+package org.p2p.solanaj.rpc;
+
+public interface RpcCallback<T> {
+    public void onSuccess(T result);
+
+    public void onFailure(RpcException exception);
+}
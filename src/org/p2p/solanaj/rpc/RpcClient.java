@@ -1,68 +1,1312 @@
 package org.p2p.solanaj.rpc;
 
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
 
 import banki.io.IOException;
+import banki.io.InputStream;
 import banki.lang.reflect.Type;
+import banki.util.ArrayList;
+import banki.util.Arrays;
+import banki.util.HashMap;
+import banki.util.HashSet;
 import banki.util.List;
+import banki.util.Map;
+import banki.util.Set;
+import banki.util.concurrent.ConcurrentHashMap;
+import banki.util.concurrent.ConcurrentLinkedQueue;
+import banki.util.concurrent.ExecutionException;
+import banki.util.concurrent.ExecutorService;
+import banki.util.concurrent.ScheduledExecutorService;
+import banki.util.concurrent.ScheduledFuture;
+import banki.util.concurrent.TimeUnit;
+import banki.util.concurrent.TimeoutException;
+import banki.util.concurrent.atomic.AtomicBoolean;
+import banki.util.concurrent.atomic.AtomicInteger;
+import banki.util.concurrent.atomic.AtomicLong;
+import banki.util.zip.GZIPInputStream;
+import banki.util.zip.GZIPOutputStream;
+import banki.util.zip.InflaterInputStream;
 
 import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 import com.squareup.moshi.Moshi;
-import com.squareup.moshi.Types;
 
+import org.p2p.solanaj.rpc.types.AccountInfo;
+import org.p2p.solanaj.rpc.types.ConfirmedTransaction;
+import org.p2p.solanaj.rpc.types.JsonAdapters;
+import org.p2p.solanaj.rpc.types.RecentBlockhash;
+import org.p2p.solanaj.rpc.types.ResultReader;
 import org.p2p.solanaj.rpc.types.RpcRequest;
 import org.p2p.solanaj.rpc.types.RpcResponse;
+import org.p2p.solanaj.rpc.types.RpcResultTypes.ValueLong;
 
 public class RpcClient {
+    public static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    private static final int MAX_MEMO_ENTRIES = 1024;
+
     private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
 
-    private String endpoint;
-    private OkHttpClient httpClient = new OkHttpClient();
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final int INFLATE_BUFFER_SIZE = 8192;
+
+    private static final JsonAdapter<List<RpcRequest>> REQUEST_LIST = JsonAdapters.listOf(RpcRequest.ADAPTER);
+
+    // methods with side effects are never hedged
+    private static final Set<String> WRITE_METHODS = new HashSet<String>(
+            Arrays.asList("sendTransaction", "requestAirdrop"));
+
+    // methods that must not be resent to another node after a transport
+    // error: the first node may have acted on the request already. A resent
+    // sendTransaction is deduplicated by its signature; an airdrop is not
+    private static final Set<String> NON_IDEMPOTENT_METHODS = new HashSet<String>(
+            Arrays.asList("requestAirdrop"));
+
+    private static final Moshi moshi = new Moshi.Builder().build();
+    private static final ConcurrentHashMap<Class<?>, JsonAdapter<?>> adapters = new ConcurrentHashMap<Class<?>, JsonAdapter<?>>();
+
+    static {
+        adapters.put(String.class, JsonAdapters.STRING);
+        adapters.put(Long.class, JsonAdapters.LONG);
+        adapters.put(Object.class, JsonAdapters.VALUE);
+        adapters.put(List.class, JsonAdapters.VALUE_LIST);
+        adapters.put(ValueLong.class, ValueLong.ADAPTER);
+        adapters.put(AccountInfo.class, AccountInfo.ADAPTER);
+        adapters.put(RecentBlockhash.class, RecentBlockhash.ADAPTER);
+        adapters.put(ConfirmedTransaction.class, ConfirmedTransaction.ADAPTER);
+    }
+
+    private RpcEndpointPool endpoints;
+    private OkHttpClient httpClient;
     private RpcApi rpcApi;
 
+    private final ConcurrentLinkedQueue<Exchange<?>> pendingCalls = new ConcurrentLinkedQueue<Exchange<?>>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int maxInFlight;
+    private volatile long requestTimeoutMillis;
+    private volatile double hedgePercentile;
+    private ScheduledFuture<?> healthCheckTask;
+
+    private volatile boolean coalescing = true;
+    private final ConcurrentHashMap<ReadKey, SharedRead<?>> readsInFlight = new ConcurrentHashMap<ReadKey, SharedRead<?>>();
+    private final ConcurrentHashMap<String, Long> memoTtls = new ConcurrentHashMap<String, Long>();
+    private final ConcurrentHashMap<ReadKey, Memo> memos = new ConcurrentHashMap<ReadKey, Memo>();
+
+    private volatile boolean compressResponses = true;
+    private volatile int requestCompressionThreshold;
+    private final TransferStats transferStats = new TransferStats();
+    private final RpcMetrics metrics = new RpcMetrics();
+
     public RpcClient(Cluster endpoint) {
         this(endpoint.getEndpoint());
     }
 
     public RpcClient(String endpoint) {
-        this.endpoint = endpoint;
+        this(Arrays.asList(endpoint));
+    }
+
+    /**
+     * Creates a client whose asynchronous calls run on the given executor.
+     */
+    public RpcClient(String endpoint, ExecutorService executor) {
+        this(Arrays.asList(endpoint), executor);
+    }
+
+    /**
+     * Creates a client that routes every call to the fastest healthy node
+     * among {@code endpoints} and fails over to the next one on transport
+     * errors.
+     */
+    public RpcClient(List<String> endpoints) {
+        this(new RpcEndpointPool(endpoints), new OkHttpClient());
+    }
+
+    public RpcClient(List<String> endpoints, ExecutorService executor) {
+        this(new RpcEndpointPool(endpoints),
+                new OkHttpClient.Builder().dispatcher(new Dispatcher(executor)).build());
+    }
+
+    private RpcClient(RpcEndpointPool endpoints, OkHttpClient httpClient) {
+        this.endpoints = endpoints;
+        this.httpClient = httpClient;
         rpcApi = new RpcApi(this);
+        setMaxInFlight(DEFAULT_MAX_IN_FLIGHT);
     }
 
     public <T> T call(String method, List<Object> params, Class<T> clazz) throws RpcException {
-        RpcRequest rpcRequest = new RpcRequest(method, params);
+        return call(method, params, adapterFor(clazz));
+    }
+
+    /**
+     * Calls a method and blocks for its result. Concurrent identical reads
+     * (same method, params and result adapter) share a single request.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T call(String method, List<Object> params, JsonAdapter<T> resultAdapter) throws RpcException {
+        if (!coalescing || WRITE_METHODS.contains(method)) {
+            return callUncoalesced(method, params, resultAdapter);
+        }
 
-        JsonAdapter<RpcRequest> rpcRequestJsonAdapter = new Moshi.Builder().build().adapter(RpcRequest.class);
-        JsonAdapter<RpcResponse<T>> resultAdapter = new Moshi.Builder().build()
-                .adapter(Types.newParameterizedType(RpcResponse.class, Type.class.cast(clazz)));
+        ReadKey key = new ReadKey(method, params, resultAdapter);
 
-        Request request = new Request.Builder().url(endpoint)
-                .post(RequestBody.create(rpcRequestJsonAdapter.toJson(rpcRequest), JSON)).build();
+        Memo memo = memoized(key);
+        if (memo != null) {
+            return (T) memo.value;
+        }
+
+        while (true) {
+            SharedRead<T> shared = new SharedRead<T>(key);
+            SharedRead<T> existing = (SharedRead<T>) readsInFlight.putIfAbsent(key, shared);
+
+            if (existing != null) {
+                RpcFuture<T> subscriber = existing.subscribe();
+                if (subscriber != null) {
+                    return subscriber.await();
+                }
+
+                // the existing read is delivering its result; make room for ours
+                readsInFlight.remove(key, existing);
+                continue;
+            }
+
+            T result;
+            try {
+                result = callUncoalesced(method, params, resultAdapter);
+            } catch (RpcException e) {
+                shared.onFailure(e);
+                throw e;
+            } catch (RuntimeException e) {
+                // waiting callers must not stay subscribed to a read that died
+                shared.onFailure(new RpcException(e.getMessage(), e));
+                throw e;
+            }
+
+            shared.onSuccess(result);
+            return result;
+        }
+    }
+
+    private <T> T callUncoalesced(String method, List<Object> params, JsonAdapter<T> resultAdapter)
+            throws RpcException {
+        final RpcRequest rpcRequest = new RpcRequest(method, params);
+        final JsonAdapter<T> adapter = resultAdapter;
+
+        RpcEndpoint endpoint = endpoints.select(null);
+
+        double percentile = hedgePercentile;
+        if (percentile > 0 && !WRITE_METHODS.contains(method)) {
+            long hedgeDelay = endpoint.getLatencyPercentile(percentile);
+
+            if (hedgeDelay > 0 && endpoints.select(endpoint) != null) {
+                return callHedged(rpcRequest, resultAdapter, endpoint, hedgeDelay);
+            }
+        }
+
+        final RpcMetrics.MethodStats stats = metrics.forMethod(method);
+        long start = stats.begin();
+        RpcException error = null;
+
+        try {
+            return withFailover(endpoint, isIdempotent(method), stats, new Attempt<T>() {
+                @Override
+                T run(RpcEndpoint endpoint) throws IOException, RpcException {
+                    try (Response response = execute(endpoint, RpcRequest.ADAPTER, rpcRequest, stats)) {
+                        return readResult(response, adapter, stats);
+                    }
+                }
+            });
+        } catch (RpcException e) {
+            error = e;
+            throw e;
+        } catch (RuntimeException e) {
+            error = new RpcException(e.getMessage(), e);
+            throw e;
+        } finally {
+            stats.end(start, error);
+        }
+    }
+
+    /**
+     * Calls a method whose result reader has side effects, such as handing
+     * each element to a visitor as it is parsed. The call is never shared or
+     * memoized, and it only fails over while no result byte has been read,
+     * so nothing is delivered twice.
+     */
+    public <T> T callStreaming(String method, List<Object> params, ResultReader<T> resultReader)
+            throws RpcException {
+        final RpcRequest rpcRequest = new RpcRequest(method, params);
+        final RpcMetrics.MethodStats stats = metrics.forMethod(method);
+        long start = stats.begin();
+        RpcException error = null;
 
         try {
-            Response response = httpClient.newCall(request).execute();
-            RpcResponse<T> rpcResult = resultAdapter.fromJson(response.body().string());
+            Response response = withFailover(endpoints.select(null), isIdempotent(method), stats, new Attempt<Response>() {
+                @Override
+                Response run(RpcEndpoint endpoint) throws IOException {
+                    return execute(endpoint, RpcRequest.ADAPTER, rpcRequest, stats);
+                }
+            });
 
-            if (rpcResult.getError() != null) {
-                throw new RpcException(rpcResult.getError().getMessage());
+            try {
+                return readResult(response, resultReader, stats);
+            } catch (IOException e) {
+                throw new RpcException(e.getMessage(), e);
+            } finally {
+                response.close();
             }
+        } catch (RpcException e) {
+            error = e;
+            throw e;
+        } catch (RuntimeException e) {
+            error = new RpcException(e.getMessage(), e);
+            throw e;
+        } finally {
+            stats.end(start, error);
+        }
+    }
 
-            return (T) rpcResult.getResult();
-        } catch (IOException e) {
-            throw new RpcException(e.getMessage());
+    public <T> RpcFuture<T> callAsync(String method, List<Object> params, JsonAdapter<T> resultAdapter) {
+        return callAsync(method, params, resultAdapter, requestTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues a call without blocking the caller. At most
+     * {@link #getMaxInFlight()} calls are on the wire at once; the rest wait
+     * in order and are sent as earlier calls complete. A positive timeout
+     * bounds each HTTP attempt, including connecting and reading the
+     * response.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> RpcFuture<T> callAsync(String method, List<Object> params, JsonAdapter<T> resultAdapter, long timeout,
+            TimeUnit unit) {
+        if (!coalescing || WRITE_METHODS.contains(method)) {
+            return sendAsync(method, params, resultAdapter, unit.toMillis(timeout));
+        }
+
+        ReadKey key = new ReadKey(method, params, resultAdapter);
+
+        Memo memo = memoized(key);
+        if (memo != null) {
+            RpcFuture<T> future = new RpcFuture<T>();
+            future.complete((T) memo.value);
+            return future;
+        }
+
+        while (true) {
+            SharedRead<T> shared = new SharedRead<T>(key);
+            SharedRead<T> existing = (SharedRead<T>) readsInFlight.putIfAbsent(key, shared);
+
+            if (existing != null) {
+                RpcFuture<T> subscriber = existing.subscribe();
+                if (subscriber != null) {
+                    return subscriber;
+                }
+
+                readsInFlight.remove(key, existing);
+                continue;
+            }
+
+            RpcFuture<T> subscriber = shared.subscribe();
+            try {
+                shared.start(sendAsync(method, params, resultAdapter, unit.toMillis(timeout)));
+            } catch (RuntimeException e) {
+                shared.onFailure(new RpcException(e.getMessage(), e));
+            }
+
+            return subscriber;
         }
     }
 
+    private <T> RpcFuture<T> sendAsync(String method, List<Object> params, JsonAdapter<T> resultAdapter,
+            long timeoutMillis) {
+        Exchange<T> exchange = new Exchange<T>(new RpcRequest(method, params), resultAdapter, timeoutMillis);
+
+        pendingCalls.add(exchange);
+        dispatchPending();
+
+        return exchange.future;
+    }
+
+    /**
+     * Sends all requests as one JSON-RPC batch and returns their results in
+     * request order. Responses are matched to requests by id, since servers
+     * may answer a batch in any order.
+     */
+    public <T> List<T> callBatch(final List<RpcRequest> requests, final JsonAdapter<T> resultAdapter)
+            throws RpcException {
+        if (requests.isEmpty()) {
+            return new ArrayList<T>();
+        }
+
+        final RpcMetrics.MethodStats stats = metrics.forMethod(batchMethod(requests));
+        long start = stats.begin();
+        RpcException error = null;
+
+        try {
+            return withFailover(endpoints.select(null), isIdempotent(requests), stats, new Attempt<List<T>>() {
+                @Override
+                List<T> run(RpcEndpoint endpoint) throws IOException, RpcException {
+                    try (Response response = execute(endpoint, REQUEST_LIST, requests, stats)) {
+                        return readBatchResult(response, requests, resultAdapter, stats);
+                    }
+                }
+            });
+        } catch (RpcException e) {
+            error = e;
+            throw e;
+        } catch (RuntimeException e) {
+            error = new RpcException(e.getMessage(), e);
+            throw e;
+        } finally {
+            stats.end(start, error);
+        }
+    }
+
+    /**
+     * Batches are counted under their method when all requests share one,
+     * as RpcApi's chunked calls do, and under "batch" otherwise.
+     */
+    private static String batchMethod(List<RpcRequest> requests) {
+        String method = requests.get(0).getMethod();
+
+        for (RpcRequest rpcRequest : requests) {
+            if (!method.equals(rpcRequest.getMethod())) {
+                return "batch";
+            }
+        }
+
+        return method;
+    }
+
     public RpcApi getApi() {
         return rpcApi;
     }
 
+    /**
+     * Returns the URL of the node calls are currently routed to.
+     */
     public String getEndpoint() {
-        return endpoint;
+        return endpoints.select(null).getUrl();
+    }
+
+    public RpcEndpointPool getEndpoints() {
+        return endpoints;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+
+        this.maxInFlight = maxInFlight;
+
+        // the dispatcher must not throttle below our own limit
+        Dispatcher dispatcher = httpClient.dispatcher();
+        dispatcher.setMaxRequests(Math.max(dispatcher.getMaxRequests(), maxInFlight));
+        dispatcher.setMaxRequestsPerHost(Math.max(dispatcher.getMaxRequestsPerHost(), maxInFlight));
+
+        dispatchPending();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return pendingCalls.size();
+    }
+
+    /**
+     * Sets the default timeout of asynchronous calls; zero means no timeout
+     * beyond the HTTP client's own connect and read timeouts.
+     */
+    public void setRequestTimeout(long timeout, TimeUnit unit) {
+        this.requestTimeoutMillis = unit.toMillis(timeout);
+    }
+
+    /**
+     * Enables hedging of blocking reads: when a node has not answered within
+     * the given percentile (e.g. 0.95) of its recent latencies, the request is
+     * also sent to the next best node and the first answer wins. Zero turns
+     * hedging off.
+     */
+    public void setHedgePercentile(double percentile) {
+        if (percentile < 0 || percentile >= 1) {
+            throw new IllegalArgumentException("Percentile must be in [0, 1)");
+        }
+
+        this.hedgePercentile = percentile;
+    }
+
+    /**
+     * Turns sharing of concurrent identical reads on or off; it is on by
+     * default.
+     */
+    public void setCoalescing(boolean coalescing) {
+        this.coalescing = coalescing;
+    }
+
+    /**
+     * Keeps results of the given method for {@code ttl}, so repeated reads
+     * with the same params are answered locally. Only use this for methods
+     * whose result cannot change within the TTL, such as
+     * getMinimumBalanceForRentExemption or getBlockTime. A zero TTL turns
+     * memoization off again.
+     */
+    public void setMemoTtl(String method, long ttl, TimeUnit unit) {
+        if (ttl <= 0) {
+            memoTtls.remove(method);
+
+            for (ReadKey key : memos.keySet()) {
+                if (key.method.equals(method)) {
+                    memos.remove(key);
+                }
+            }
+        } else {
+            memoTtls.put(method, unit.toMillis(ttl));
+        }
+    }
+
+    /**
+     * Turns the {@code Accept-Encoding: gzip, deflate} request header on or
+     * off; it is on by default. Compressed responses are inflated as they are
+     * read, so the decoder never waits for the whole body.
+     */
+    public void setCompressResponses(boolean compressResponses) {
+        this.compressResponses = compressResponses;
+    }
+
+    /**
+     * Gzips request bodies of at least {@code bytes} bytes, e.g. large
+     * batches. Only enable this against nodes that accept
+     * {@code Content-Encoding: gzip}; zero, the default, turns it off.
+     */
+    public void setRequestCompressionThreshold(int bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+
+        this.requestCompressionThreshold = bytes;
+    }
+
+    public TransferStats getTransferStats() {
+        return transferStats;
+    }
+
+    /**
+     * Latency, size, retry and error statistics per method.
+     */
+    public RpcMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Periodically probes ejected nodes with getHealth so that they return to
+     * rotation as soon as they recover, without waiting for live traffic.
+     */
+    public synchronized void startHealthChecks(ScheduledExecutorService executor, long interval, TimeUnit unit) {
+        if (healthCheckTask != null) {
+            return;
+        }
+
+        healthCheckTask = executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                for (RpcEndpoint endpoint : endpoints.getEndpoints()) {
+                    if (endpoint.isEjected()) {
+                        probe(endpoint);
+                    }
+                }
+            }
+        }, interval, interval, unit);
+    }
+
+    public synchronized void stopHealthChecks() {
+        if (healthCheckTask != null) {
+            healthCheckTask.cancel(false);
+            healthCheckTask = null;
+        }
+    }
+
+    /**
+     * Returns the streaming adapter for a result type, falling back to a
+     * reflective Moshi adapter (built once per class) for unknown types.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> JsonAdapter<T> adapterFor(Class<T> clazz) {
+        JsonAdapter<T> adapter = (JsonAdapter<T>) adapters.get(clazz);
+
+        if (adapter == null) {
+            adapter = moshi.adapter(Type.class.cast(clazz));
+            adapters.putIfAbsent(clazz, adapter);
+        }
+
+        return adapter;
+    }
+
+    private <T> Call newCall(RpcEndpoint endpoint, JsonAdapter<T> adapter, T body, RpcMetrics.MethodStats stats) {
+        Request.Builder builder = new Request.Builder().url(endpoint.getUrl());
+
+        // setting the header ourselves turns off okhttp's transparent gzip,
+        // so both encodings are inflated and counted in openReader
+        if (compressResponses) {
+            builder.header("Accept-Encoding", ACCEPT_ENCODING);
+        }
+
+        int threshold = requestCompressionThreshold;
+        if (threshold > 0) {
+            Buffer json = JsonRequestBody.serialize(adapter, body);
+
+            if (json.size() >= threshold) {
+                builder.header("Content-Encoding", "gzip");
+                json = gzip(json);
+            }
+
+            stats.requestBytes.addAndGet(json.size());
+            builder.post(RequestBody.create(JSON, json.readByteString()));
+        } else {
+            builder.post(new JsonRequestBody<T>(adapter, body, stats.requestBytes));
+        }
+
+        return httpClient.newCall(builder.build());
+    }
+
+    private static Buffer gzip(Buffer source) {
+        Buffer compressed = new Buffer();
+
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed.outputStream())) {
+            source.writeTo(out);
+        } catch (IOException e) {
+            // writing to a buffer cannot fail
+            throw new IllegalStateException(e);
+        }
+
+        return compressed;
+    }
+
+    /**
+     * Opens a reader over the response body, inflating it on the fly if the
+     * node compressed it.
+     */
+    private JsonReader openReader(Response response, RpcMetrics.MethodStats stats) throws IOException {
+        String encoding = response.header("Content-Encoding");
+        InputStream body = response.body().byteStream();
+        InputStream decoded;
+
+        if (encoding == null || encoding.equalsIgnoreCase("identity")) {
+            decoded = new CountingInputStream(body, transferStats.wireBytes, transferStats.decodedBytes,
+                    stats.responseBytes);
+        } else {
+            InputStream wire = new CountingInputStream(body, transferStats.wireBytes, stats.responseBytes);
+
+            if (encoding.equalsIgnoreCase("gzip")) {
+                decoded = new GZIPInputStream(wire, INFLATE_BUFFER_SIZE);
+            } else if (encoding.equalsIgnoreCase("deflate")) {
+                decoded = new InflaterInputStream(wire);
+            } else {
+                throw new IOException("Unsupported content encoding: " + encoding);
+            }
+
+            transferStats.compressedResponses.incrementAndGet();
+            decoded = new CountingInputStream(decoded, transferStats.decodedBytes);
+        }
+
+        return JsonReader.of(Okio.buffer(Okio.source(decoded)));
+    }
+
+    /**
+     * Executes a request against one node and records its latency. Transport
+     * errors and overloaded or failing nodes surface as IOException.
+     */
+    private <T> Response execute(RpcEndpoint endpoint, JsonAdapter<T> adapter, T body, RpcMetrics.MethodStats stats)
+            throws IOException {
+        long start = System.nanoTime();
+
+        Response response;
+        try {
+            response = newCall(endpoint, adapter, body, stats).execute();
+            checkStatus(response);
+        } catch (IOException e) {
+            endpoint.recordFailure();
+            throw e;
+        }
+
+        endpoint.recordSuccess(elapsedMillis(start));
+
+        return response;
+    }
+
+    private <T> T withFailover(RpcEndpoint endpoint, boolean idempotent, RpcMetrics.MethodStats stats,
+            Attempt<T> attempt) throws RpcException {
+        try {
+            return attempt.run(endpoint);
+        } catch (IOException e) {
+            RpcEndpoint fallback = idempotent ? endpoints.select(endpoint) : null;
+
+            if (fallback == null) {
+                throw new RpcException(e.getMessage(), e);
+            }
+
+            stats.retried();
+            try {
+                return attempt.run(fallback);
+            } catch (IOException retryException) {
+                throw new RpcException(retryException.getMessage(), retryException);
+            }
+        }
+    }
+
+    private static boolean isIdempotent(String method) {
+        return !NON_IDEMPOTENT_METHODS.contains(method);
+    }
+
+    private static boolean isIdempotent(List<RpcRequest> requests) {
+        for (RpcRequest request : requests) {
+            if (!isIdempotent(request.getMethod())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private <T> T callHedged(RpcRequest rpcRequest, JsonAdapter<T> resultAdapter, RpcEndpoint endpoint,
+            long hedgeDelay) throws RpcException {
+        Exchange<T> exchange = new Exchange<T>(rpcRequest, resultAdapter, 0);
+        exchange.send(endpoint);
+
+        try {
+            return exchange.future.get(hedgeDelay, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            exchange.hedge();
+        } catch (ExecutionException e) {
+            throw (RpcException) e.getCause();
+        } catch (InterruptedException e) {
+            exchange.future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new RpcException("Interrupted while waiting for response");
+        }
+
+        return exchange.future.await();
+    }
+
+    private void probe(final RpcEndpoint endpoint) {
+        final RpcMetrics.MethodStats stats = metrics.forMethod("getHealth");
+        final long start = stats.begin();
+
+        newCall(endpoint, RpcRequest.ADAPTER, new RpcRequest("getHealth"), stats).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                endpoint.recordFailure();
+                stats.end(start, new RpcException(e.getMessage(), e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                RpcException error = null;
+                try {
+                    checkStatus(response);
+                    readResult(response, JsonAdapters.STRING, stats);
+                    endpoint.recordSuccess(elapsedMillis(start));
+                } catch (IOException e) {
+                    endpoint.recordFailure();
+                    error = new RpcException(e.getMessage(), e);
+                } catch (RpcException e) {
+                    // an unhealthy node answers getHealth with an error
+                    endpoint.recordFailure();
+                    error = e;
+                } catch (RuntimeException e) {
+                    endpoint.recordFailure();
+                    error = new RpcException(e.getMessage(), e);
+                } finally {
+                    response.close();
+                    stats.end(start, error);
+                }
+            }
+        });
+    }
+
+    private static void checkStatus(Response response) throws IOException {
+        // JSON-RPC errors come back as 200; these mean the node itself is unwell
+        if (response.code() == 429 || response.code() >= 500) {
+            int code = response.code();
+            response.close();
+            throw new IOException("HTTP " + code);
+        }
+    }
+
+    private Memo memoized(ReadKey key) {
+        Memo memo = memos.get(key);
+
+        if (memo != null && memo.expiresAt <= System.currentTimeMillis()) {
+            memos.remove(key, memo);
+            return null;
+        }
+
+        return memo;
+    }
+
+    private void memoize(ReadKey key, Object value) {
+        Long ttl = memoTtls.get(key.method);
+
+        if (ttl == null || value == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        if (memos.size() >= MAX_MEMO_ENTRIES) {
+            for (Map.Entry<ReadKey, Memo> entry : memos.entrySet()) {
+                if (entry.getValue().expiresAt <= now) {
+                    memos.remove(entry.getKey(), entry.getValue());
+                }
+            }
+
+            if (memos.size() >= MAX_MEMO_ENTRIES) {
+                memos.clear();
+            }
+        }
+
+        memos.put(key, new Memo(value, now + ttl));
+    }
+
+    private <T> T readResult(Response response, JsonAdapter<T> resultAdapter, RpcMetrics.MethodStats stats)
+            throws IOException, RpcException {
+        return readResult(response, JsonAdapters.reader(resultAdapter), stats);
+    }
+
+    private <T> T readResult(Response response, ResultReader<T> resultReader, RpcMetrics.MethodStats stats)
+            throws IOException, RpcException {
+        RpcResponse<T> rpcResult;
+
+        // closing the reader also releases the inflater, if any
+        try (JsonReader reader = openReader(response, stats)) {
+            rpcResult = RpcResponse.fromJson(reader, resultReader);
+        }
+
+        if (rpcResult.getError() != null) {
+            throw toException(rpcResult.getError());
+        }
+
+        return rpcResult.getResult();
+    }
+
+    private <T> List<T> readBatchResult(Response response, List<RpcRequest> requests, JsonAdapter<T> resultAdapter,
+            RpcMetrics.MethodStats stats) throws IOException, RpcException {
+        Map<String, RpcResponse<T>> responses = new HashMap<String, RpcResponse<T>>();
+
+        try (JsonReader reader = openReader(response, stats)) {
+            // a batch rejected as a whole is answered with a single error object
+            if (reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                RpcResponse<T> rpcResult = RpcResponse.fromJson(reader, resultAdapter);
+                throw rpcResult.getError() != null ? toException(rpcResult.getError())
+                        : new RpcException("Invalid batch response");
+            }
+
+            reader.beginArray();
+            while (reader.hasNext()) {
+                RpcResponse<T> rpcResult = RpcResponse.fromJson(reader, resultAdapter);
+                responses.put(rpcResult.getId(), rpcResult);
+            }
+            reader.endArray();
+        }
+
+        List<T> results = new ArrayList<T>(requests.size());
+        for (RpcRequest rpcRequest : requests) {
+            RpcResponse<T> rpcResult = responses.get(rpcRequest.getId());
+
+            if (rpcResult == null) {
+                throw new RpcException("Missing response for request " + rpcRequest.getId());
+            }
+
+            if (rpcResult.getError() != null) {
+                throw toException(rpcResult.getError());
+            }
+
+            results.add(rpcResult.getResult());
+        }
+
+        return results;
+    }
+
+    private static RpcException toException(RpcResponse.Error error) {
+        return new RpcException(error.getMessage(), error.getCode());
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private void dispatchPending() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxInFlight) {
+                return;
+            }
+
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+
+            Exchange<?> next = pendingCalls.poll();
+            if (next == null || !next.start()) {
+                inFlight.decrementAndGet();
+
+                // a call may have been queued while the slot was reserved
+                if (pendingCalls.isEmpty()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Identity of a read for coalescing: the method, its params as they go on
+     * the wire, and the adapter that decodes the result.
+     */
+    private static class ReadKey {
+        final String method;
+        final String params;
+        final JsonAdapter<?> resultAdapter;
+
+        ReadKey(String method, List<Object> params, JsonAdapter<?> resultAdapter) {
+            this.method = method;
+            this.params = serialize(params);
+            this.resultAdapter = resultAdapter;
+        }
+
+        private static String serialize(List<Object> params) {
+            if (params == null) {
+                return "";
+            }
+
+            Buffer buffer = new Buffer();
+            try {
+                JsonWriter writer = JsonWriter.of(buffer);
+                JsonAdapters.writeValue(writer, params);
+                writer.flush();
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+
+            return buffer.readUtf8();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ReadKey)) {
+                return false;
+            }
+
+            ReadKey other = (ReadKey) o;
+            return resultAdapter == other.resultAdapter && method.equals(other.method)
+                    && params.equals(other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * method.hashCode() + params.hashCode();
+        }
+    }
+
+    private static class Memo {
+        final Object value;
+        final long expiresAt;
+
+        Memo(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A read in flight that later identical reads subscribe to. Each caller
+     * gets its own future; cancelling it only detaches that caller, and the
+     * request itself is cancelled once every caller has.
+     */
+    private class SharedRead<T> implements RpcCallback<T> {
+        private final ReadKey key;
+        private final List<RpcFuture<T>> subscribers = new ArrayList<RpcFuture<T>>();
+        private RpcFuture<T> source;
+        private boolean done;
+
+        SharedRead(ReadKey key) {
+            this.key = key;
+        }
+
+        /**
+         * Adds a caller, or returns {@code null} if the result is already
+         * being delivered.
+         */
+        synchronized RpcFuture<T> subscribe() {
+            if (done) {
+                return null;
+            }
+
+            final RpcFuture<T> subscriber = new RpcFuture<T>();
+            subscribers.add(subscriber);
+
+            subscriber.addCallback(new RpcCallback<T>() {
+                @Override
+                public void onSuccess(T result) {
+                }
+
+                @Override
+                public void onFailure(RpcException exception) {
+                    if (subscriber.isCancelled()) {
+                        unsubscribe(subscriber);
+                    }
+                }
+            });
+
+            return subscriber;
+        }
+
+        void start(RpcFuture<T> source) {
+            synchronized (this) {
+                this.source = source;
+            }
+
+            source.addCallback(this);
+        }
+
+        @Override
+        public void onSuccess(T result) {
+            memoize(key, result);
+
+            for (RpcFuture<T> subscriber : close()) {
+                subscriber.complete(result);
+            }
+        }
+
+        @Override
+        public void onFailure(RpcException exception) {
+            for (RpcFuture<T> subscriber : close()) {
+                subscriber.fail(exception);
+            }
+        }
+
+        private void unsubscribe(RpcFuture<T> subscriber) {
+            RpcFuture<T> abandoned = null;
+
+            synchronized (this) {
+                subscribers.remove(subscriber);
+
+                if (subscribers.isEmpty() && !done && source != null) {
+                    abandoned = source;
+                }
+            }
+
+            if (abandoned != null) {
+                close();
+                abandoned.cancel(true);
+            }
+        }
+
+        private List<RpcFuture<T>> close() {
+            List<RpcFuture<T>> pending;
+
+            synchronized (this) {
+                done = true;
+                pending = new ArrayList<RpcFuture<T>>(subscribers);
+                subscribers.clear();
+            }
+
+            readsInFlight.remove(key, this);
+
+            return pending;
+        }
+    }
+
+    private abstract static class Attempt<T> {
+        abstract T run(RpcEndpoint endpoint) throws IOException, RpcException;
+    }
+
+    /**
+     * One logical request that may be sent to up to two nodes: a second time
+     * after a transport failure, or concurrently when hedging a slow read.
+     * The first answer completes the future and cancels the other call.
+     */
+    private class Exchange<T> implements RpcCallback<T> {
+        private static final int MAX_ATTEMPTS = 2;
+
+        final RpcFuture<T> future = new RpcFuture<T>();
+
+        private final RpcRequest rpcRequest;
+        private final JsonAdapter<T> resultAdapter;
+        private final long timeoutMillis;
+        private final RpcMetrics.MethodStats stats;
+        private final AtomicBoolean holdsSlot = new AtomicBoolean();
+
+        private RpcEndpoint firstEndpoint;
+        private long startNanos;
+        private int attempts;
+        private int outstanding;
+
+        Exchange(RpcRequest rpcRequest, JsonAdapter<T> resultAdapter, long timeoutMillis) {
+            this.rpcRequest = rpcRequest;
+            this.resultAdapter = resultAdapter;
+            this.timeoutMillis = timeoutMillis;
+            this.stats = metrics.forMethod(rpcRequest.getMethod());
+
+            future.addCallback(this);
+        }
+
+        /**
+         * Sends the request while holding an in-flight slot, or returns false
+         * if the call was cancelled while queued.
+         */
+        boolean start() {
+            holdsSlot.set(true);
+
+            if (future.isDone() && holdsSlot.compareAndSet(true, false)) {
+                return false;
+            }
+
+            RpcEndpoint endpoint;
+            try {
+                endpoint = endpoints.select(null);
+            } catch (RuntimeException e) {
+                // failing the future releases the slot
+                future.fail(new RpcException(e.getMessage(), e));
+                return true;
+            }
+
+            send(endpoint);
+            return true;
+        }
+
+        /**
+         * Sends the request to the node. Never throws: a failure to even
+         * enqueue the call fails the future, which releases the slot.
+         */
+        void send(RpcEndpoint endpoint) {
+            try {
+                enqueue(endpoint);
+            } catch (RuntimeException e) {
+                future.fail(new RpcException(e.getMessage(), e));
+            }
+        }
+
+        private void enqueue(final RpcEndpoint endpoint) {
+            Call call = newCall(endpoint, RpcRequest.ADAPTER, rpcRequest, stats);
+
+            if (timeoutMillis > 0) {
+                call.timeout().timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+
+            synchronized (this) {
+                if (future.isDone()) {
+                    return;
+                }
+
+                // time spent queued for a slot is not part of the latency
+                if (firstEndpoint == null) {
+                    firstEndpoint = endpoint;
+                    startNanos = stats.begin();
+                }
+
+                attempts++;
+                outstanding++;
+            }
+
+            final long start = System.nanoTime();
+            future.addCall(call);
+
+            call.enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    future.removeCall(call);
+
+                    if (!future.isDone()) {
+                        endpoint.recordFailure();
+                    }
+
+                    failed(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    future.removeCall(call);
+
+                    try {
+                        checkStatus(response);
+                        T result = readResult(response, resultAdapter, stats);
+
+                        endpoint.recordSuccess(elapsedMillis(start));
+                        future.complete(result);
+                    } catch (RpcException e) {
+                        endpoint.recordSuccess(elapsedMillis(start));
+                        future.fail(e);
+                    } catch (IOException e) {
+                        endpoint.recordFailure();
+                        failed(e);
+                    } catch (RuntimeException e) {
+                        // a payload the adapter cannot decode; another node would
+                        // most likely answer the same
+                        future.fail(new RpcException(e.getMessage(), e));
+                    } finally {
+                        response.close();
+                    }
+                }
+            });
+        }
+
+        /**
+         * Sends the request to a second node while the first is still
+         * outstanding.
+         */
+        void hedge() {
+            RpcEndpoint endpoint;
+
+            synchronized (this) {
+                if (future.isDone() || attempts >= MAX_ATTEMPTS) {
+                    return;
+                }
+
+                endpoint = endpoints.select(firstEndpoint);
+            }
+
+            if (endpoint != null) {
+                stats.hedged();
+                send(endpoint);
+            }
+        }
+
+        private void failed(IOException e) {
+            RpcEndpoint fallback = null;
+
+            synchronized (this) {
+                outstanding--;
+
+                // the hedged twin may still answer
+                if (future.isDone() || outstanding > 0) {
+                    return;
+                }
+
+                if (attempts < MAX_ATTEMPTS && isIdempotent(rpcRequest.getMethod())) {
+                    fallback = endpoints.select(firstEndpoint);
+                }
+            }
+
+            if (fallback != null) {
+                stats.retried();
+                send(fallback);
+            } else {
+                future.fail(new RpcException(e.getMessage(), e));
+            }
+        }
+
+        @Override
+        public void onSuccess(T result) {
+            finished(null);
+        }
+
+        @Override
+        public void onFailure(RpcException exception) {
+            finished(exception);
+        }
+
+        private void finished(RpcException error) {
+            // stop the losing call of a hedged pair
+            future.cancelCalls();
+
+            if (holdsSlot.compareAndSet(true, false)) {
+                inFlight.decrementAndGet();
+                dispatchPending();
+            }
+
+            long start;
+            synchronized (this) {
+                if (firstEndpoint == null) {
+                    // cancelled while queued
+                    return;
+                }
+                start = startNanos;
+            }
+
+            if (future.isCancelled()) {
+                stats.abandon();
+            } else {
+                stats.end(start, error);
+            }
+        }
+    }
+
+    /**
+     * Request body that serializes straight into the connection's sink.
+     */
+    private static class JsonRequestBody<T> extends RequestBody {
+        private final JsonAdapter<T> adapter;
+        private final T value;
+        private final AtomicLong bytesWritten;
+
+        JsonRequestBody(JsonAdapter<T> adapter, T value, AtomicLong bytesWritten) {
+            this.adapter = adapter;
+            this.value = value;
+            this.bytesWritten = bytesWritten;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return JSON;
+        }
+
+        /**
+         * Runs on the HTTP client's thread, where an unchecked exception
+         * would be lost along with the callback; an unsupported param
+         * surfaces as IOException instead.
+         */
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            try {
+                write(sink);
+            } catch (RuntimeException e) {
+                throw new IOException("Cannot serialize request: " + e.getMessage(), e);
+            }
+        }
+
+        private void write(BufferedSink sink) throws IOException {
+            if (bytesWritten != null) {
+                sink = Okio.buffer(new ForwardingSink(sink) {
+                    @Override
+                    public void write(Buffer source, long byteCount) throws IOException {
+                        bytesWritten.addAndGet(byteCount);
+                        super.write(source, byteCount);
+                    }
+                });
+            }
+
+            JsonWriter writer = JsonWriter.of(sink);
+            adapter.toJson(writer, value);
+            writer.flush();
+        }
+
+        static <T> Buffer serialize(JsonAdapter<T> adapter, T value) {
+            Buffer buffer = new Buffer();
+            try {
+                new JsonRequestBody<T>(adapter, value, null).writeTo(buffer);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(e);
+            }
+            return buffer;
+        }
     }
 
 }
@@ -0,0 +1,122 @@
+package org.p2p.solanaj.rpc;
+
+import banki.util.Arrays;
+
+/**
+ * Health and latency statistics of a single RPC node. Latency and error rate
+ * are exponentially weighted moving averages; a window of recent latencies
+ * backs the percentile used to decide when to hedge a slow read.
+ */
+public class RpcEndpoint {
+    private static final double ALPHA = 0.2;
+    private static final int SAMPLE_WINDOW = 64;
+    private static final int FAILURES_TO_EJECT = 3;
+    private static final double ERROR_RATE_TO_EJECT = 0.5;
+    private static final long BASE_EJECTION_MILLIS = 1000;
+    private static final long MAX_EJECTION_MILLIS = 60000;
+
+    private final String url;
+
+    private double latencyMillis = -1;
+    private double errorRate;
+    private int consecutiveFailures;
+    private int ejections;
+    private long ejectedUntil;
+
+    private final long[] samples = new long[SAMPLE_WINDOW];
+    private int sampleCount;
+    private int nextSample;
+    private long[] sortedSamples;
+
+    public RpcEndpoint(String url) {
+        this.url = url;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Average latency in milliseconds, or -1 before the first response.
+     */
+    public synchronized double getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public synchronized double getErrorRate() {
+        return errorRate;
+    }
+
+    public synchronized boolean isEjected() {
+        return System.currentTimeMillis() < ejectedUntil;
+    }
+
+    synchronized boolean isAvailable(long now) {
+        return now >= ejectedUntil;
+    }
+
+    synchronized long getEjectedUntil() {
+        return ejectedUntil;
+    }
+
+    /**
+     * Routing cost; lower is better. Nodes without samples score zero so that
+     * every node gets measured.
+     */
+    synchronized double score() {
+        if (latencyMillis < 0) {
+            return 0;
+        }
+
+        return latencyMillis * (1 + 4 * errorRate);
+    }
+
+    /**
+     * Returns the given percentile (0..1) of recent latencies, or -1 while
+     * there are too few samples for a meaningful estimate.
+     */
+    public synchronized long getLatencyPercentile(double percentile) {
+        if (sampleCount < SAMPLE_WINDOW / 4) {
+            return -1;
+        }
+
+        if (sortedSamples == null) {
+            sortedSamples = Arrays.copyOf(samples, sampleCount);
+            Arrays.sort(sortedSamples);
+        }
+
+        int index = (int) Math.ceil(percentile * sampleCount) - 1;
+        return sortedSamples[Math.max(0, Math.min(index, sampleCount - 1))];
+    }
+
+    synchronized void recordSuccess(long latency) {
+        latencyMillis = latencyMillis < 0 ? latency : latencyMillis + ALPHA * (latency - latencyMillis);
+        errorRate -= ALPHA * errorRate;
+        consecutiveFailures = 0;
+        ejections = 0;
+        ejectedUntil = 0;
+
+        samples[nextSample] = latency;
+        nextSample = (nextSample + 1) % SAMPLE_WINDOW;
+        sampleCount = Math.min(sampleCount + 1, SAMPLE_WINDOW);
+        sortedSamples = null;
+    }
+
+    synchronized void recordFailure() {
+        errorRate += ALPHA * (1 - errorRate);
+        consecutiveFailures++;
+
+        if (consecutiveFailures >= FAILURES_TO_EJECT || errorRate >= ERROR_RATE_TO_EJECT) {
+            // back off exponentially while the node keeps failing its probes
+            long ejection = Math.min(BASE_EJECTION_MILLIS << Math.min(ejections, 6), MAX_EJECTION_MILLIS);
+            ejectedUntil = System.currentTimeMillis() + ejection;
+            ejections++;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return url;
+    }
+
+}
@@ -0,0 +1,65 @@
+package org.p2p.solanaj.rpc;
+
+import banki.util.ArrayList;
+import banki.util.Collections;
+import banki.util.List;
+
+/**
+ * The set of RPC nodes a client routes between.
+ */
+public class RpcEndpointPool {
+    private final List<RpcEndpoint> endpoints;
+
+    public RpcEndpointPool(List<String> urls) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one endpoint is required");
+        }
+
+        List<RpcEndpoint> list = new ArrayList<RpcEndpoint>(urls.size());
+        for (String url : urls) {
+            list.add(new RpcEndpoint(url));
+        }
+
+        this.endpoints = Collections.unmodifiableList(list);
+    }
+
+    public List<RpcEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Picks the best node that is in rotation, skipping {@code exclude}. When
+     * every node is ejected, the one due back soonest is used rather than
+     * failing outright. Returns {@code null} only if no other node exists.
+     */
+    public RpcEndpoint select(RpcEndpoint exclude) {
+        long now = System.currentTimeMillis();
+
+        RpcEndpoint best = null;
+        double bestScore = 0;
+        for (RpcEndpoint endpoint : endpoints) {
+            if (endpoint == exclude || !endpoint.isAvailable(now)) {
+                continue;
+            }
+
+            double score = endpoint.score();
+            if (best == null || score < bestScore) {
+                best = endpoint;
+                bestScore = score;
+            }
+        }
+
+        if (best != null) {
+            return best;
+        }
+
+        for (RpcEndpoint endpoint : endpoints) {
+            if (endpoint != exclude && (best == null || endpoint.getEjectedUntil() < best.getEjectedUntil())) {
+                best = endpoint;
+            }
+        }
+
+        return best;
+    }
+
+}
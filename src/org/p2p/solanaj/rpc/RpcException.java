@@ -3,7 +3,33 @@ package org.p2p.solanaj.rpc;
 public class RpcException extends Exception {
     private final static long serialVersionUID = 8315999767009642193L;
 
+    private final long code;
+
     public RpcException(String message) {
+        this(message, 0);
+    }
+
+    /**
+     * @param code the JSON-RPC error code the node answered with
+     */
+    public RpcException(String message, long code) {
         super(message);
+        this.code = code;
+    }
+
+    /**
+     * Wraps a transport error, such as a failed connection.
+     */
+    public RpcException(String message, Throwable cause) {
+        super(message, cause);
+        this.code = 0;
+    }
+
+    /**
+     * The JSON-RPC error code, or 0 if the call failed before the node
+     * answered.
+     */
+    public long getCode() {
+        return code;
     }
 }
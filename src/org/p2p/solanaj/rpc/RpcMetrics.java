@@ -0,0 +1,294 @@
+package org.p2p.solanaj.rpc;
+
+import banki.util.Collections;
+import banki.util.HashMap;
+import banki.util.Map;
+import banki.util.TreeMap;
+import banki.util.concurrent.ConcurrentHashMap;
+import banki.util.concurrent.TimeUnit;
+import banki.util.concurrent.atomic.AtomicInteger;
+import banki.util.concurrent.atomic.AtomicLong;
+import banki.util.logging.Level;
+import banki.util.logging.Logger;
+
+/**
+ * Statistics of the calls made by an {@link RpcClient}, or of the messages
+ * exchanged over a subscription socket, kept per JSON-RPC method. Every
+ * counter is updated lock-free on the call path; read them at any time, or
+ * hand the whole set to a {@link Logger} with {@link #log}.
+ * <p>
+ * A call is one logical request: its latency runs from the first attempt
+ * until the result is known, so it includes a failover or a hedge, and
+ * counts both successes and errors. Calls answered from the memo or shared
+ * with an identical read in flight never reach the wire and are not counted.
+ * <p>
+ * The recording methods are public for transports outside this package,
+ * such as the subscription sockets.
+ */
+public class RpcMetrics {
+    private final ConcurrentHashMap<String, MethodStats> methods = new ConcurrentHashMap<String, MethodStats>();
+
+    /**
+     * @return the statistics of the method, or null if it was never called
+     */
+    public MethodStats getMethod(String method) {
+        return methods.get(method);
+    }
+
+    /**
+     * All methods called so far, sorted by name.
+     */
+    public Map<String, MethodStats> getMethods() {
+        return Collections.unmodifiableMap(new TreeMap<String, MethodStats>(methods));
+    }
+
+    /**
+     * Calls on the wire right now, across all methods.
+     */
+    public int getInFlight() {
+        int inFlight = 0;
+        for (MethodStats stats : methods.values()) {
+            inFlight += stats.getInFlight();
+        }
+        return inFlight;
+    }
+
+    /**
+     * Starts a new interval. The in-flight gauges are left alone, as those
+     * calls are still running.
+     */
+    public void reset() {
+        for (MethodStats stats : methods.values()) {
+            stats.reset();
+        }
+    }
+
+    /**
+     * Writes one line per method, e.g. once a minute before a
+     * {@link #reset()}.
+     */
+    public void log(Logger logger, Level level) {
+        if (!logger.isLoggable(level)) {
+            return;
+        }
+
+        for (MethodStats stats : getMethods().values()) {
+            logger.log(level, stats.toString());
+        }
+    }
+
+    /**
+     * Returns the statistics of the method, creating them on first use.
+     */
+    public MethodStats forMethod(String method) {
+        MethodStats stats = methods.get(method);
+
+        if (stats == null) {
+            stats = new MethodStats(method);
+            MethodStats existing = methods.putIfAbsent(method, stats);
+            if (existing != null) {
+                stats = existing;
+            }
+        }
+
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return "RpcMetrics" + getMethods().values();
+    }
+
+    public static class MethodStats {
+        private final String method;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong hedges = new AtomicLong();
+        private final AtomicLong notifications = new AtomicLong();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final ConcurrentHashMap<Long, AtomicLong> errorCodes = new ConcurrentHashMap<Long, AtomicLong>();
+        final AtomicLong requestBytes = new AtomicLong();
+        final AtomicLong responseBytes = new AtomicLong();
+
+        MethodStats(String method) {
+            this.method = method;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        /**
+         * Call latencies in microseconds. The histogram keeps recording; take
+         * a {@link LatencyHistogram#snapshot() snapshot} to read several
+         * percentiles consistently.
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        /**
+         * Calls completed, successfully or not.
+         */
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public long getErrors() {
+            return errors.get();
+        }
+
+        /**
+         * Attempts repeated on another node after a transport error.
+         */
+        public long getRetries() {
+            return retries.get();
+        }
+
+        /**
+         * Reads also sent to a second node because the first was slow.
+         */
+        public long getHedges() {
+            return hedges.get();
+        }
+
+        /**
+         * Notifications received over a subscription socket; only notification
+         * methods such as accountNotification have any.
+         */
+        public long getNotifications() {
+            return notifications.get();
+        }
+
+        public int getInFlight() {
+            return inFlight.get();
+        }
+
+        /**
+         * Request body bytes as sent, after compression.
+         */
+        public long getRequestBytes() {
+            return requestBytes.get();
+        }
+
+        /**
+         * Response body bytes as received, before decompression; for
+         * notification methods, the size of the notifications.
+         */
+        public long getResponseBytes() {
+            return responseBytes.get();
+        }
+
+        /**
+         * Errors by JSON-RPC error code; code 0 counts calls that failed
+         * before the node answered.
+         */
+        public Map<Long, Long> getErrorCounts() {
+            Map<Long, Long> counts = new HashMap<Long, Long>();
+            for (Map.Entry<Long, AtomicLong> entry : errorCodes.entrySet()) {
+                counts.put(entry.getKey(), entry.getValue().get());
+            }
+            return counts;
+        }
+
+        /**
+         * Records a call that started at {@code startNanos}, as returned by
+         * {@link System#nanoTime()}, and ends now; {@code error} is null if it
+         * succeeded.
+         */
+        public void record(long startNanos, RpcException error) {
+            calls.incrementAndGet();
+            latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+
+            if (error != null) {
+                failed(error.getCode());
+            }
+        }
+
+        public void sent(long bytes) {
+            requestBytes.addAndGet(bytes);
+        }
+
+        public void received(long bytes) {
+            responseBytes.addAndGet(bytes);
+        }
+
+        public void notified(long bytes) {
+            notifications.incrementAndGet();
+            responseBytes.addAndGet(bytes);
+        }
+
+        long begin() {
+            inFlight.incrementAndGet();
+            return System.nanoTime();
+        }
+
+        /**
+         * Ends a call started with {@link #begin()}.
+         */
+        void end(long startNanos, RpcException error) {
+            inFlight.decrementAndGet();
+            record(startNanos, error);
+        }
+
+        /**
+         * Ends a call that was cancelled, so neither its latency nor an error
+         * is recorded.
+         */
+        void abandon() {
+            inFlight.decrementAndGet();
+        }
+
+        void failed(long code) {
+            errors.incrementAndGet();
+
+            AtomicLong count = errorCodes.get(code);
+            if (count == null) {
+                AtomicLong existing = errorCodes.putIfAbsent(code, count = new AtomicLong());
+                if (existing != null) {
+                    count = existing;
+                }
+            }
+            count.incrementAndGet();
+        }
+
+        void retried() {
+            retries.incrementAndGet();
+        }
+
+        void hedged() {
+            hedges.incrementAndGet();
+        }
+
+        void reset() {
+            latency.reset();
+            calls.set(0);
+            errors.set(0);
+            retries.set(0);
+            hedges.set(0);
+            notifications.set(0);
+            requestBytes.set(0);
+            responseBytes.set(0);
+            errorCodes.clear();
+        }
+
+        @Override
+        public String toString() {
+            LatencyHistogram snapshot = latency.snapshot();
+
+            return method + "{calls=" + getCalls() + ", errors=" + getErrors() + ", retries=" + getRetries()
+                    + ", hedges=" + getHedges() + ", notifications=" + getNotifications() + ", inFlight="
+                    + getInFlight() + ", p50=" + millis(snapshot.getValueAtPercentile(0.5)) + "ms, p99="
+                    + millis(snapshot.getValueAtPercentile(0.99)) + "ms, max=" + millis(snapshot.getMax())
+                    + "ms, requestBytes=" + getRequestBytes() + ", responseBytes=" + getResponseBytes()
+                    + ", errorCodes=" + getErrorCounts() + "}";
+        }
+
+        private static double millis(long micros) {
+            return Math.round(micros / 100.0) / 10.0;
+        }
+    }
+
+}
@@ -0,0 +1,281 @@
+package org.p2p.solanaj.rpc;
+
+import banki.util.ArrayList;
+import banki.util.List;
+import banki.util.concurrent.ConcurrentHashMap;
+import banki.util.concurrent.Semaphore;
+import banki.util.concurrent.atomic.AtomicReference;
+
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.types.ConfirmedTransaction;
+import org.p2p.solanaj.rpc.types.SignatureInformation;
+
+/**
+ * Keeps a wallet's transaction history up to date by fetching only what is
+ * new. The newest synced signature of each address is remembered as a
+ * cursor, and the next sync pages backwards with {@code until} set to it,
+ * so reopening a wallet costs one page when nothing happened. Transaction
+ * details are fetched asynchronously with at most {@code maxConcurrency}
+ * requests outstanding.
+ * <p>
+ * A sync reads at most {@code maxPages} pages. If the address has more
+ * since its cursor, the older rest is left as a gap that
+ * {@link #syncGap(PublicKey)} works through, again {@code maxPages} at a
+ * time.
+ * <p>
+ * Cursors and gaps live in memory; save {@link #getCursor(PublicKey)} and
+ * restore it with {@link #setCursor(PublicKey, String)} to carry them across
+ * restarts.
+ */
+public class TransactionHistorySync {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+    public static final int DEFAULT_MAX_PAGES = 10;
+
+    public static class Entry {
+        private final SignatureInformation signature;
+        private final ConfirmedTransaction transaction;
+
+        Entry(SignatureInformation signature, ConfirmedTransaction transaction) {
+            this.signature = signature;
+            this.transaction = transaction;
+        }
+
+        public SignatureInformation getSignature() {
+            return signature;
+        }
+
+        /**
+         * The transaction, or {@code null} if the node no longer has it.
+         */
+        public ConfirmedTransaction getTransaction() {
+            return transaction;
+        }
+    }
+
+    // the signatures older than before and newer than until not yet synced,
+    // chained to the next older gap
+    private static class Gap {
+        final String before;
+        final String until;
+        final Gap next;
+
+        Gap(String before, String until, Gap next) {
+            this.before = before;
+            this.until = until;
+            this.next = next;
+        }
+    }
+
+    private final RpcApi api;
+    private final int pageSize;
+    private final int maxConcurrency;
+    private final int maxPages;
+    private final ConcurrentHashMap<PublicKey, String> cursors = new ConcurrentHashMap<PublicKey, String>();
+    private final ConcurrentHashMap<PublicKey, Gap> gaps = new ConcurrentHashMap<PublicKey, Gap>();
+
+    public TransactionHistorySync(RpcApi api) {
+        this(api, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CONCURRENCY);
+    }
+
+    public TransactionHistorySync(RpcApi api, int pageSize, int maxConcurrency) {
+        this(api, pageSize, maxConcurrency, DEFAULT_MAX_PAGES);
+    }
+
+    public TransactionHistorySync(RpcApi api, int pageSize, int maxConcurrency, int maxPages) {
+        if (pageSize <= 0 || maxConcurrency <= 0 || maxPages <= 0) {
+            throw new IllegalArgumentException("Page size, concurrency and page limit must be positive");
+        }
+
+        this.api = api;
+        this.pageSize = pageSize;
+        this.maxConcurrency = maxConcurrency;
+        this.maxPages = maxPages;
+    }
+
+    /**
+     * @return the newest synced signature of the address, or {@code null}
+     */
+    public String getCursor(PublicKey address) {
+        return cursors.get(address);
+    }
+
+    public void setCursor(PublicKey address, String signature) {
+        if (signature == null) {
+            cursors.remove(address);
+        } else {
+            cursors.put(address, signature);
+        }
+    }
+
+    /**
+     * Returns the transactions since the last sync of the address, newest
+     * first, and moves its cursor to the newest one. The first sync returns
+     * only the latest page; use {@link #fetchOlder} for anything before it.
+     * If more than {@code maxPages} pages are new, only those are returned
+     * and the rest is left for {@link #syncGap}. The cursor does not move if
+     * any request fails.
+     */
+    public List<Entry> sync(PublicKey address) throws RpcException {
+        String until = cursors.get(address);
+
+        List<SignatureInformation> signatures = collect(address, null, until, until != null ? maxPages : 1);
+        List<Entry> entries = fetchTransactions(signatures);
+
+        if (!signatures.isEmpty()) {
+            String newest = signatures.get(0).getSignature();
+
+            // a concurrent sync that got further wins
+            if (until == null) {
+                cursors.putIfAbsent(address, newest);
+            } else if (cursors.replace(address, until, newest) && isTruncated(signatures)) {
+                addGap(address, signatures.get(signatures.size() - 1).getSignature(), until);
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * True if a sync of the address stopped at its page limit and older
+     * transactions since the previous cursor are still to be synced.
+     */
+    public boolean hasGap(PublicKey address) {
+        return gaps.containsKey(address);
+    }
+
+    /**
+     * Returns up to {@code maxPages} pages of the transactions a truncated
+     * {@link #sync} left out, newest first, continuing where the previous
+     * call stopped, or an empty list if there is no gap. The newest gap is
+     * synced first.
+     */
+    public List<Entry> syncGap(PublicKey address) throws RpcException {
+        Gap gap = gaps.get(address);
+        if (gap == null) {
+            return new ArrayList<Entry>();
+        }
+
+        List<SignatureInformation> signatures = collect(address, gap.before, gap.until, maxPages);
+        List<Entry> entries = fetchTransactions(signatures);
+
+        Gap rest = isTruncated(signatures)
+                ? new Gap(signatures.get(signatures.size() - 1).getSignature(), gap.until, gap.next)
+                : gap.next;
+
+        // if a sync added a newer gap meanwhile, this one is synced again later
+        if (rest == null) {
+            gaps.remove(address, gap);
+        } else {
+            gaps.replace(address, gap, rest);
+        }
+
+        return entries;
+    }
+
+    private void addGap(PublicKey address, String before, String until) {
+        while (true) {
+            Gap older = gaps.get(address);
+            Gap gap = new Gap(before, until, older);
+
+            if (older == null ? gaps.putIfAbsent(address, gap) == null : gaps.replace(address, older, gap)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} transactions older than {@code before},
+     * newest first, without touching the cursor.
+     */
+    public List<Entry> fetchOlder(PublicKey address, String before, int limit) throws RpcException {
+        List<SignatureInformation> signatures = new ArrayList<SignatureInformation>(limit);
+
+        while (signatures.size() < limit) {
+            int count = Math.min(pageSize, limit - signatures.size());
+
+            List<SignatureInformation> page = api.getConfirmedSignaturesForAddress2(address, count, before, null);
+            signatures.addAll(page);
+
+            if (page.size() < count) {
+                break;
+            }
+
+            before = page.get(page.size() - 1).getSignature();
+        }
+
+        return fetchTransactions(signatures);
+    }
+
+    // pages backwards from before towards until, reading at most pageLimit
+    private List<SignatureInformation> collect(PublicKey address, String before, String until, int pageLimit)
+            throws RpcException {
+        List<SignatureInformation> signatures = new ArrayList<SignatureInformation>();
+
+        for (int pages = 0; pages < pageLimit; pages++) {
+            List<SignatureInformation> page = api.getConfirmedSignaturesForAddress2(address, pageSize, before,
+                    until);
+            signatures.addAll(page);
+
+            if (page.size() < pageSize) {
+                break;
+            }
+
+            before = page.get(page.size() - 1).getSignature();
+        }
+
+        return signatures;
+    }
+
+    // every page was full, so there may be more before the limit was hit
+    private boolean isTruncated(List<SignatureInformation> signatures) {
+        return signatures.size() >= maxPages * pageSize;
+    }
+
+    private List<Entry> fetchTransactions(List<SignatureInformation> signatures) throws RpcException {
+        final int n = signatures.size();
+        final ConfirmedTransaction[] transactions = new ConfirmedTransaction[n];
+        final Semaphore permits = new Semaphore(maxConcurrency);
+        final AtomicReference<RpcException> failure = new AtomicReference<RpcException>();
+
+        try {
+            for (int i = 0; i < n && failure.get() == null; i++) {
+                permits.acquire();
+
+                final int index = i;
+                api.getConfirmedTransactionAsync(signatures.get(i).getSignature())
+                        .addCallback(new RpcCallback<ConfirmedTransaction>() {
+                            @Override
+                            public void onSuccess(ConfirmedTransaction result) {
+                                transactions[index] = result;
+                                permits.release();
+                            }
+
+                            @Override
+                            public void onFailure(RpcException exception) {
+                                failure.compareAndSet(null, exception);
+                                permits.release();
+                            }
+                        });
+            }
+
+            // every permit is back once the last request has completed
+            permits.acquire(maxConcurrency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RpcException("Interrupted while fetching transactions");
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+
+        List<Entry> entries = new ArrayList<Entry>(n);
+        for (int i = 0; i < n; i++) {
+            entries.add(new Entry(signatures.get(i), transactions[i]));
+        }
+
+        return entries;
+    }
+
+}
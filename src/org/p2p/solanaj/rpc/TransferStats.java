@@ -0,0 +1,46 @@
+package org.p2p.solanaj.rpc;
+
+import banki.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts response body bytes as received on the wire and after
+ * decompression, so the saving from compressed transport can be measured.
+ * Headers are not counted.
+ */
+public class TransferStats {
+    final AtomicLong wireBytes = new AtomicLong();
+    final AtomicLong decodedBytes = new AtomicLong();
+    final AtomicLong compressedResponses = new AtomicLong();
+
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    public long getCompressedResponses() {
+        return compressedResponses.get();
+    }
+
+    /**
+     * Returns wire bytes per decoded byte, or 1 if nothing was received yet.
+     */
+    public double getCompressionRatio() {
+        long decoded = decodedBytes.get();
+        return decoded > 0 ? (double) wireBytes.get() / decoded : 1;
+    }
+
+    public void reset() {
+        wireBytes.set(0);
+        decodedBytes.set(0);
+        compressedResponses.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "TransferStats{wireBytes=" + getWireBytes() + ", decodedBytes=" + getDecodedBytes()
+                + ", compressedResponses=" + getCompressedResponses() + "}";
+    }
+}
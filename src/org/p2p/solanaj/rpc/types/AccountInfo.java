@@ -1,8 +1,16 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
+import banki.util.Arrays;
 import banki.util.List;
+import banki.util.Map;
 
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+
+import org.p2p.solanaj.utils.ByteUtils;
 
 public class AccountInfo extends RpcResultObject {
 
@@ -18,6 +26,24 @@ public class AccountInfo extends RpcResultObject {
         @Json(name = "rentEpoch")
         private long rentEpoch;
 
+        public Value() {
+        }
+
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        public Value(Map value) {
+            Object rawData = value.get("data");
+            if (rawData instanceof List) {
+                this.data = (List<String>) rawData;
+            } else if (rawData instanceof String) {
+                this.data = Arrays.asList((String) rawData, "base58");
+            }
+
+            this.executable = (boolean) value.get("executable");
+            this.lamports = ((Number) value.get("lamports")).longValue();
+            this.owner = (String) value.get("owner");
+            this.rentEpoch = ((Number) value.get("rentEpoch")).longValue();
+        }
+
         public List<String> getData() {
             return data;
         }
@@ -38,6 +64,55 @@ public class AccountInfo extends RpcResultObject {
             return rentEpoch;
         }
 
+        public static final JsonAdapter<Value> ADAPTER = new JsonAdapter<Value>() {
+            private final JsonReader.Options options = JsonReader.Options.of("data", "executable", "lamports",
+                    "owner", "rentEpoch");
+
+            @Override
+            public Value fromJson(JsonReader reader) throws IOException {
+                Value value = new Value();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            value.data = JsonAdapters.STRING_LIST.fromJson(reader);
+                            break;
+                        case 1:
+                            value.executable = reader.nextBoolean();
+                            break;
+                        case 2:
+                            value.lamports = reader.nextLong();
+                            break;
+                        case 3:
+                            value.owner = JsonAdapters.STRING.fromJson(reader);
+                            break;
+                        case 4:
+                            value.rentEpoch = ByteUtils.parseUint64(reader.nextString());
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return value;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Value value) throws IOException {
+                writer.beginObject();
+                writer.name("data");
+                JsonAdapters.STRING_LIST.toJson(writer, value.data);
+                writer.name("executable").value(value.executable);
+                writer.name("lamports").value(value.lamports);
+                writer.name("owner").value(value.owner);
+                writer.name("rentEpoch").value(ByteUtils.uint64ToBigInteger(value.rentEpoch));
+                writer.endObject();
+            }
+        }.nullSafe();
+
     }
 
     @Json(name = "value")
@@ -47,4 +122,41 @@ public class AccountInfo extends RpcResultObject {
         return value;
     }
 
+    public static final JsonAdapter<AccountInfo> ADAPTER = new JsonAdapter<AccountInfo>() {
+        private final JsonReader.Options options = JsonReader.Options.of("context", "value");
+
+        @Override
+        public AccountInfo fromJson(JsonReader reader) throws IOException {
+            AccountInfo accountInfo = new AccountInfo();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(options)) {
+                    case 0:
+                        accountInfo.context = Context.ADAPTER.fromJson(reader);
+                        break;
+                    case 1:
+                        accountInfo.value = Value.ADAPTER.fromJson(reader);
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return accountInfo;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, AccountInfo value) throws IOException {
+            writer.beginObject();
+            writer.name("context");
+            Context.ADAPTER.toJson(writer, value.context);
+            writer.name("value");
+            Value.ADAPTER.toJson(writer, value.value);
+            writer.endObject();
+        }
+    }.nullSafe();
+
 }
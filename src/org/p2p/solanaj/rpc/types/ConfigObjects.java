@@ -1,8 +1,13 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
+import banki.util.ArrayList;
 import banki.util.List;
 
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 import org.p2p.solanaj.rpc.types.RpcSendTransactionConfig.Encoding;
 
@@ -19,6 +24,99 @@ public class ConfigObjects {
         public ConfirmedSignFAddr2(int limit) {
             this.limit = limit;
         }
+
+        /**
+         * Pages backwards from {@code before} (exclusive) and stops at
+         * {@code until} (exclusive); either may be {@code null}.
+         */
+        public ConfirmedSignFAddr2(int limit, String before, String until) {
+            this.limit = limit;
+            this.before = before;
+            this.until = until;
+        }
+
+        public static final JsonAdapter<ConfirmedSignFAddr2> ADAPTER = new JsonAdapter<ConfirmedSignFAddr2>() {
+            private final JsonReader.Options options = JsonReader.Options.of("limit", "before", "until");
+
+            @Override
+            public ConfirmedSignFAddr2 fromJson(JsonReader reader) throws IOException {
+                ConfirmedSignFAddr2 config = new ConfirmedSignFAddr2(0);
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            config.limit = reader.nextLong();
+                            break;
+                        case 1:
+                            config.before = JsonAdapters.STRING.fromJson(reader);
+                            break;
+                        case 2:
+                            config.until = JsonAdapters.STRING.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return config;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, ConfirmedSignFAddr2 value) throws IOException {
+                writer.beginObject();
+                writer.name("limit").value(value.limit);
+                if (value.before != null) {
+                    writer.name("before").value(value.before);
+                }
+                if (value.until != null) {
+                    writer.name("until").value(value.until);
+                }
+                writer.endObject();
+            }
+        }.nullSafe();
+    }
+
+    public static class SignatureStatusConfig {
+        @Json(name = "searchTransactionHistory")
+        private boolean searchTransactionHistory;
+
+        public SignatureStatusConfig(boolean searchTransactionHistory) {
+            this.searchTransactionHistory = searchTransactionHistory;
+        }
+
+        public static final JsonAdapter<SignatureStatusConfig> ADAPTER = new JsonAdapter<SignatureStatusConfig>() {
+            private final JsonReader.Options options = JsonReader.Options.of("searchTransactionHistory");
+
+            @Override
+            public SignatureStatusConfig fromJson(JsonReader reader) throws IOException {
+                SignatureStatusConfig config = new SignatureStatusConfig(false);
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            config.searchTransactionHistory = reader.nextBoolean();
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return config;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, SignatureStatusConfig value) throws IOException {
+                writer.beginObject();
+                writer.name("searchTransactionHistory").value(value.searchTransactionHistory);
+                writer.endObject();
+            }
+        }.nullSafe();
     }
 
     public static class Memcmp {
@@ -35,11 +133,48 @@ public class ConfigObjects {
             this.bytes = bytes;
         }
 
+        public static final JsonAdapter<Memcmp> ADAPTER = new JsonAdapter<Memcmp>() {
+            private final JsonReader.Options options = JsonReader.Options.of("offset", "bytes");
+
+            @Override
+            public Memcmp fromJson(JsonReader reader) throws IOException {
+                Memcmp memcmp = new Memcmp();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            memcmp.offset = reader.nextLong();
+                            break;
+                        case 1:
+                            memcmp.bytes = JsonAdapters.STRING.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return memcmp;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Memcmp value) throws IOException {
+                writer.beginObject();
+                writer.name("offset").value(value.offset);
+                writer.name("bytes").value(value.bytes);
+                writer.endObject();
+            }
+        }.nullSafe();
+
     }
 
     public static class Filter {
         @Json(name = "memcmp")
         private Memcmp memcmp;
+        @Json(name = "dataSize")
+        private Long dataSize;
 
         public Filter() {
         }
@@ -48,6 +183,116 @@ public class ConfigObjects {
             this.memcmp = memcmp;
         }
 
+        /**
+         * Matches accounts whose data is exactly {@code dataSize} bytes long.
+         */
+        public Filter(long dataSize) {
+            this.dataSize = dataSize;
+        }
+
+        public static final JsonAdapter<Filter> ADAPTER = new JsonAdapter<Filter>() {
+            private final JsonReader.Options options = JsonReader.Options.of("memcmp", "dataSize");
+
+            @Override
+            public Filter fromJson(JsonReader reader) throws IOException {
+                Filter filter = new Filter();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            filter.memcmp = Memcmp.ADAPTER.fromJson(reader);
+                            break;
+                        case 1:
+                            filter.dataSize = JsonAdapters.LONG.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return filter;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Filter value) throws IOException {
+                writer.beginObject();
+                if (value.memcmp != null) {
+                    writer.name("memcmp");
+                    Memcmp.ADAPTER.toJson(writer, value.memcmp);
+                }
+                if (value.dataSize != null) {
+                    writer.name("dataSize").value(value.dataSize.longValue());
+                }
+                writer.endObject();
+            }
+        }.nullSafe();
+
+    }
+
+    /**
+     * Asks the node to return only {@code length} bytes of each account's
+     * data, starting at {@code offset}.
+     */
+    public static class DataSlice {
+        @Json(name = "offset")
+        private long offset;
+        @Json(name = "length")
+        private long length;
+
+        public DataSlice() {
+        }
+
+        public DataSlice(long offset, long length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public static final JsonAdapter<DataSlice> ADAPTER = new JsonAdapter<DataSlice>() {
+            private final JsonReader.Options options = JsonReader.Options.of("offset", "length");
+
+            @Override
+            public DataSlice fromJson(JsonReader reader) throws IOException {
+                DataSlice dataSlice = new DataSlice();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            dataSlice.offset = reader.nextLong();
+                            break;
+                        case 1:
+                            dataSlice.length = reader.nextLong();
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return dataSlice;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, DataSlice value) throws IOException {
+                writer.beginObject();
+                writer.name("offset").value(value.offset);
+                writer.name("length").value(value.length);
+                writer.endObject();
+            }
+        }.nullSafe();
+
     }
 
     public static class ProgramAccountConfig {
@@ -55,6 +300,8 @@ public class ConfigObjects {
         private Encoding encoding = null;
         @Json(name = "filters")
         private List<Object> filters = null;
+        @Json(name = "dataSlice")
+        private DataSlice dataSlice = null;
 
         public ProgramAccountConfig() {
         }
@@ -67,5 +314,72 @@ public class ConfigObjects {
             this.encoding = encoding;
         }
 
+        public void setEncoding(Encoding encoding) {
+            this.encoding = encoding;
+        }
+
+        /**
+         * Adds a memcmp or dataSize filter; an account must match all of
+         * them.
+         */
+        public void addFilter(Filter filter) {
+            if (filters == null) {
+                filters = new ArrayList<Object>();
+            }
+
+            filters.add(filter);
+        }
+
+        public void setDataSlice(DataSlice dataSlice) {
+            this.dataSlice = dataSlice;
+        }
+
+        public static final JsonAdapter<ProgramAccountConfig> ADAPTER = new JsonAdapter<ProgramAccountConfig>() {
+            private final JsonReader.Options options = JsonReader.Options.of("encoding", "filters", "dataSlice");
+
+            @Override
+            public ProgramAccountConfig fromJson(JsonReader reader) throws IOException {
+                ProgramAccountConfig config = new ProgramAccountConfig();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            config.encoding = Encoding.valueOf(reader.nextString());
+                            break;
+                        case 1:
+                            config.filters = JsonAdapters.VALUE_LIST.fromJson(reader);
+                            break;
+                        case 2:
+                            config.dataSlice = DataSlice.ADAPTER.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return config;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, ProgramAccountConfig value) throws IOException {
+                writer.beginObject();
+                if (value.encoding != null) {
+                    writer.name("encoding").value(value.encoding.getEncoding());
+                }
+                if (value.filters != null) {
+                    writer.name("filters");
+                    JsonAdapters.VALUE_LIST.toJson(writer, value.filters);
+                }
+                if (value.dataSlice != null) {
+                    writer.name("dataSlice");
+                    DataSlice.ADAPTER.toJson(writer, value.dataSlice);
+                }
+                writer.endObject();
+            }
+        }.nullSafe();
+
     }
 }
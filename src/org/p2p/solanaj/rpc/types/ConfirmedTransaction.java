@@ -1,8 +1,13 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
+import banki.util.Base64;
 import banki.util.List;
 
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 public class ConfirmedTransaction {
 
@@ -27,6 +32,45 @@ public class ConfirmedTransaction {
             return numRequiredSignatures;
         }
 
+        public static final JsonAdapter<Header> ADAPTER = new JsonAdapter<Header>() {
+            private final JsonReader.Options options = JsonReader.Options.of("numReadonlySignedAccounts",
+                    "numReadonlyUnsignedAccounts", "numRequiredSignatures");
+
+            @Override
+            public Header fromJson(JsonReader reader) throws IOException {
+                Header header = new Header();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            header.numReadonlySignedAccounts = reader.nextLong();
+                            break;
+                        case 1:
+                            header.numReadonlyUnsignedAccounts = reader.nextLong();
+                            break;
+                        case 2:
+                            header.numRequiredSignatures = reader.nextLong();
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return header;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Header value) throws IOException {
+                writer.beginObject();
+                writer.name("numReadonlySignedAccounts").value(value.numReadonlySignedAccounts);
+                writer.name("numReadonlyUnsignedAccounts").value(value.numReadonlyUnsignedAccounts);
+                writer.name("numRequiredSignatures").value(value.numRequiredSignatures);
+                writer.endObject();
+            }
+        }.nullSafe();
     }
 
     public static class Instruction {
@@ -50,10 +94,51 @@ public class ConfirmedTransaction {
             return programIdIndex;
         }
 
+        public static final JsonAdapter<Instruction> ADAPTER = new JsonAdapter<Instruction>() {
+            private final JsonReader.Options options = JsonReader.Options.of("accounts", "data", "programIdIndex");
+
+            @Override
+            public Instruction fromJson(JsonReader reader) throws IOException {
+                Instruction instruction = new Instruction();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            instruction.accounts = JsonAdapters.LONG_LIST.fromJson(reader);
+                            break;
+                        case 1:
+                            instruction.data = JsonAdapters.STRING.fromJson(reader);
+                            break;
+                        case 2:
+                            instruction.programIdIndex = reader.nextLong();
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return instruction;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Instruction value) throws IOException {
+                writer.beginObject();
+                writer.name("accounts");
+                JsonAdapters.LONG_LIST.toJson(writer, value.accounts);
+                writer.name("data").value(value.data);
+                writer.name("programIdIndex").value(value.programIdIndex);
+                writer.endObject();
+            }
+        }.nullSafe();
     }
 
     public static class Message {
 
+        private static final JsonAdapter<List<Instruction>> INSTRUCTION_LIST = JsonAdapters.listOf(Instruction.ADAPTER);
+
         @Json(name = "accountKeys")
         private List<String> accountKeys = null;
         @Json(name = "header")
@@ -79,6 +164,52 @@ public class ConfirmedTransaction {
             return recentBlockhash;
         }
 
+        public static final JsonAdapter<Message> ADAPTER = new JsonAdapter<Message>() {
+            private final JsonReader.Options options = JsonReader.Options.of("accountKeys", "header", "instructions",
+                    "recentBlockhash");
+
+            @Override
+            public Message fromJson(JsonReader reader) throws IOException {
+                Message message = new Message();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            message.accountKeys = JsonAdapters.STRING_LIST.fromJson(reader);
+                            break;
+                        case 1:
+                            message.header = Header.ADAPTER.fromJson(reader);
+                            break;
+                        case 2:
+                            message.instructions = INSTRUCTION_LIST.fromJson(reader);
+                            break;
+                        case 3:
+                            message.recentBlockhash = JsonAdapters.STRING.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return message;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Message value) throws IOException {
+                writer.beginObject();
+                writer.name("accountKeys");
+                JsonAdapters.STRING_LIST.toJson(writer, value.accountKeys);
+                writer.name("header");
+                Header.ADAPTER.toJson(writer, value.header);
+                writer.name("instructions");
+                INSTRUCTION_LIST.toJson(writer, value.instructions);
+                writer.name("recentBlockhash").value(value.recentBlockhash);
+                writer.endObject();
+            }
+        }.nullSafe();
     }
 
     public static class Status {
@@ -90,6 +221,37 @@ public class ConfirmedTransaction {
             return ok;
         }
 
+        public static final JsonAdapter<Status> ADAPTER = new JsonAdapter<Status>() {
+            private final JsonReader.Options options = JsonReader.Options.of("Ok");
+
+            @Override
+            public Status fromJson(JsonReader reader) throws IOException {
+                Status status = new Status();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            status.ok = JsonAdapters.VALUE.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return status;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Status value) throws IOException {
+                writer.beginObject();
+                writer.name("Ok");
+                JsonAdapters.VALUE.toJson(writer, value.ok);
+                writer.endObject();
+            }
+        }.nullSafe();
     }
 
     public static class Meta {
@@ -131,6 +293,62 @@ public class ConfirmedTransaction {
             return status;
         }
 
+        public static final JsonAdapter<Meta> ADAPTER = new JsonAdapter<Meta>() {
+            private final JsonReader.Options options = JsonReader.Options.of("err", "fee", "innerInstructions",
+                    "postBalances", "preBalances", "status");
+
+            @Override
+            public Meta fromJson(JsonReader reader) throws IOException {
+                Meta meta = new Meta();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            meta.err = JsonAdapters.VALUE.fromJson(reader);
+                            break;
+                        case 1:
+                            meta.fee = reader.nextLong();
+                            break;
+                        case 2:
+                            meta.innerInstructions = JsonAdapters.VALUE_LIST.fromJson(reader);
+                            break;
+                        case 3:
+                            meta.postBalances = JsonAdapters.LONG_LIST.fromJson(reader);
+                            break;
+                        case 4:
+                            meta.preBalances = JsonAdapters.LONG_LIST.fromJson(reader);
+                            break;
+                        case 5:
+                            meta.status = Status.ADAPTER.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return meta;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Meta value) throws IOException {
+                writer.beginObject();
+                writer.name("err");
+                JsonAdapters.VALUE.toJson(writer, value.err);
+                writer.name("fee").value(value.fee);
+                writer.name("innerInstructions");
+                JsonAdapters.VALUE_LIST.toJson(writer, value.innerInstructions);
+                writer.name("postBalances");
+                JsonAdapters.LONG_LIST.toJson(writer, value.postBalances);
+                writer.name("preBalances");
+                JsonAdapters.LONG_LIST.toJson(writer, value.preBalances);
+                writer.name("status");
+                Status.ADAPTER.toJson(writer, value.status);
+                writer.endObject();
+            }
+        }.nullSafe();
     }
 
     public static class Transaction {
@@ -148,14 +366,61 @@ public class ConfirmedTransaction {
             return signatures;
         }
 
+        public static final JsonAdapter<Transaction> ADAPTER = new JsonAdapter<Transaction>() {
+            private final JsonReader.Options options = JsonReader.Options.of("message", "signatures");
+
+            @Override
+            public Transaction fromJson(JsonReader reader) throws IOException {
+                Transaction transaction = new Transaction();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            transaction.message = Message.ADAPTER.fromJson(reader);
+                            break;
+                        case 1:
+                            transaction.signatures = JsonAdapters.STRING_LIST.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return transaction;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Transaction value) throws IOException {
+                writer.beginObject();
+                writer.name("message");
+                Message.ADAPTER.toJson(writer, value.message);
+                writer.name("signatures");
+                JsonAdapters.STRING_LIST.toJson(writer, value.signatures);
+                writer.endObject();
+            }
+        }.nullSafe();
     }
 
+    @Json(name = "blockTime")
+    private Long blockTime;
     @Json(name = "meta")
     private Meta meta;
     @Json(name = "slot")
     private long slot;
     @Json(name = "transaction")
     private Transaction transaction;
+    private byte[] rawTransaction;
+
+    /**
+     * Estimated production time in Unix seconds, or {@code null} if the node
+     * does not know it.
+     */
+    public Long getBlockTime() {
+        return blockTime;
+    }
 
     public Meta getMeta() {
         return meta;
@@ -165,8 +430,82 @@ public class ConfirmedTransaction {
         return slot;
     }
 
+    /**
+     * The decoded transaction, or {@code null} if it was fetched in base64.
+     */
     public Transaction getTransaction() {
         return transaction;
     }
 
+    /**
+     * The transaction in wire format when it was fetched in base64, else
+     * {@code null}; read it with a {@code TransactionView}.
+     */
+    public byte[] getRawTransaction() {
+        return rawTransaction;
+    }
+
+    public static final JsonAdapter<ConfirmedTransaction> ADAPTER = new JsonAdapter<ConfirmedTransaction>() {
+        private final JsonReader.Options options = JsonReader.Options.of("blockTime", "meta", "slot", "transaction");
+
+        @Override
+        public ConfirmedTransaction fromJson(JsonReader reader) throws IOException {
+            ConfirmedTransaction confirmedTransaction = new ConfirmedTransaction();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(options)) {
+                    case 0:
+                        confirmedTransaction.blockTime = JsonAdapters.LONG.fromJson(reader);
+                        break;
+                    case 1:
+                        confirmedTransaction.meta = Meta.ADAPTER.fromJson(reader);
+                        break;
+                    case 2:
+                        confirmedTransaction.slot = reader.nextLong();
+                        break;
+                    case 3:
+                        if (reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+                            // [data, encoding]
+                            reader.beginArray();
+                            confirmedTransaction.rawTransaction = Base64.getDecoder().decode(reader.nextString());
+                            while (reader.hasNext()) {
+                                reader.skipValue();
+                            }
+                            reader.endArray();
+                        } else {
+                            confirmedTransaction.transaction = Transaction.ADAPTER.fromJson(reader);
+                        }
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return confirmedTransaction;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, ConfirmedTransaction value) throws IOException {
+            writer.beginObject();
+            writer.name("blockTime");
+            JsonAdapters.LONG.toJson(writer, value.blockTime);
+            writer.name("meta");
+            Meta.ADAPTER.toJson(writer, value.meta);
+            writer.name("slot").value(value.slot);
+            writer.name("transaction");
+            if (value.rawTransaction != null) {
+                writer.beginArray();
+                writer.value(Base64.getEncoder().encodeToString(value.rawTransaction));
+                writer.value("base64");
+                writer.endArray();
+            } else {
+                Transaction.ADAPTER.toJson(writer, value.transaction);
+            }
+            writer.endObject();
+        }
+    }.nullSafe();
+
 }
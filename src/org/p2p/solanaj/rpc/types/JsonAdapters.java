@@ -0,0 +1,205 @@
+package org.p2p.solanaj.rpc.types;
+
+import banki.io.IOException;
+import banki.util.ArrayList;
+import banki.util.LinkedHashMap;
+import banki.util.List;
+import banki.util.Map;
+
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+
+import org.p2p.solanaj.rpc.types.ConfigObjects.ConfirmedSignFAddr2;
+import org.p2p.solanaj.rpc.types.ConfigObjects.DataSlice;
+import org.p2p.solanaj.rpc.types.ConfigObjects.Filter;
+import org.p2p.solanaj.rpc.types.ConfigObjects.Memcmp;
+import org.p2p.solanaj.rpc.types.ConfigObjects.ProgramAccountConfig;
+import org.p2p.solanaj.rpc.types.ConfigObjects.SignatureStatusConfig;
+import org.p2p.solanaj.utils.ByteUtils;
+
+/**
+ * Hand-written streaming adapters shared by the RPC types. Every adapter is
+ * created once and reads straight from a {@link JsonReader}, so decoding a
+ * response needs neither reflection nor the full body in memory.
+ */
+public class JsonAdapters {
+
+    public static final JsonAdapter<String> STRING = new JsonAdapter<String>() {
+        @Override
+        public String fromJson(JsonReader reader) throws IOException {
+            return reader.nextString();
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, String value) throws IOException {
+            writer.value(value);
+        }
+    }.nullSafe();
+
+    public static final JsonAdapter<Long> LONG = new JsonAdapter<Long>() {
+        @Override
+        public Long fromJson(JsonReader reader) throws IOException {
+            return reader.nextLong();
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, Long value) throws IOException {
+            writer.value(value.longValue());
+        }
+    }.nullSafe();
+
+    /**
+     * Untyped values as lists, maps, strings, booleans and numbers, like
+     * {@link JsonReader#readJsonValue()}, except that whole numbers are read
+     * as {@link Long}s so lamports above 2^53 survive. A u64 above
+     * {@link Long#MAX_VALUE}, such as the rentEpoch of a rent-exempt account,
+     * keeps its bits as {@link ByteUtils#parseUint64} does in the typed
+     * adapters.
+     */
+    public static final JsonAdapter<Object> VALUE = new JsonAdapter<Object>() {
+        @Override
+        public Object fromJson(JsonReader reader) throws IOException {
+            return readValue(reader);
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, Object value) throws IOException {
+            writeValue(writer, value);
+        }
+    };
+
+    public static final JsonAdapter<List<String>> STRING_LIST = listOf(STRING);
+
+    public static final JsonAdapter<List<Long>> LONG_LIST = listOf(LONG);
+
+    public static final JsonAdapter<List<Object>> VALUE_LIST = listOf(VALUE);
+
+    /**
+     * Views an adapter as a {@link ResultReader}.
+     */
+    public static <T> ResultReader<T> reader(final JsonAdapter<T> adapter) {
+        return new ResultReader<T>() {
+            @Override
+            public T read(JsonReader reader) throws IOException {
+                return adapter.fromJson(reader);
+            }
+        };
+    }
+
+    public static <T> JsonAdapter<List<T>> listOf(final JsonAdapter<T> elementAdapter) {
+        return new JsonAdapter<List<T>>() {
+            @Override
+            public List<T> fromJson(JsonReader reader) throws IOException {
+                List<T> result = new ArrayList<T>();
+
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    result.add(elementAdapter.fromJson(reader));
+                }
+                reader.endArray();
+
+                return result;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, List<T> value) throws IOException {
+                writer.beginArray();
+                for (T item : value) {
+                    elementAdapter.toJson(writer, item);
+                }
+                writer.endArray();
+            }
+        }.nullSafe();
+    }
+
+    private static Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<Object>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readValue(reader));
+                }
+                reader.endArray();
+                return list;
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new LinkedHashMap<String, Object>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    map.put(reader.nextName(), readValue(reader));
+                }
+                reader.endObject();
+                return map;
+            case NUMBER:
+                String number = reader.nextString();
+                if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                    try {
+                        return number.charAt(0) == '-' ? Long.parseLong(number) : ByteUtils.parseUint64(number);
+                    } catch (NumberFormatException e) {
+                        // beyond a u64, fall through to a double
+                    }
+                }
+                return Double.valueOf(number);
+            case STRING:
+                return reader.nextString();
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                return reader.nextNull();
+            default:
+                throw new IllegalStateException("Expected a value but was " + reader.peek() + " at path "
+                        + reader.getPath());
+        }
+    }
+
+    /**
+     * Writes a request parameter. Params are untyped lists, so the config
+     * objects are dispatched to their own adapters here.
+     */
+    @SuppressWarnings({ "rawtypes" })
+    public static void writeValue(JsonWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof String) {
+            writer.value((String) value);
+        } else if (value instanceof Boolean) {
+            writer.value(((Boolean) value).booleanValue());
+        } else if (value instanceof Number) {
+            writer.value((Number) value);
+        } else if (value instanceof Enum) {
+            writer.value(((Enum) value).name());
+        } else if (value instanceof List) {
+            writer.beginArray();
+            for (Object item : (List) value) {
+                writeValue(writer, item);
+            }
+            writer.endArray();
+        } else if (value instanceof Map) {
+            writer.beginObject();
+            for (Object entry : ((Map) value).entrySet()) {
+                Map.Entry e = (Map.Entry) entry;
+                writer.name(String.valueOf(e.getKey()));
+                writeValue(writer, e.getValue());
+            }
+            writer.endObject();
+        } else if (value instanceof RpcSendTransactionConfig) {
+            RpcSendTransactionConfig.ADAPTER.toJson(writer, (RpcSendTransactionConfig) value);
+        } else if (value instanceof ConfirmedSignFAddr2) {
+            ConfirmedSignFAddr2.ADAPTER.toJson(writer, (ConfirmedSignFAddr2) value);
+        } else if (value instanceof ProgramAccountConfig) {
+            ProgramAccountConfig.ADAPTER.toJson(writer, (ProgramAccountConfig) value);
+        } else if (value instanceof Filter) {
+            Filter.ADAPTER.toJson(writer, (Filter) value);
+        } else if (value instanceof Memcmp) {
+            Memcmp.ADAPTER.toJson(writer, (Memcmp) value);
+        } else if (value instanceof DataSlice) {
+            DataSlice.ADAPTER.toJson(writer, (DataSlice) value);
+        } else if (value instanceof SignatureStatusConfig) {
+            SignatureStatusConfig.ADAPTER.toJson(writer, (SignatureStatusConfig) value);
+        } else {
+            throw new IllegalArgumentException("Unsupported JSON value: " + value.getClass().getName());
+        }
+    }
+
+}
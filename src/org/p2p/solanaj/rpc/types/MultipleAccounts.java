@@ -0,0 +1,63 @@
+package org.p2p.solanaj.rpc.types;
+
+import banki.io.IOException;
+import banki.util.List;
+
+import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+
+public class MultipleAccounts extends RpcResultObject {
+
+    private static final JsonAdapter<List<AccountInfo.Value>> VALUE_LIST = JsonAdapters
+            .listOf(AccountInfo.Value.ADAPTER);
+
+    @Json(name = "value")
+    private List<AccountInfo.Value> value;
+
+    /**
+     * Account values in request order; missing accounts are {@code null}.
+     */
+    public List<AccountInfo.Value> getValue() {
+        return value;
+    }
+
+    public static final JsonAdapter<MultipleAccounts> ADAPTER = new JsonAdapter<MultipleAccounts>() {
+        private final JsonReader.Options options = JsonReader.Options.of("context", "value");
+
+        @Override
+        public MultipleAccounts fromJson(JsonReader reader) throws IOException {
+            MultipleAccounts multipleAccounts = new MultipleAccounts();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(options)) {
+                    case 0:
+                        multipleAccounts.context = Context.ADAPTER.fromJson(reader);
+                        break;
+                    case 1:
+                        multipleAccounts.value = VALUE_LIST.fromJson(reader);
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return multipleAccounts;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, MultipleAccounts value) throws IOException {
+            writer.beginObject();
+            writer.name("context");
+            Context.ADAPTER.toJson(writer, value.context);
+            writer.name("value");
+            VALUE_LIST.toJson(writer, value.value);
+            writer.endObject();
+        }
+    }.nullSafe();
+
+}
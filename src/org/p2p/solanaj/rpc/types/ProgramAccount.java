@@ -1,14 +1,19 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
 import banki.util.AbstractMap;
 import banki.util.List;
 import banki.util.Base64;
 
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 import org.p2p.solanaj.rpc.types.RpcSendTransactionConfig.Encoding;
 
 import org.banki.util.Base58;
+import org.p2p.solanaj.utils.ByteUtils;
 
 public class ProgramAccount {
 
@@ -18,14 +23,17 @@ public class ProgramAccount {
         @Json(name = "executable")
         private boolean executable;
         @Json(name = "lamports")
-        private double lamports;
+        private long lamports;
         @Json(name = "owner")
         private String owner;
         @Json(name = "rentEpoch")
-        private double rentEpoch;
+        private long rentEpoch;
 
         private String encoding;
 
+        private Account() {
+        }
+
         @SuppressWarnings({ "rawtypes", "unchecked" })
         public Account(Object acc) {
             AbstractMap account = (AbstractMap) acc;
@@ -41,9 +49,9 @@ public class ProgramAccount {
             }
 
             this.executable = (boolean) account.get("executable");
-            this.lamports = (double) account.get("lamports");
+            this.lamports = ((Number) account.get("lamports")).longValue();
             this.owner = (String) account.get("owner");
-            this.rentEpoch = (double) account.get("rentEpoch");
+            this.rentEpoch = ((Number) account.get("rentEpoch")).longValue();
         }
 
         public String getData() {
@@ -51,7 +59,7 @@ public class ProgramAccount {
         }
 
         public byte[] getDecodedData() {
-            if (encoding.equals(Encoding.base64.toString())) {
+            if (Encoding.base64.toString().equals(encoding)) {
                 return Base64.getDecoder().decode(data);
             }
 
@@ -62,7 +70,7 @@ public class ProgramAccount {
             return executable;
         }
 
-        public double getLamports() {
+        public long getLamports() {
             return lamports;
         }
 
@@ -70,7 +78,11 @@ public class ProgramAccount {
             return owner;
         }
 
-        public double getRentEpoch() {
+        /**
+         * A u64; rent-exempt accounts may report the maximum, which reads
+         * as -1 here.
+         */
+        public long getRentEpoch() {
             return rentEpoch;
         }
 
@@ -97,4 +109,98 @@ public class ProgramAccount {
         this.account = (Account) new Account(pa.get("account"));
         this.pubkey = (String) pa.get("pubkey");
     }
+
+    private static final JsonReader.Options ACCOUNT_OPTIONS = JsonReader.Options.of("data", "executable", "lamports",
+            "owner", "rentEpoch");
+
+    private static void readAccount(JsonReader reader, Account account) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(ACCOUNT_OPTIONS)) {
+                case 0:
+                    if (reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+                        reader.beginArray();
+                        account.data = reader.nextString();
+                        account.encoding = reader.nextString();
+                        reader.endArray();
+                    } else {
+                        account.data = JsonAdapters.STRING.fromJson(reader);
+                    }
+                    break;
+                case 1:
+                    account.executable = reader.nextBoolean();
+                    break;
+                case 2:
+                    account.lamports = reader.nextLong();
+                    break;
+                case 3:
+                    account.owner = JsonAdapters.STRING.fromJson(reader);
+                    break;
+                case 4:
+                    account.rentEpoch = ByteUtils.parseUint64(reader.nextString());
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void writeAccount(JsonWriter writer, Account account) throws IOException {
+        writer.beginObject();
+        writer.name("data");
+        if (account.encoding != null) {
+            writer.beginArray();
+            writer.value(account.data);
+            writer.value(account.encoding);
+            writer.endArray();
+        } else {
+            writer.value(account.data);
+        }
+        writer.name("executable").value(account.executable);
+        writer.name("lamports").value(account.lamports);
+        writer.name("owner").value(account.owner);
+        writer.name("rentEpoch").value(ByteUtils.uint64ToBigInteger(account.rentEpoch));
+        writer.endObject();
+    }
+
+    public static final JsonAdapter<ProgramAccount> ADAPTER = new JsonAdapter<ProgramAccount>() {
+        private final JsonReader.Options options = JsonReader.Options.of("account", "pubkey");
+
+        @Override
+        public ProgramAccount fromJson(JsonReader reader) throws IOException {
+            ProgramAccount programAccount = new ProgramAccount();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(options)) {
+                    case 0:
+                        programAccount.account = programAccount.new Account();
+                        readAccount(reader, programAccount.account);
+                        break;
+                    case 1:
+                        programAccount.pubkey = JsonAdapters.STRING.fromJson(reader);
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return programAccount;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, ProgramAccount value) throws IOException {
+            writer.beginObject();
+            if (value.account != null) {
+                writer.name("account");
+                writeAccount(writer, value.account);
+            }
+            writer.name("pubkey").value(value.pubkey);
+            writer.endObject();
+        }
+    }.nullSafe();
 }
@@ -1,6 +1,11 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
+
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 public class RecentBlockhash extends RpcResultObject {
     public static class FeeCalculator {
@@ -12,6 +17,37 @@ public class RecentBlockhash extends RpcResultObject {
             return lamportsPerSignature;
         }
 
+        public static final JsonAdapter<FeeCalculator> ADAPTER = new JsonAdapter<FeeCalculator>() {
+            private final JsonReader.Options options = JsonReader.Options.of("lamportsPerSignature");
+
+            @Override
+            public FeeCalculator fromJson(JsonReader reader) throws IOException {
+                FeeCalculator feeCalculator = new FeeCalculator();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            feeCalculator.lamportsPerSignature = reader.nextLong();
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return feeCalculator;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, FeeCalculator value) throws IOException {
+                writer.beginObject();
+                writer.name("lamportsPerSignature").value(value.lamportsPerSignature);
+                writer.endObject();
+            }
+        }.nullSafe();
+
     }
 
     public static class Value {
@@ -28,6 +64,42 @@ public class RecentBlockhash extends RpcResultObject {
             return feeCalculator;
         }
 
+        public static final JsonAdapter<Value> ADAPTER = new JsonAdapter<Value>() {
+            private final JsonReader.Options options = JsonReader.Options.of("blockhash", "feeCalculator");
+
+            @Override
+            public Value fromJson(JsonReader reader) throws IOException {
+                Value value = new Value();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            value.blockhash = JsonAdapters.STRING.fromJson(reader);
+                            break;
+                        case 1:
+                            value.feeCalculator = FeeCalculator.ADAPTER.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return value;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Value value) throws IOException {
+                writer.beginObject();
+                writer.name("blockhash").value(value.blockhash);
+                writer.name("feeCalculator");
+                FeeCalculator.ADAPTER.toJson(writer, value.feeCalculator);
+                writer.endObject();
+            }
+        }.nullSafe();
+
     }
 
     @Json(name = "value")
@@ -40,4 +112,41 @@ public class RecentBlockhash extends RpcResultObject {
     public String getRecentBlockhash() {
         return getValue().getBlockhash();
     }
+
+    public static final JsonAdapter<RecentBlockhash> ADAPTER = new JsonAdapter<RecentBlockhash>() {
+        private final JsonReader.Options options = JsonReader.Options.of("context", "value");
+
+        @Override
+        public RecentBlockhash fromJson(JsonReader reader) throws IOException {
+            RecentBlockhash recentBlockhash = new RecentBlockhash();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(options)) {
+                    case 0:
+                        recentBlockhash.context = Context.ADAPTER.fromJson(reader);
+                        break;
+                    case 1:
+                        recentBlockhash.value = Value.ADAPTER.fromJson(reader);
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return recentBlockhash;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, RecentBlockhash value) throws IOException {
+            writer.beginObject();
+            writer.name("context");
+            Context.ADAPTER.toJson(writer, value.context);
+            writer.name("value");
+            Value.ADAPTER.toJson(writer, value.value);
+            writer.endObject();
+        }
+    }.nullSafe();
 }
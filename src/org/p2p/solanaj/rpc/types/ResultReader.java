@@ -0,0 +1,14 @@
+package org.p2p.solanaj.rpc.types;
+
+import banki.io.IOException;
+
+import com.squareup.moshi.JsonReader;
+
+/**
+ * Decodes the result of a call. Unlike a {@code JsonAdapter} it has no way
+ * back to JSON, which suits results that are consumed while they are read,
+ * such as streamed program accounts.
+ */
+public interface ResultReader<T> {
+    public T read(JsonReader reader) throws IOException;
+}
@@ -1,6 +1,11 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
+
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 public class RpcNotificationResult {
 
@@ -11,6 +16,43 @@ public class RpcNotificationResult {
         public Object getValue() {
             return value;
         }
+
+        public static final JsonAdapter<Result> ADAPTER = new JsonAdapter<Result>() {
+            private final JsonReader.Options options = JsonReader.Options.of("context", "value");
+
+            @Override
+            public Result fromJson(JsonReader reader) throws IOException {
+                Result result = new Result();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            result.context = Context.ADAPTER.fromJson(reader);
+                            break;
+                        case 1:
+                            result.value = JsonAdapters.VALUE.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return result;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Result value) throws IOException {
+                writer.beginObject();
+                writer.name("context");
+                Context.ADAPTER.toJson(writer, value.context);
+                writer.name("value");
+                JsonAdapters.writeValue(writer, value.value);
+                writer.endObject();
+            }
+        }.nullSafe();
     }
 
     public static class Params {
@@ -28,6 +70,42 @@ public class RpcNotificationResult {
             return subscription;
         }
 
+        public static final JsonAdapter<Params> ADAPTER = new JsonAdapter<Params>() {
+            private final JsonReader.Options options = JsonReader.Options.of("result", "subscription");
+
+            @Override
+            public Params fromJson(JsonReader reader) throws IOException {
+                Params params = new Params();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            params.result = Result.ADAPTER.fromJson(reader);
+                            break;
+                        case 1:
+                            params.subscription = reader.nextLong();
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return params;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Params value) throws IOException {
+                writer.beginObject();
+                writer.name("result");
+                Result.ADAPTER.toJson(writer, value.result);
+                writer.name("subscription").value(value.subscription);
+                writer.endObject();
+            }
+        }.nullSafe();
+
     }
 
     @Json(name = "jsonrpc")
@@ -49,4 +127,44 @@ public class RpcNotificationResult {
         return params;
     }
 
+    public static final JsonAdapter<RpcNotificationResult> ADAPTER = new JsonAdapter<RpcNotificationResult>() {
+        private final JsonReader.Options options = JsonReader.Options.of("jsonrpc", "method", "params");
+
+        @Override
+        public RpcNotificationResult fromJson(JsonReader reader) throws IOException {
+            RpcNotificationResult notification = new RpcNotificationResult();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(options)) {
+                    case 0:
+                        notification.jsonrpc = JsonAdapters.STRING.fromJson(reader);
+                        break;
+                    case 1:
+                        notification.method = JsonAdapters.STRING.fromJson(reader);
+                        break;
+                    case 2:
+                        notification.params = Params.ADAPTER.fromJson(reader);
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return notification;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, RpcNotificationResult value) throws IOException {
+            writer.beginObject();
+            writer.name("jsonrpc").value(value.jsonrpc);
+            writer.name("method").value(value.method);
+            writer.name("params");
+            Params.ADAPTER.toJson(writer, value.params);
+            writer.endObject();
+        }
+    }.nullSafe();
+
 }
@@ -1,9 +1,13 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
 import banki.util.List;
 import banki.util.UUID;
 
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 public class RpcRequest {
     @Json(name = "jsonrpc")
@@ -36,4 +40,50 @@ public class RpcRequest {
         return id;
     }
 
+    public static final JsonAdapter<RpcRequest> ADAPTER = new JsonAdapter<RpcRequest>() {
+        private final JsonReader.Options options = JsonReader.Options.of("jsonrpc", "method", "params", "id");
+
+        @Override
+        public RpcRequest fromJson(JsonReader reader) throws IOException {
+            RpcRequest request = new RpcRequest(null);
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(options)) {
+                    case 0:
+                        request.jsonrpc = JsonAdapters.STRING.fromJson(reader);
+                        break;
+                    case 1:
+                        request.method = JsonAdapters.STRING.fromJson(reader);
+                        break;
+                    case 2:
+                        request.params = JsonAdapters.VALUE_LIST.fromJson(reader);
+                        break;
+                    case 3:
+                        request.id = JsonAdapters.STRING.fromJson(reader);
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return request;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, RpcRequest value) throws IOException {
+            writer.beginObject();
+            writer.name("jsonrpc").value(value.jsonrpc);
+            writer.name("method").value(value.method);
+            if (value.params != null) {
+                writer.name("params");
+                JsonAdapters.writeValue(writer, value.params);
+            }
+            writer.name("id").value(value.id);
+            writer.endObject();
+        }
+    }.nullSafe();
+
 }
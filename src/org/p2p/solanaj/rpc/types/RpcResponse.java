@@ -1,6 +1,11 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
+
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 public class RpcResponse<T> {
 
@@ -18,6 +23,41 @@ public class RpcResponse<T> {
             return message;
         }
 
+        public static final JsonAdapter<Error> ADAPTER = new JsonAdapter<Error>() {
+            private final JsonReader.Options options = JsonReader.Options.of("code", "message");
+
+            @Override
+            public Error fromJson(JsonReader reader) throws IOException {
+                Error error = new Error();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            error.code = reader.nextLong();
+                            break;
+                        case 1:
+                            error.message = JsonAdapters.STRING.fromJson(reader);
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return error;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Error value) throws IOException {
+                writer.beginObject();
+                writer.name("code").value(value.code);
+                writer.name("message").value(value.message);
+                writer.endObject();
+            }
+        }.nullSafe();
+
     }
 
     @Json(name = "jsonrpc")
@@ -45,4 +85,46 @@ public class RpcResponse<T> {
         return id;
     }
 
+    private static final JsonReader.Options OPTIONS = JsonReader.Options.of("jsonrpc", "result", "error", "id");
+
+    /**
+     * Decodes a response envelope, handing the {@code result} member to the
+     * given adapter as it streams past.
+     */
+    public static <T> RpcResponse<T> fromJson(JsonReader reader, JsonAdapter<T> resultAdapter) throws IOException {
+        return fromJson(reader, JsonAdapters.reader(resultAdapter));
+    }
+
+    public static <T> RpcResponse<T> fromJson(JsonReader reader, ResultReader<T> resultReader) throws IOException {
+        RpcResponse<T> response = new RpcResponse<T>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.selectName(OPTIONS)) {
+                case 0:
+                    response.jsonrpc = JsonAdapters.STRING.fromJson(reader);
+                    break;
+                case 1:
+                    if (reader.peek() == JsonReader.Token.NULL) {
+                        reader.skipValue();
+                    } else {
+                        response.result = resultReader.read(reader);
+                    }
+                    break;
+                case 2:
+                    response.error = Error.ADAPTER.fromJson(reader);
+                    break;
+                case 3:
+                    response.id = JsonAdapters.STRING.fromJson(reader);
+                    break;
+                default:
+                    reader.skipName();
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return response;
+    }
+
 }
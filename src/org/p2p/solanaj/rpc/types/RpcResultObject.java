@@ -1,6 +1,11 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
+
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 public class RpcResultObject {
     public static class Context {
@@ -11,6 +16,37 @@ public class RpcResultObject {
             return slot;
         }
 
+        public static final JsonAdapter<Context> ADAPTER = new JsonAdapter<Context>() {
+            private final JsonReader.Options options = JsonReader.Options.of("slot");
+
+            @Override
+            public Context fromJson(JsonReader reader) throws IOException {
+                Context context = new Context();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            context.slot = reader.nextLong();
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return context;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Context value) throws IOException {
+                writer.beginObject();
+                writer.name("slot").value(value.slot);
+                writer.endObject();
+            }
+        }.nullSafe();
+
     }
 
     @Json(name = "context")
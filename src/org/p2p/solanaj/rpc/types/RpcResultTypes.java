@@ -1,6 +1,11 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
+
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 public class RpcResultTypes {
 
@@ -11,6 +16,42 @@ public class RpcResultTypes {
         public long getValue() {
             return value;
         }
+
+        public static final JsonAdapter<ValueLong> ADAPTER = new JsonAdapter<ValueLong>() {
+            private final JsonReader.Options options = JsonReader.Options.of("context", "value");
+
+            @Override
+            public ValueLong fromJson(JsonReader reader) throws IOException {
+                ValueLong result = new ValueLong();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            result.context = Context.ADAPTER.fromJson(reader);
+                            break;
+                        case 1:
+                            result.value = reader.nextLong();
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return result;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, ValueLong value) throws IOException {
+                writer.beginObject();
+                writer.name("context");
+                Context.ADAPTER.toJson(writer, value.context);
+                writer.name("value").value(value.value);
+                writer.endObject();
+            }
+        }.nullSafe();
     }
 
 }
@@ -1,11 +1,16 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
+
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 public class RpcSendTransactionConfig {
 
     public static enum Encoding {
-        base64("base64");
+        base64("base64"), json("json");
 
         private String enc;
 
@@ -22,4 +27,44 @@ public class RpcSendTransactionConfig {
     @Json(name = "encoding")
     private Encoding encoding = Encoding.base64;
 
+    public RpcSendTransactionConfig() {
+    }
+
+    public RpcSendTransactionConfig(Encoding encoding) {
+        this.encoding = encoding;
+    }
+
+    public static final JsonAdapter<RpcSendTransactionConfig> ADAPTER = new JsonAdapter<RpcSendTransactionConfig>() {
+        private final JsonReader.Options options = JsonReader.Options.of("encoding");
+
+        @Override
+        public RpcSendTransactionConfig fromJson(JsonReader reader) throws IOException {
+            RpcSendTransactionConfig config = new RpcSendTransactionConfig();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(options)) {
+                    case 0:
+                        config.encoding = Encoding.valueOf(reader.nextString());
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return config;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, RpcSendTransactionConfig value) throws IOException {
+            writer.beginObject();
+            if (value.encoding != null) {
+                writer.name("encoding").value(value.encoding.getEncoding());
+            }
+            writer.endObject();
+        }
+    }.nullSafe();
+
 }
@@ -1,8 +1,12 @@
 package org.p2p.solanaj.rpc.types;
 
+import banki.io.IOException;
 import banki.util.AbstractMap;
 
 import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
 
 public class SignatureInformation {
     @Json(name = "err")
@@ -22,7 +26,7 @@ public class SignatureInformation {
         this.err = info.get("err");
         this.memo = info.get("memo");
         this.signature = (String) info.get("signature");
-        this.err = info.get("slot");
+        this.slot = ((Number) info.get("slot")).longValue();
     }
 
     public Object getErr() {
@@ -41,4 +45,49 @@ public class SignatureInformation {
         return slot;
     }
 
+    public static final JsonAdapter<SignatureInformation> ADAPTER = new JsonAdapter<SignatureInformation>() {
+        private final JsonReader.Options options = JsonReader.Options.of("err", "memo", "signature", "slot");
+
+        @Override
+        public SignatureInformation fromJson(JsonReader reader) throws IOException {
+            SignatureInformation info = new SignatureInformation();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(options)) {
+                    case 0:
+                        info.err = JsonAdapters.VALUE.fromJson(reader);
+                        break;
+                    case 1:
+                        info.memo = JsonAdapters.VALUE.fromJson(reader);
+                        break;
+                    case 2:
+                        info.signature = JsonAdapters.STRING.fromJson(reader);
+                        break;
+                    case 3:
+                        info.slot = reader.nextLong();
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return info;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, SignatureInformation value) throws IOException {
+            writer.beginObject();
+            writer.name("err");
+            JsonAdapters.writeValue(writer, value.err);
+            writer.name("memo");
+            JsonAdapters.writeValue(writer, value.memo);
+            writer.name("signature").value(value.signature);
+            writer.name("slot").value(value.slot);
+            writer.endObject();
+        }
+    }.nullSafe();
+
 }
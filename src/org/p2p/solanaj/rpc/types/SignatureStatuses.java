@@ -0,0 +1,166 @@
+package org.p2p.solanaj.rpc.types;
+
+import banki.io.IOException;
+import banki.util.List;
+
+import com.squareup.moshi.Json;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonReader;
+import com.squareup.moshi.JsonWriter;
+
+public class SignatureStatuses extends RpcResultObject {
+
+    public static enum ConfirmationStatus {
+        processed, confirmed, finalized
+    }
+
+    public static class Value {
+        @Json(name = "slot")
+        private long slot;
+        @Json(name = "confirmations")
+        private Long confirmations;
+        @Json(name = "err")
+        private Object err;
+        @Json(name = "confirmationStatus")
+        private ConfirmationStatus confirmationStatus;
+
+        public long getSlot() {
+            return slot;
+        }
+
+        /**
+         * Blocks since the transaction's block, or {@code null} once it is
+         * rooted.
+         */
+        public Long getConfirmations() {
+            return confirmations;
+        }
+
+        public Object getErr() {
+            return err;
+        }
+
+        public boolean hasError() {
+            return err != null;
+        }
+
+        /**
+         * Falls back to the confirmation count for nodes that do not report
+         * the status itself.
+         */
+        public ConfirmationStatus getConfirmationStatus() {
+            if (confirmationStatus != null) {
+                return confirmationStatus;
+            }
+            if (confirmations == null) {
+                return ConfirmationStatus.finalized;
+            }
+
+            return confirmations > 0 ? ConfirmationStatus.confirmed : ConfirmationStatus.processed;
+        }
+
+        public boolean hasReached(ConfirmationStatus commitment) {
+            return getConfirmationStatus().compareTo(commitment) >= 0;
+        }
+
+        public static final JsonAdapter<Value> ADAPTER = new JsonAdapter<Value>() {
+            private final JsonReader.Options options = JsonReader.Options.of("slot", "confirmations", "err",
+                    "confirmationStatus");
+
+            @Override
+            public Value fromJson(JsonReader reader) throws IOException {
+                Value value = new Value();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.selectName(options)) {
+                        case 0:
+                            value.slot = reader.nextLong();
+                            break;
+                        case 1:
+                            value.confirmations = JsonAdapters.LONG.fromJson(reader);
+                            break;
+                        case 2:
+                            value.err = JsonAdapters.VALUE.fromJson(reader);
+                            break;
+                        case 3:
+                            String status = JsonAdapters.STRING.fromJson(reader);
+                            value.confirmationStatus = status != null ? ConfirmationStatus.valueOf(status) : null;
+                            break;
+                        default:
+                            reader.skipName();
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+
+                return value;
+            }
+
+            @Override
+            public void toJson(JsonWriter writer, Value value) throws IOException {
+                writer.beginObject();
+                writer.name("slot").value(value.slot);
+                writer.name("confirmations");
+                JsonAdapters.LONG.toJson(writer, value.confirmations);
+                writer.name("err");
+                JsonAdapters.writeValue(writer, value.err);
+                writer.name("confirmationStatus");
+                JsonAdapters.writeValue(writer, value.confirmationStatus);
+                writer.endObject();
+            }
+        }.nullSafe();
+
+    }
+
+    private static final JsonAdapter<List<Value>> VALUE_LIST = JsonAdapters.listOf(Value.ADAPTER);
+
+    @Json(name = "value")
+    private List<Value> value;
+
+    /**
+     * Statuses in request order; signatures the node has not seen are
+     * {@code null}.
+     */
+    public List<Value> getValue() {
+        return value;
+    }
+
+    public static final JsonAdapter<SignatureStatuses> ADAPTER = new JsonAdapter<SignatureStatuses>() {
+        private final JsonReader.Options options = JsonReader.Options.of("context", "value");
+
+        @Override
+        public SignatureStatuses fromJson(JsonReader reader) throws IOException {
+            SignatureStatuses statuses = new SignatureStatuses();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(options)) {
+                    case 0:
+                        statuses.context = Context.ADAPTER.fromJson(reader);
+                        break;
+                    case 1:
+                        statuses.value = VALUE_LIST.fromJson(reader);
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return statuses;
+        }
+
+        @Override
+        public void toJson(JsonWriter writer, SignatureStatuses value) throws IOException {
+            writer.beginObject();
+            writer.name("context");
+            Context.ADAPTER.toJson(writer, value.context);
+            writer.name("value");
+            VALUE_LIST.toJson(writer, value.value);
+            writer.endObject();
+        }
+    }.nullSafe();
+
+}
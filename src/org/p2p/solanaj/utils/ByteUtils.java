@@ -16,8 +16,83 @@ public class ByteUtils {
         return b;
     }
 
+    /**
+     * Compares {@code length} bytes of two arrays without copying either.
+     */
+    public static boolean equals(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[aOffset + i] != b[bOffset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static BigInteger readUint64(byte[] buf, int offset) {
-        return new BigInteger(reverseBytes(readBytes(buf, offset, UINT_64_LENGTH)));
+        return uint64ToBigInteger(readInt64LE(buf, offset));
+    }
+
+    /**
+     * Reads a little-endian u64 as the long with the same bits; use the
+     * uint64 helpers to treat it as unsigned.
+     */
+    public static long readInt64LE(byte[] buf, int offset) {
+        return (buf[offset] & 0xffL)
+                | (buf[offset + 1] & 0xffL) << 8
+                | (buf[offset + 2] & 0xffL) << 16
+                | (buf[offset + 3] & 0xffL) << 24
+                | (buf[offset + 4] & 0xffL) << 32
+                | (buf[offset + 5] & 0xffL) << 40
+                | (buf[offset + 6] & 0xffL) << 48
+                | (buf[offset + 7] & 0xffL) << 56;
+    }
+
+    /**
+     * Reads a little-endian u32, zero-extended.
+     */
+    public static long readUint32LE(byte[] buf, int offset) {
+        return (buf[offset] & 0xffL)
+                | (buf[offset + 1] & 0xffL) << 8
+                | (buf[offset + 2] & 0xffL) << 16
+                | (buf[offset + 3] & 0xffL) << 24;
+    }
+
+    public static int compareUint64(long a, long b) {
+        a += Long.MIN_VALUE;
+        b += Long.MIN_VALUE;
+        return a < b ? -1 : (a == b ? 0 : 1);
+    }
+
+    public static BigInteger uint64ToBigInteger(long value) {
+        BigInteger result = BigInteger.valueOf(value & Long.MAX_VALUE);
+        return value < 0 ? result.setBit(63) : result;
+    }
+
+    public static String uint64ToString(long value) {
+        if (value >= 0) {
+            return Long.toString(value);
+        }
+
+        // halve to get a positive long, then put back the last digit
+        long quotient = (value >>> 1) / 5;
+        long remainder = value - quotient * 10;
+        return Long.toString(quotient) + remainder;
+    }
+
+    /**
+     * Parses a decimal u64, such as a JSON number above
+     * {@link Long#MAX_VALUE}, into the long with the same bits.
+     */
+    public static long parseUint64(String value) {
+        if (value.length() < 19) {
+            return Long.parseLong(value);
+        }
+
+        BigInteger big = new BigInteger(value);
+        if (big.signum() < 0 || big.bitLength() > 64) {
+            throw new NumberFormatException("Not a u64: " + value);
+        }
+        return big.longValue();
     }
 
     public static void uint64ToByteStreamLE(BigInteger val, OutputStream stream) throws IOException {
@@ -0,0 +1,757 @@
+package org.p2p.solanaj.utils;
+
+import banki.lang.System;
+import banki.lang.ThreadLocal;
+import banki.util.Arrays;
+
+/*
+ * @description
+ *   GF(2^255-19) arithmetic in ten signed limbs of alternately 26 and 25 bits
+ *   (radix 2^25.5), and the Ed25519 and X25519 operations built on it that
+ *   TweetNaclFast delegates to. A limb product fits a long, so a multiply is
+ *   100 long multiplications against 256 for the 16-limb representation,
+ *   squaring has its own routine, and inversion uses the addition chain of
+ *   254 squarings and 11 multiplications. Everything here runs in constant
+ *   time.
+ * */
+final class Curve25519 {
+
+	private Curve25519() {
+	}
+
+	// d, 2*d and the base point, as 16-bit limbs like the TweetNaclFast constants
+	private static final int [] D = fe_fromlimbs16(new long [] {
+		0x78a3, 0x1359, 0x4dca, 0x75eb,
+		0xd8ab, 0x4141, 0x0a4d, 0x0070,
+		0xe898, 0x7779, 0x4079, 0x8cc7,
+		0xfe73, 0x2b6f, 0x6cee, 0x5203
+	});
+	private static final int [] D2 = fe_fromlimbs16(new long [] {
+		0xf159, 0x26b2, 0x9b94, 0xebd6,
+		0xb156, 0x8283, 0x149a, 0x00e0,
+		0xd130, 0xeef3, 0x80f2, 0x198e,
+		0xfce7, 0x56df, 0xd9dc, 0x2406
+	});
+	private static final int [] BX = fe_fromlimbs16(new long [] {
+		0xd51a, 0x8f25, 0x2d60, 0xc956,
+		0xa7b2, 0x9525, 0xc760, 0x692c,
+		0xdc5c, 0xfdd6, 0xe231, 0xc0a4,
+		0x53fe, 0xcd6e, 0x36d3, 0x2169
+	});
+	private static final int [] BY = fe_fromlimbs16(new long [] {
+		0x6658, 0x6666, 0x6666, 0x6666,
+		0x6666, 0x6666, 0x6666, 0x6666,
+		0x6666, 0x6666, 0x6666, 0x6666,
+		0x6666, 0x6666, 0x6666, 0x6666
+	});
+
+	private static final int [] ONE = { 1, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+
+	private static int [] fe_fromlimbs16(long [] limbs)
+	{
+		byte [] s = new byte[32];
+		for (int i = 0; i < 16; i++) {
+			s[2*i] = (byte) limbs[i];
+			s[2*i+1] = (byte) (limbs[i] >> 8);
+		}
+
+		int [] h = new int[10];
+		fe_frombytes(h, s,0);
+		return h;
+	}
+
+	/*
+	 * @description
+	 *   Field element operations. h may alias f or g.
+	 * */
+	static void fe_0(int [] h)
+	{
+		for (int i = 0; i < 10; i++) h[i] = 0;
+	}
+
+	static void fe_1(int [] h)
+	{
+		fe_0(h);
+		h[0] = 1;
+	}
+
+	static void fe_copy(int [] h, int [] f)
+	{
+		System.arraycopy(f, 0, h, 0, 10);
+	}
+
+	private static void fe_carry(int [] h,
+			long h0, long h1, long h2, long h3, long h4,
+			long h5, long h6, long h7, long h8, long h9)
+	{
+		long carry;
+
+		carry = (h0 + (1L<<25)) >> 26; h1 += carry; h0 -= carry << 26;
+		carry = (h4 + (1L<<25)) >> 26; h5 += carry; h4 -= carry << 26;
+		carry = (h1 + (1L<<24)) >> 25; h2 += carry; h1 -= carry << 25;
+		carry = (h5 + (1L<<24)) >> 25; h6 += carry; h5 -= carry << 25;
+		carry = (h2 + (1L<<25)) >> 26; h3 += carry; h2 -= carry << 26;
+		carry = (h6 + (1L<<25)) >> 26; h7 += carry; h6 -= carry << 26;
+		carry = (h3 + (1L<<24)) >> 25; h4 += carry; h3 -= carry << 25;
+		carry = (h7 + (1L<<24)) >> 25; h8 += carry; h7 -= carry << 25;
+		carry = (h4 + (1L<<25)) >> 26; h5 += carry; h4 -= carry << 26;
+		carry = (h8 + (1L<<25)) >> 26; h9 += carry; h8 -= carry << 26;
+		carry = (h9 + (1L<<24)) >> 25; h0 += carry * 19; h9 -= carry << 25;
+		carry = (h0 + (1L<<25)) >> 26; h1 += carry; h0 -= carry << 26;
+
+		h[0] = (int) h0; h[1] = (int) h1; h[2] = (int) h2; h[3] = (int) h3; h[4] = (int) h4;
+		h[5] = (int) h5; h[6] = (int) h6; h[7] = (int) h7; h[8] = (int) h8; h[9] = (int) h9;
+	}
+
+	// sums and differences are carried, so any chain of them stays in range
+	static void fe_add(int [] h, int [] f, int [] g)
+	{
+		fe_carry(h,
+				(long) f[0] + g[0], (long) f[1] + g[1], (long) f[2] + g[2], (long) f[3] + g[3], (long) f[4] + g[4],
+				(long) f[5] + g[5], (long) f[6] + g[6], (long) f[7] + g[7], (long) f[8] + g[8], (long) f[9] + g[9]);
+	}
+
+	static void fe_sub(int [] h, int [] f, int [] g)
+	{
+		fe_carry(h,
+				(long) f[0] - g[0], (long) f[1] - g[1], (long) f[2] - g[2], (long) f[3] - g[3], (long) f[4] - g[4],
+				(long) f[5] - g[5], (long) f[6] - g[6], (long) f[7] - g[7], (long) f[8] - g[8], (long) f[9] - g[9]);
+	}
+
+	static void fe_neg(int [] h, int [] f)
+	{
+		for (int i = 0; i < 10; i++) h[i] = -f[i];
+	}
+
+	static void fe_mul(int [] h, int [] f, int [] g)
+	{
+		long f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4],
+		     f5 = f[5], f6 = f[6], f7 = f[7], f8 = f[8], f9 = f[9];
+		long g0 = g[0], g1 = g[1], g2 = g[2], g3 = g[3], g4 = g[4],
+		     g5 = g[5], g6 = g[6], g7 = g[7], g8 = g[8], g9 = g[9];
+		long g1_19 = 19 * g1, g2_19 = 19 * g2, g3_19 = 19 * g3, g4_19 = 19 * g4, g5_19 = 19 * g5,
+		     g6_19 = 19 * g6, g7_19 = 19 * g7, g8_19 = 19 * g8, g9_19 = 19 * g9;
+		long f1_2 = 2 * f1, f3_2 = 2 * f3, f5_2 = 2 * f5, f7_2 = 2 * f7, f9_2 = 2 * f9;
+		long h0 = f0 * g0 + f1_2 * g9_19 + f2 * g8_19 + f3_2 * g7_19 + f4 * g6_19 + f5_2 * g5_19 + f6 * g4_19 + f7_2 * g3_19 + f8 * g2_19 + f9_2 * g1_19;
+		long h1 = f0 * g1 + f1 * g0 + f2 * g9_19 + f3 * g8_19 + f4 * g7_19 + f5 * g6_19 + f6 * g5_19 + f7 * g4_19 + f8 * g3_19 + f9 * g2_19;
+		long h2 = f0 * g2 + f1_2 * g1 + f2 * g0 + f3_2 * g9_19 + f4 * g8_19 + f5_2 * g7_19 + f6 * g6_19 + f7_2 * g5_19 + f8 * g4_19 + f9_2 * g3_19;
+		long h3 = f0 * g3 + f1 * g2 + f2 * g1 + f3 * g0 + f4 * g9_19 + f5 * g8_19 + f6 * g7_19 + f7 * g6_19 + f8 * g5_19 + f9 * g4_19;
+		long h4 = f0 * g4 + f1_2 * g3 + f2 * g2 + f3_2 * g1 + f4 * g0 + f5_2 * g9_19 + f6 * g8_19 + f7_2 * g7_19 + f8 * g6_19 + f9_2 * g5_19;
+		long h5 = f0 * g5 + f1 * g4 + f2 * g3 + f3 * g2 + f4 * g1 + f5 * g0 + f6 * g9_19 + f7 * g8_19 + f8 * g7_19 + f9 * g6_19;
+		long h6 = f0 * g6 + f1_2 * g5 + f2 * g4 + f3_2 * g3 + f4 * g2 + f5_2 * g1 + f6 * g0 + f7_2 * g9_19 + f8 * g8_19 + f9_2 * g7_19;
+		long h7 = f0 * g7 + f1 * g6 + f2 * g5 + f3 * g4 + f4 * g3 + f5 * g2 + f6 * g1 + f7 * g0 + f8 * g9_19 + f9 * g8_19;
+		long h8 = f0 * g8 + f1_2 * g7 + f2 * g6 + f3_2 * g5 + f4 * g4 + f5_2 * g3 + f6 * g2 + f7_2 * g1 + f8 * g0 + f9_2 * g9_19;
+		long h9 = f0 * g9 + f1 * g8 + f2 * g7 + f3 * g6 + f4 * g5 + f5 * g4 + f6 * g3 + f7 * g2 + f8 * g1 + f9 * g0;
+
+		fe_carry(h, h0, h1, h2, h3, h4, h5, h6, h7, h8, h9);
+	}
+
+	static void fe_sq(int [] h, int [] f)
+	{
+		long f0 = f[0], f1 = f[1], f2 = f[2], f3 = f[3], f4 = f[4],
+		     f5 = f[5], f6 = f[6], f7 = f[7], f8 = f[8], f9 = f[9];
+		long h0 = f0 * f0 + 76L * f1 * f9 + 38L * f2 * f8 + 76L * f3 * f7 + 38L * f4 * f6 + 38L * f5 * f5;
+		long h1 = 2L * f0 * f1 + 38L * f2 * f9 + 38L * f3 * f8 + 38L * f4 * f7 + 38L * f5 * f6;
+		long h2 = 2L * f0 * f2 + 2L * f1 * f1 + 76L * f3 * f9 + 38L * f4 * f8 + 76L * f5 * f7 + 19L * f6 * f6;
+		long h3 = 2L * f0 * f3 + 2L * f1 * f2 + 38L * f4 * f9 + 38L * f5 * f8 + 38L * f6 * f7;
+		long h4 = 2L * f0 * f4 + 4L * f1 * f3 + f2 * f2 + 76L * f5 * f9 + 38L * f6 * f8 + 38L * f7 * f7;
+		long h5 = 2L * f0 * f5 + 2L * f1 * f4 + 2L * f2 * f3 + 38L * f6 * f9 + 38L * f7 * f8;
+		long h6 = 2L * f0 * f6 + 4L * f1 * f5 + 2L * f2 * f4 + 2L * f3 * f3 + 76L * f7 * f9 + 19L * f8 * f8;
+		long h7 = 2L * f0 * f7 + 2L * f1 * f6 + 2L * f2 * f5 + 2L * f3 * f4 + 38L * f8 * f9;
+		long h8 = 2L * f0 * f8 + 4L * f1 * f7 + 2L * f2 * f6 + 4L * f3 * f5 + f4 * f4 + 38L * f9 * f9;
+		long h9 = 2L * f0 * f9 + 2L * f1 * f8 + 2L * f2 * f7 + 2L * f3 * f6 + 2L * f4 * f5;
+
+		fe_carry(h, h0, h1, h2, h3, h4, h5, h6, h7, h8, h9);
+	}
+
+	static void fe_mul_small(int [] h, int [] f, int c)
+	{
+		fe_carry(h,
+				(long) f[0] * c, (long) f[1] * c, (long) f[2] * c, (long) f[3] * c, (long) f[4] * c,
+				(long) f[5] * c, (long) f[6] * c, (long) f[7] * c, (long) f[8] * c, (long) f[9] * c);
+	}
+
+	private static void fe_sqn(int [] h, int [] f, int n)
+	{
+		fe_sq(h, f);
+		for (int i = 1; i < n; i++) fe_sq(h, h);
+	}
+
+	/*
+	 * @description
+	 *   out = z^(p-2) = 1/z, using t[0..3] as temporaries.
+	 * */
+	static void fe_invert(int [] out, int [] z, int [] t[])
+	{
+		int [] t0 = t[0], t1 = t[1], t2 = t[2], t3 = t[3];
+
+		fe_sq(t0, z);                 // 2
+		fe_sqn(t1, t0, 2);            // 8
+		fe_mul(t1, z, t1);            // 9
+		fe_mul(t0, t0, t1);           // 11
+		fe_sq(t2, t0);                // 22
+		fe_mul(t1, t1, t2);           // 2^5 - 1
+		fe_sqn(t2, t1, 5);
+		fe_mul(t1, t2, t1);           // 2^10 - 1
+		fe_sqn(t2, t1, 10);
+		fe_mul(t2, t2, t1);           // 2^20 - 1
+		fe_sqn(t3, t2, 20);
+		fe_mul(t2, t3, t2);           // 2^40 - 1
+		fe_sqn(t2, t2, 10);
+		fe_mul(t1, t2, t1);           // 2^50 - 1
+		fe_sqn(t2, t1, 50);
+		fe_mul(t2, t2, t1);           // 2^100 - 1
+		fe_sqn(t3, t2, 100);
+		fe_mul(t2, t3, t2);           // 2^200 - 1
+		fe_sqn(t2, t2, 50);
+		fe_mul(t1, t2, t1);           // 2^250 - 1
+		fe_sqn(t1, t1, 5);
+		fe_mul(out, t1, t0);          // 2^255 - 21
+	}
+
+	/*
+	 * @description
+	 *   out = z^((p-5)/8) = z^(2^252-3), using t[0..2] as temporaries.
+	 * */
+	static void fe_pow22523(int [] out, int [] z, int [] t[])
+	{
+		int [] t0 = t[0], t1 = t[1], t2 = t[2];
+
+		fe_sq(t0, z);
+		fe_sqn(t1, t0, 2);
+		fe_mul(t1, z, t1);
+		fe_mul(t0, t0, t1);
+		fe_sq(t0, t0);
+		fe_mul(t0, t1, t0);           // 2^5 - 1
+		fe_sqn(t1, t0, 5);
+		fe_mul(t0, t1, t0);           // 2^10 - 1
+		fe_sqn(t1, t0, 10);
+		fe_mul(t1, t1, t0);           // 2^20 - 1
+		fe_sqn(t2, t1, 20);
+		fe_mul(t1, t2, t1);           // 2^40 - 1
+		fe_sqn(t1, t1, 10);
+		fe_mul(t0, t1, t0);           // 2^50 - 1
+		fe_sqn(t1, t0, 50);
+		fe_mul(t1, t1, t0);           // 2^100 - 1
+		fe_sqn(t2, t1, 100);
+		fe_mul(t1, t2, t1);           // 2^200 - 1
+		fe_sqn(t1, t1, 50);
+		fe_mul(t0, t1, t0);           // 2^250 - 1
+		fe_sqn(t0, t0, 2);
+		fe_mul(out, t0, z);           // 2^252 - 3
+	}
+
+	private static long load_3(byte [] s, int off)
+	{
+		return (s[off]&0xff) | ((long) (s[off+1]&0xff) << 8) | ((long) (s[off+2]&0xff) << 16);
+	}
+
+	private static long load_4(byte [] s, int off)
+	{
+		return load_3(s, off) | ((long) (s[off+3]&0xff) << 24);
+	}
+
+	/*
+	 * @description
+	 *   Reads 32 little-endian bytes, ignoring the top bit.
+	 * */
+	static void fe_frombytes(int [] h, byte [] s,final int soff)
+	{
+		long h0 = load_4(s, soff);
+		long h1 = load_3(s, soff + 4) << 6;
+		long h2 = load_3(s, soff + 7) << 5;
+		long h3 = load_3(s, soff + 10) << 3;
+		long h4 = load_3(s, soff + 13) << 2;
+		long h5 = load_4(s, soff + 16);
+		long h6 = load_3(s, soff + 20) << 7;
+		long h7 = load_3(s, soff + 23) << 5;
+		long h8 = load_3(s, soff + 26) << 4;
+		long h9 = (load_3(s, soff + 29) & 0x7fffff) << 2;
+
+		fe_carry(h, h0, h1, h2, h3, h4, h5, h6, h7, h8, h9);
+	}
+
+	/*
+	 * @description
+	 *   Writes the fully reduced value as 32 little-endian bytes.
+	 * */
+	static void fe_tobytes(byte [] s,final int soff, int [] h)
+	{
+		int h0 = h[0], h1 = h[1], h2 = h[2], h3 = h[3], h4 = h[4];
+		int h5 = h[5], h6 = h[6], h7 = h[7], h8 = h[8], h9 = h[9];
+		int q, carry;
+
+		q = (19 * h9 + (1 << 24)) >> 25;
+		q = (h0 + q) >> 26;
+		q = (h1 + q) >> 25;
+		q = (h2 + q) >> 26;
+		q = (h3 + q) >> 25;
+		q = (h4 + q) >> 26;
+		q = (h5 + q) >> 25;
+		q = (h6 + q) >> 26;
+		q = (h7 + q) >> 25;
+		q = (h8 + q) >> 26;
+		q = (h9 + q) >> 25;
+
+		// h - q*p is now in [0, p)
+		h0 += 19 * q;
+
+		carry = h0 >> 26; h1 += carry; h0 -= carry << 26;
+		carry = h1 >> 25; h2 += carry; h1 -= carry << 25;
+		carry = h2 >> 26; h3 += carry; h2 -= carry << 26;
+		carry = h3 >> 25; h4 += carry; h3 -= carry << 25;
+		carry = h4 >> 26; h5 += carry; h4 -= carry << 26;
+		carry = h5 >> 25; h6 += carry; h5 -= carry << 25;
+		carry = h6 >> 26; h7 += carry; h6 -= carry << 26;
+		carry = h7 >> 25; h8 += carry; h7 -= carry << 25;
+		carry = h8 >> 26; h9 += carry; h8 -= carry << 26;
+		carry = h9 >> 25;               h9 -= carry << 25;
+
+		s[soff]      = (byte) h0;
+		s[soff + 1]  = (byte) (h0 >> 8);
+		s[soff + 2]  = (byte) (h0 >> 16);
+		s[soff + 3]  = (byte) ((h0 >> 24) | (h1 << 2));
+		s[soff + 4]  = (byte) (h1 >> 6);
+		s[soff + 5]  = (byte) (h1 >> 14);
+		s[soff + 6]  = (byte) ((h1 >> 22) | (h2 << 3));
+		s[soff + 7]  = (byte) (h2 >> 5);
+		s[soff + 8]  = (byte) (h2 >> 13);
+		s[soff + 9]  = (byte) ((h2 >> 21) | (h3 << 5));
+		s[soff + 10] = (byte) (h3 >> 3);
+		s[soff + 11] = (byte) (h3 >> 11);
+		s[soff + 12] = (byte) ((h3 >> 19) | (h4 << 6));
+		s[soff + 13] = (byte) (h4 >> 2);
+		s[soff + 14] = (byte) (h4 >> 10);
+		s[soff + 15] = (byte) (h4 >> 18);
+		s[soff + 16] = (byte) h5;
+		s[soff + 17] = (byte) (h5 >> 8);
+		s[soff + 18] = (byte) (h5 >> 16);
+		s[soff + 19] = (byte) ((h5 >> 24) | (h6 << 1));
+		s[soff + 20] = (byte) (h6 >> 7);
+		s[soff + 21] = (byte) (h6 >> 15);
+		s[soff + 22] = (byte) ((h6 >> 23) | (h7 << 3));
+		s[soff + 23] = (byte) (h7 >> 5);
+		s[soff + 24] = (byte) (h7 >> 13);
+		s[soff + 25] = (byte) ((h7 >> 21) | (h8 << 4));
+		s[soff + 26] = (byte) (h8 >> 4);
+		s[soff + 27] = (byte) (h8 >> 12);
+		s[soff + 28] = (byte) ((h8 >> 20) | (h9 << 6));
+		s[soff + 29] = (byte) (h9 >> 2);
+		s[soff + 30] = (byte) (h9 >> 10);
+		s[soff + 31] = (byte) (h9 >> 18);
+	}
+
+	static int fe_isnegative(int [] f, byte [] tmp)
+	{
+		fe_tobytes(tmp,0, f);
+		return tmp[0] & 1;
+	}
+
+	static boolean fe_iszero(int [] f, byte [] tmp)
+	{
+		int d = 0;
+
+		fe_tobytes(tmp,0, f);
+		for (int i = 0; i < 32; i++) d |= tmp[i];
+		return d == 0;
+	}
+
+	/*
+	 * @description
+	 *   Replaces f with g if b is 1, keeps it if b is 0.
+	 * */
+	static void fe_cmov(int [] f, int [] g, int b)
+	{
+		int mask = -b;
+		for (int i = 0; i < 10; i++) f[i] ^= mask & (f[i] ^ g[i]);
+	}
+
+	static void fe_cswap(int [] f, int [] g, int b)
+	{
+		int mask = -b;
+		for (int i = 0; i < 10; i++) {
+			int x = mask & (f[i] ^ g[i]);
+			f[i] ^= x;
+			g[i] ^= x;
+		}
+	}
+
+	/*
+	 * @description
+	 *   Per-thread temporaries, so that no call allocates.
+	 * */
+	static final class Scratch {
+		final int [] [] fe = new int [10] [10];
+		final int [] [] p = new int [4] [10];
+		final int [] [] t = new int [4] [10];
+		final byte [] digits = new byte[64];
+		final byte [] entry = new byte[BaseTable.POINT_BYTES];
+		final byte [] bytes = new byte[32];
+
+		/*
+		 * @description
+		 *   Zeroes everything a secret scalar has passed through: the
+		 *   digits, the selected table entries and the points and field
+		 *   elements derived from them.
+		 * */
+		void wipe() {
+			for (int k = 0; k < fe.length; k++) Arrays.fill(fe[k], 0);
+			for (int k = 0; k < 4; k++) {
+				Arrays.fill(p[k], 0);
+				Arrays.fill(t[k], 0);
+			}
+			Arrays.fill(digits, (byte) 0);
+			Arrays.fill(entry, (byte) 0);
+			Arrays.fill(bytes, (byte) 0);
+		}
+	}
+
+	private static final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+
+	/*
+	 * @description
+	 *   Points in extended coordinates (X, Y, Z, T) with x = X/Z, y = Y/Z
+	 *   and xy = T/Z. r = p + q, using the same unified formula as
+	 *   TweetNaclFast.add; r may alias p or q.
+	 * */
+	static void ge_add(int [] r[], int [] p[], int [] q[], int [] t[])
+	{
+		int [] a = t[0], b = t[1], c = t[2], d = t[3];
+		int [] e = t[4], f = t[5], g = t[6], h = t[7];
+
+		fe_sub(a, p[1], p[0]);
+		fe_sub(h, q[1], q[0]);
+		fe_mul(a, a, h);
+		fe_add(b, p[0], p[1]);
+		fe_add(h, q[0], q[1]);
+		fe_mul(b, b, h);
+		fe_mul(c, p[3], q[3]);
+		fe_mul(c, c, D2);
+		fe_mul(d, p[2], q[2]);
+		fe_add(d, d, d);
+
+		fe_sub(e, b, a);
+		fe_sub(f, d, c);
+		fe_add(g, d, c);
+		fe_add(h, b, a);
+
+		fe_mul(r[0], e, f);
+		fe_mul(r[1], h, g);
+		fe_mul(r[2], g, f);
+		fe_mul(r[3], e, h);
+	}
+
+	/*
+	 * @description
+	 *   r = 2p with four squarings and four multiplications; r may alias p.
+	 * */
+	static void ge_dbl(int [] r[], int [] p[], int [] t[])
+	{
+		int [] a = t[0], b = t[1], c = t[2], e = t[3];
+		int [] f = t[4], g = t[5], h = t[6];
+
+		fe_sq(a, p[0]);
+		fe_sq(b, p[1]);
+		fe_sq(c, p[2]);
+		fe_add(c, c, c);
+		fe_add(e, p[0], p[1]);
+		fe_sq(e, e);
+		fe_sub(e, e, a);
+		fe_sub(e, e, b);
+
+		// with a = -1: G = B - A, F = G - C, H = -A - B
+		fe_sub(g, b, a);
+		fe_sub(f, g, c);
+		fe_add(h, a, b);
+		fe_neg(h, h);
+
+		fe_mul(r[0], e, f);
+		fe_mul(r[1], g, h);
+		fe_mul(r[3], e, h);
+		fe_mul(r[2], f, g);
+	}
+
+	static void ge_identity(int [] p[])
+	{
+		fe_0(p[0]);
+		fe_1(p[1]);
+		fe_1(p[2]);
+		fe_0(p[3]);
+	}
+
+	/*
+	 * @description
+	 *   Encodes p as y with the sign of x in the top bit.
+	 * */
+	static void ge_pack(byte [] s,final int soff, int [] p[], int [] t[], byte [] tmp)
+	{
+		int [] zi = t[4], x = t[5], y = t[6];
+
+		fe_invert(zi, p[2], t);
+		fe_mul(x, p[0], zi);
+		fe_mul(y, p[1], zi);
+
+		fe_tobytes(s,soff, y);
+		s[soff + 31] ^= fe_isnegative(x, tmp) << 7;
+	}
+
+	/*
+	 * @description
+	 *   Fixed-base table for the base point B. Row i holds 1*256^i*B up to
+	 *   8*256^i*B, each coordinate packed to 32 bytes. Building it costs about
+	 *   one scalar multiplication, so it is built on first use (the holder
+	 *   class keeps that lazy and thread-safe) rather than persisted.
+	 * */
+	static final class BaseTable {
+		static final int ROWS = 32;
+		static final int ENTRIES = 8;
+		static final int POINT_BYTES = 4 * 32;
+
+		static final byte [] TABLE = build();
+
+		private static byte [] build() {
+			byte [] table = new byte[ROWS * ENTRIES * POINT_BYTES];
+			int [] [] row = new int [4] [10];
+			int [] [] acc = new int [4] [10];
+			int [] [] t = new int [8] [10];
+			int i, j, k;
+
+			fe_copy(row[0], BX);
+			fe_copy(row[1], BY);
+			fe_1(row[2]);
+			fe_mul(row[3], BX, BY);
+
+			for (i = 0; i < ROWS; i++) {
+				for (k = 0; k < 4; k++) fe_copy(acc[k], row[k]);
+
+				for (j = 0; j < ENTRIES; j++) {
+					int off = (i * ENTRIES + j) * POINT_BYTES;
+					for (k = 0; k < 4; k++) fe_tobytes(table, off + k * 32, acc[k]);
+					if (j < ENTRIES - 1) ge_add(acc, acc, row, t);
+				}
+
+				// next row is 256 times this one
+				for (k = 0; k < 8; k++) ge_dbl(row, row, t);
+			}
+
+			return table;
+		}
+	}
+
+	/*
+	 * @description
+	 *   Loads b*256^pos*B into t, for b in [-8, 8], touching every entry of
+	 *   the row so that neither the index nor the sign leaks through timing.
+	 * */
+	private static void selectBase(int [] t[], byte [] entry, int [] neg, int pos, int b)
+	{
+		int bneg = (b >>> 31) & 1;
+		int babs = b - (((-bneg) & b) << 1);
+		int j, k;
+
+		// start from the neutral element (0, 1, 1, 0)
+		for (k = 0; k < BaseTable.POINT_BYTES; k++) entry[k] = 0;
+		entry[32] = 1;
+		entry[64] = 1;
+
+		for (j = 0; j < BaseTable.ENTRIES; j++) {
+			int mask = -(((babs ^ (j + 1)) - 1) >>> 31);
+			int off = (pos * BaseTable.ENTRIES + j) * BaseTable.POINT_BYTES;
+			for (k = 0; k < BaseTable.POINT_BYTES; k++)
+				entry[k] ^= (byte) (mask & (entry[k] ^ BaseTable.TABLE[off + k]));
+		}
+
+		for (k = 0; k < 4; k++) fe_frombytes(t[k], entry, k * 32);
+
+		// -(x, y, z, t) = (-x, y, z, -t)
+		fe_neg(neg, t[0]);
+		fe_cmov(t[0], neg, bneg);
+		fe_neg(neg, t[3]);
+		fe_cmov(t[3], neg, bneg);
+	}
+
+	/*
+	 * @description
+	 *   p = s*B with signed radix-16 digits: 64 table additions and 4
+	 *   doublings. Requires s[31] <= 127, which holds for clamped secret keys
+	 *   and for scalars reduced mod L.
+	 * */
+	private static void scalarmult_base(int [] p[], byte [] s,final int soff, Scratch sc)
+	{
+		byte [] e = sc.digits;
+		int i, carry;
+
+		for (i = 0; i < 32; i++) {
+			e[2*i] = (byte) (s[i+soff] & 15);
+			e[2*i+1] = (byte) ((s[i+soff] >>> 4) & 15);
+		}
+
+		// recode every digit into [-8, 8)
+		carry = 0;
+		for (i = 0; i < 63; i++) {
+			e[i] += carry;
+			carry = (e[i] + 8) >> 4;
+			e[i] -= carry << 4;
+		}
+		e[63] += carry;
+
+		ge_identity(p);
+
+		for (i = 1; i < 64; i += 2) {
+			selectBase(sc.t, sc.entry, sc.fe[9], i/2, e[i]);
+			ge_add(p, p, sc.t, sc.fe);
+		}
+
+		ge_dbl(p, p, sc.fe);
+		ge_dbl(p, p, sc.fe);
+		ge_dbl(p, p, sc.fe);
+		ge_dbl(p, p, sc.fe);
+
+		for (i = 0; i < 64; i += 2) {
+			selectBase(sc.t, sc.entry, sc.fe[9], i/2, e[i]);
+			ge_add(p, p, sc.t, sc.fe);
+		}
+	}
+
+	/*
+	 * @description
+	 *   Writes the encoding of s*B to r[roff..roff+32).
+	 * */
+	static void scalarbase(byte [] r,final int roff, byte [] s,final int soff)
+	{
+		Scratch sc = scratch.get();
+
+		try {
+			scalarmult_base(sc.p, s,soff, sc);
+			ge_pack(r,roff, sc.p, sc.fe, sc.bytes);
+		} finally {
+			sc.wipe();
+		}
+	}
+
+	/*
+	 * @description
+	 *   Writes s*B in extended coordinates, X, Y, Z and T packed to 32 bytes
+	 *   each, to r[0..128).
+	 * */
+	static void scalarbase_coords(byte [] r, byte [] s,final int soff)
+	{
+		Scratch sc = scratch.get();
+
+		try {
+			scalarmult_base(sc.p, s,soff, sc);
+			for (int k = 0; k < 4; k++) fe_tobytes(r, k * 32, sc.p[k]);
+		} finally {
+			sc.wipe();
+		}
+	}
+
+	/*
+	 * @description
+	 *   Returns true if p[poff..poff+32) decodes to a curve point, that is
+	 *   (y^2 - 1) / (d*y^2 + 1) has a square root. The sign bit is ignored,
+	 *   as in TweetNaclFast.is_on_curve. Runs in variable time and does not
+	 *   allocate.
+	 * */
+	static boolean is_on_curve(byte [] p,final int poff)
+	{
+		Scratch sc = scratch.get();
+		int [] [] fe = sc.fe;
+		int [] y = fe[3], u = fe[4], v = fe[5], v3 = fe[6], x = fe[7], chk = fe[8];
+
+		fe_frombytes(y, p,poff);
+		fe_sq(u, y);
+		fe_mul(v, u, D);
+		fe_sub(u, u, ONE);
+		fe_add(v, v, ONE);
+
+		// x = u*v^3 * (u*v^7)^((p-5)/8)
+		fe_sq(v3, v);
+		fe_mul(v3, v3, v);
+		fe_sq(x, v3);
+		fe_mul(x, x, v);
+		fe_mul(x, x, u);
+		fe_pow22523(x, x, fe);
+		fe_mul(x, x, v3);
+		fe_mul(x, x, u);
+
+		// x is a root when v*x^2 = u, or when v*x^2 = -u and x*sqrt(-1) is
+		fe_sq(chk, x);
+		fe_mul(chk, chk, v);
+		fe_sub(y, chk, u);
+		if (fe_iszero(y, sc.bytes)) return true;
+		fe_add(y, chk, u);
+		return fe_iszero(y, sc.bytes);
+	}
+
+	/*
+	 * @description
+	 *   X25519: q = n*p on the Montgomery curve, with the Montgomery ladder
+	 *   of RFC 7748 and the clamping of crypto_scalarmult.
+	 * */
+	static void x25519(byte [] q, byte [] n, byte [] p)
+	{
+		Scratch sc = scratch.get();
+		int [] [] fe = sc.fe;
+		int [] x1 = fe[0], x2 = fe[1], z2 = fe[2], x3 = fe[3], z3 = fe[4];
+		int [] a = fe[5], b = fe[6], c = fe[7], d = fe[8], e = fe[9];
+		int [] aa = sc.t[0], bb = sc.t[1], da = sc.t[2], cb = sc.t[3];
+		byte [] z = sc.digits;
+		int i, swap, bit;
+
+		try {
+			for (i = 0; i < 31; i++) z[i] = n[i];
+			z[31] = (byte) ((n[31]&127)|64);
+			z[0] &= 248;
+
+			fe_frombytes(x1, p,0);
+			fe_1(x2);
+			fe_0(z2);
+			fe_copy(x3, x1);
+			fe_1(z3);
+
+			swap = 0;
+			for (i = 254; i >= 0; i--) {
+				bit = (z[i >>> 3] >>> (i & 7)) & 1;
+				swap ^= bit;
+				fe_cswap(x2, x3, swap);
+				fe_cswap(z2, z3, swap);
+				swap = bit;
+
+				fe_add(a, x2, z2);
+				fe_sq(aa, a);
+				fe_sub(b, x2, z2);
+				fe_sq(bb, b);
+				fe_sub(e, aa, bb);
+				fe_add(c, x3, z3);
+				fe_sub(d, x3, z3);
+				fe_mul(da, d, a);
+				fe_mul(cb, c, b);
+
+				fe_add(x3, da, cb);
+				fe_sq(x3, x3);
+				fe_sub(z3, da, cb);
+				fe_sq(z3, z3);
+				fe_mul(z3, z3, x1);
+				fe_mul(x2, aa, bb);
+				fe_mul_small(z2, e, 121665);
+				fe_add(z2, z2, aa);
+				fe_mul(z2, z2, e);
+			}
+
+			fe_cswap(x2, x3, swap);
+			fe_cswap(z2, z3, swap);
+
+			fe_invert(z2, z2, sc.t);
+			fe_mul(x2, x2, z2);
+			fe_tobytes(q,0, x2);
+		} finally {
+			sc.wipe();
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package org.p2p.solanaj.utils;
+
+import banki.util.Arrays;
+
+/**
+ * Incremental SHA-256 whose midstate can be copied into another instance
+ * without allocating, so a shared prefix is hashed once and then extended
+ * with different suffixes.
+ */
+public final class Sha256 {
+
+    public static final int HASH_LENGTH = 32;
+
+    private static final int[] K = {
+        0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+        0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+        0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+        0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+        0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+        0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+        0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+        0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+    };
+
+    private final int[] h = new int[8];
+    private final int[] w = new int[64];
+    private final byte[] block = new byte[64];
+    private int used;
+    private long length;
+
+    public Sha256() {
+        reset();
+    }
+
+    public void reset() {
+        h[0] = 0x6a09e667;
+        h[1] = 0xbb67ae85;
+        h[2] = 0x3c6ef372;
+        h[3] = 0xa54ff53a;
+        h[4] = 0x510e527f;
+        h[5] = 0x9b05688c;
+        h[6] = 0x1f83d9ab;
+        h[7] = 0x5be0cd19;
+        used = 0;
+        length = 0;
+    }
+
+    /**
+     * Makes this hash continue from the state of another one.
+     */
+    public void set(Sha256 other) {
+        System.arraycopy(other.h, 0, h, 0, 8);
+        System.arraycopy(other.block, 0, block, 0, other.used);
+        used = other.used;
+        length = other.length;
+    }
+
+    public Sha256 copy() {
+        Sha256 c = new Sha256();
+        c.set(this);
+        return c;
+    }
+
+    public void update(byte b) {
+        block[used++] = b;
+        length++;
+        if (used == 64) {
+            compress(block, 0);
+            used = 0;
+        }
+    }
+
+    public void update(byte[] m) {
+        update(m, 0, m.length);
+    }
+
+    public void update(byte[] m, int off, int len) {
+        length += len;
+
+        if (used > 0) {
+            int take = Math.min(len, 64 - used);
+            System.arraycopy(m, off, block, used, take);
+            used += take;
+            off += take;
+            len -= take;
+            if (used < 64) {
+                return;
+            }
+            compress(block, 0);
+            used = 0;
+        }
+
+        while (len >= 64) {
+            compress(m, off);
+            off += 64;
+            len -= 64;
+        }
+
+        System.arraycopy(m, off, block, 0, len);
+        used = len;
+    }
+
+    /**
+     * Writes the 32-byte hash to out[off..] and resets.
+     */
+    public void digest(byte[] out, int off) {
+        long bits = length << 3;
+
+        block[used++] = (byte) 0x80;
+        if (used > 56) {
+            Arrays.fill(block, used, 64, (byte) 0);
+            compress(block, 0);
+            used = 0;
+        }
+        Arrays.fill(block, used, 56, (byte) 0);
+        for (int i = 0; i < 8; i++) {
+            block[63 - i] = (byte) (bits >>> (8 * i));
+        }
+        compress(block, 0);
+
+        for (int i = 0; i < 8; i++) {
+            out[off + 4 * i] = (byte) (h[i] >>> 24);
+            out[off + 4 * i + 1] = (byte) (h[i] >>> 16);
+            out[off + 4 * i + 2] = (byte) (h[i] >>> 8);
+            out[off + 4 * i + 3] = (byte) h[i];
+        }
+
+        reset();
+    }
+
+    public byte[] digest() {
+        byte[] out = new byte[HASH_LENGTH];
+        digest(out, 0);
+        return out;
+    }
+
+    private void compress(byte[] m, int off) {
+        int i;
+
+        for (i = 0; i < 16; i++, off += 4) {
+            w[i] = (m[off] << 24) | ((m[off + 1] & 0xff) << 16) | ((m[off + 2] & 0xff) << 8) | (m[off + 3] & 0xff);
+        }
+        for (i = 16; i < 64; i++) {
+            int x = w[i - 15];
+            int y = w[i - 2];
+            int s0 = Integer.rotateRight(x, 7) ^ Integer.rotateRight(x, 18) ^ (x >>> 3);
+            int s1 = Integer.rotateRight(y, 17) ^ Integer.rotateRight(y, 19) ^ (y >>> 10);
+            w[i] = w[i - 16] + s0 + w[i - 7] + s1;
+        }
+
+        int a = h[0], b = h[1], c = h[2], d = h[3];
+        int e = h[4], f = h[5], g = h[6], hh = h[7];
+
+        for (i = 0; i < 64; i++) {
+            int t1 = hh + (Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25))
+                    + ((e & f) ^ (~e & g)) + K[i] + w[i];
+            int t2 = (Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22))
+                    + ((a & b) ^ (a & c) ^ (b & c));
+            hh = g;
+            g = f;
+            f = e;
+            e = d + t1;
+            d = c;
+            c = b;
+            b = a;
+            a = t1 + t2;
+        }
+
+        h[0] += a;
+        h[1] += b;
+        h[2] += c;
+        h[3] += d;
+        h[4] += e;
+        h[5] += f;
+        h[6] += g;
+        h[7] += hh;
+    }
+
+}
@@ -27,4 +27,60 @@ public class ShortvecEncoding {
 
         return bytes;
     }
+
+    /**
+     * Returns the number of bytes {@code len} takes once encoded.
+     */
+    public static int encodedLength(int len) {
+        int size = 1;
+        for (int remLen = len >>> 7; remLen != 0; remLen >>>= 7) {
+            size++;
+        }
+
+        return size;
+    }
+
+    /**
+     * Encodes {@code len} into {@code out} at {@code offset} and returns the
+     * offset just past it.
+     */
+    public static int encodeLength(int len, byte[] out, int offset) {
+        int remLen = len;
+
+        while ((remLen & ~0x7f) != 0) {
+            out[offset++] = (byte) ((remLen & 0x7f) | 0x80);
+            remLen >>>= 7;
+        }
+        out[offset++] = (byte) remLen;
+
+        return offset;
+    }
+
+    /**
+     * Decodes the length at {@code offset}; it occupies
+     * {@link #encodedLength(int)} bytes.
+     *
+     * @throws IllegalArgumentException if it is truncated, not minimal or
+     *                                  longer than three bytes
+     */
+    public static int decodeLength(byte[] in, int offset) {
+        int len = 0;
+
+        for (int size = 0; size < 3; size++) {
+            if (offset + size >= in.length) {
+                throw new IllegalArgumentException("Truncated length");
+            }
+
+            int elem = in[offset + size] & 0xff;
+            len |= (elem & 0x7f) << (size * 7);
+            if ((elem & 0x80) == 0) {
+                if (encodedLength(len) != size + 1) {
+                    throw new IllegalArgumentException("Invalid length");
+                }
+                return len;
+            }
+        }
+
+        throw new IllegalArgumentException("Invalid length");
+    }
 }
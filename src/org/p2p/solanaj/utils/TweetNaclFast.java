@@ -7,6 +7,8 @@ package org.p2p.solanaj.utils;
 import banki.io.UnsupportedEncodingException;
 import banki.security.SecureRandom;
 import banki.lang.System;
+import banki.lang.ThreadLocal;
+import banki.util.Arrays;
 import banki.util.concurrent.atomic.AtomicLong;
 
 /*
@@ -678,6 +680,149 @@ public final class TweetNaclFast {
 
 	}
 
+	/*
+	 * @description
+	 *   Incremental SHA-512. Whole blocks are hashed straight from the
+	 *   caller's array and only a trailing partial block is buffered, so large
+	 *   or scattered inputs need not be concatenated first. copy() clones the
+	 *   midstate, letting a shared prefix be hashed once.
+	 * */
+	public static final class Sha512 {
+
+		private final int [] hh = new int[8];
+		private final int [] hl = new int[8];
+		private final int [] wh = new int[16];
+		private final int [] wl = new int[16];
+		private final byte [] block = new byte[256];
+		private int used;
+		private long length;
+
+		public Sha512() {
+			reset();
+		}
+
+		public void reset() {
+			hh[0] = 0x6a09e667;
+			hh[1] = 0xbb67ae85;
+			hh[2] = 0x3c6ef372;
+			hh[3] = 0xa54ff53a;
+			hh[4] = 0x510e527f;
+			hh[5] = 0x9b05688c;
+			hh[6] = 0x1f83d9ab;
+			hh[7] = 0x5be0cd19;
+
+			hl[0] = 0xf3bcc908;
+			hl[1] = 0x84caa73b;
+			hl[2] = 0xfe94f82b;
+			hl[3] = 0x5f1d36f1;
+			hl[4] = 0xade682d1;
+			hl[5] = 0x2b3e6c1f;
+			hl[6] = 0xfb41bd6b;
+			hl[7] = 0x137e2179;
+
+			used = 0;
+			length = 0;
+		}
+
+		public void update(byte b) {
+			block[used++] = b;
+			length++;
+
+			if (used == 128) {
+				crypto_hashblocks_hl(hh, hl, block,0, 128, wh, wl);
+				used = 0;
+			}
+		}
+
+		public void update(byte [] m) {
+			update(m, 0, m.length);
+		}
+
+		public void update(byte [] m,int moff, int n) {
+			length += n;
+
+			if (used > 0) {
+				int take = Math.min(n, 128 - used);
+				System.arraycopy(m, moff, block, used, take);
+				used += take;
+				moff += take;
+				n -= take;
+
+				if (used < 128) return;
+				crypto_hashblocks_hl(hh, hl, block,0, 128, wh, wl);
+				used = 0;
+			}
+
+			if (n >= 128) {
+				int full = n & ~127;
+				crypto_hashblocks_hl(hh, hl, m,moff, full, wh, wl);
+				moff += full;
+				n -= full;
+			}
+
+			System.arraycopy(m, moff, block, 0, n);
+			used = n;
+		}
+
+		/*
+		 * @description
+		 *   Writes the 64-byte hash to out[off..] and resets.
+		 * */
+		public void digest(byte [] out,final int off) {
+			int i;
+			long u;
+
+			for (i = used; i < 256; i++) block[i] = 0;
+			block[used] = (byte) 128;
+
+			int n = 256-128*(used<112?1:0);
+			ts64(block, n-8, length << 3);
+
+			crypto_hashblocks_hl(hh, hl, block,0, n, wh, wl);
+
+			for (i = 0; i < 8; i++) {
+				u = hh[i]; u <<= 32; u |= hl[i]&0xffffffffL;
+				ts64(out, off + 8*i, u);
+			}
+
+			reset();
+		}
+
+		public byte [] digest() {
+			byte [] out = new byte[Hash.hashLength];
+			digest(out, 0);
+			return out;
+		}
+
+		/*
+		 * @description
+		 *   Returns an independent hash with the same midstate.
+		 * */
+		public Sha512 copy() {
+			Sha512 c = new Sha512();
+
+			System.arraycopy(hh, 0, c.hh, 0, 8);
+			System.arraycopy(hl, 0, c.hl, 0, 8);
+			System.arraycopy(block, 0, c.block, 0, used);
+			c.used = used;
+			c.length = length;
+
+			return c;
+		}
+
+		/*
+		 * @description
+		 *   Clears buffered input and message schedule, for secret inputs.
+		 * */
+		public void wipe() {
+			Arrays.fill(block, (byte) 0);
+			Arrays.fill(wh, 0);
+			Arrays.fill(wl, 0);
+			reset();
+		}
+
+	}
+
 
 	/*
 	 * @description 
@@ -689,12 +834,62 @@ public final class TweetNaclFast {
 
 		private byte [] theirPublicKey;
 		private byte [] mySecretKey;
+		private byte [] expandedKey;
 
 		public Signature(byte [] theirPublicKey, byte [] mySecretKey) {
 			this.theirPublicKey = theirPublicKey;
 			this.mySecretKey = mySecretKey;
 		}
 
+		/*
+		 * @description
+		 *   Signs message[moff..moff+mlen) and writes the 64-byte signature to
+		 *   signature[sigoff..]. The expanded secret key is computed once and
+		 *   kept until wipe(), so repeated signing allocates nothing.
+		 * */
+		public void detached(byte [] message, final int moff, final int mlen, byte [] signature, final int sigoff) {
+			if (!(message!=null && moff>=0 && mlen>=0 && message.length>=(moff+mlen)))
+				throw new IllegalArgumentException("Invalid message range");
+			if (!(signature!=null && sigoff>=0 && signature.length>=(sigoff+signatureLength)))
+				throw new IllegalArgumentException("Signature buffer too small");
+
+			byte [] ek = expandedKey;
+			if (ek == null) {
+				ek = crypto_sign_expand(mySecretKey);
+				expandedKey = ek;
+			}
+
+			crypto_sign_detached(signature, sigoff, message, moff, mlen, ek, mySecretKey, 32);
+		}
+
+		/*
+		 * @description
+		 *   Verifies signature[sigoff..sigoff+64) for message[moff..moff+mlen)
+		 *   without copying either.
+		 * */
+		public boolean detached_verify(byte [] message, final int moff, final int mlen, byte [] signature, final int sigoff) {
+			if (!(message!=null && moff>=0 && mlen>=0 && message.length>=(moff+mlen)))
+				return false;
+			if (!(signature!=null && sigoff>=0 && signature.length>=(sigoff+signatureLength)))
+				return false;
+			if (theirPublicKey.length != publicKeyLength)
+				return false;
+
+			return crypto_verify_detached(signature, sigoff, message, moff, mlen, theirPublicKey) == 0;
+		}
+
+		/*
+		 * @description
+		 *   Zeroes the cached expanded secret key.
+		 * */
+		public void wipe() {
+			byte [] ek = expandedKey;
+			expandedKey = null;
+
+			if (ek != null)
+				Arrays.fill(ek, (byte) 0);
+		}
+
 		/*
 		 * @description
 		 *   Signs the message using the secret key and returns a signed message.
@@ -761,10 +956,8 @@ public final class TweetNaclFast {
 		 *   Signs the message using the secret key and returns a signature.
 		 * */
 		public byte [] detached(byte [] message) {
-			byte[] signedMsg = this.sign(message);
 			byte[] sig = new byte[signatureLength];
-			for (int i = 0; i < sig.length; i++)
-				sig[i] = signedMsg[i];
+			detached(message, 0, message.length, sig, 0);
 			return sig;
 		}
 
@@ -787,6 +980,42 @@ public final class TweetNaclFast {
 			return (crypto_sign_open(m, -1, sm, 0, sm.length, theirPublicKey) >= 0);
 		}
 
+		/*
+		 * @description
+		 *   Verifies many detached signatures at once, each against its own
+		 *   message and public key, and returns which of them are valid.
+		 *   Every entry is judged by the cofactored equation, whether it
+		 *   passes as part of a batch or is rechecked alone after its batch
+		 *   failed, so its verdict does not depend on the other entries. A
+		 *   signature that only differs from a valid one by a small-order
+		 *   component therefore passes here even though detached_verify,
+		 *   which is cofactorless, rejects it; honest signers never produce
+		 *   those.
+		 * */
+		public static boolean [] detached_verify_batch(byte [][] messages, byte [][] signatures, byte [][] publicKeys) {
+			if (messages.length != signatures.length || messages.length != publicKeys.length)
+				throw new IllegalArgumentException("messages, signatures and public keys must have the same length");
+
+			boolean [] valid = new boolean[messages.length];
+
+			for (int start = 0; start < messages.length; start += verifyBatchSize) {
+				int end = Math.min(messages.length, start + verifyBatchSize);
+
+				if (crypto_sign_verify_batch(messages, signatures, publicKeys, start, end, valid))
+					continue;
+
+				// a batch of one, so the recheck uses the same equation
+				for (int i = start; i < end; i++) {
+					if (valid[i]) {
+						boolean ok = crypto_sign_verify_batch(messages, signatures, publicKeys, i, i + 1, valid);
+						valid[i] = valid[i] && ok;
+					}
+				}
+			}
+
+			return valid;
+		}
+
 		/*
 		 * @description
 		 *   Generates new random key pair for signing and 
@@ -874,6 +1103,12 @@ public final class TweetNaclFast {
 		 *   Length of signature in bytes.
 		 * */
 		public static final int signatureLength = 64;
+
+		/*
+		 * @description
+		 *   Number of signatures checked by one multi-scalar multiplication.
+		 * */
+		public static final int verifyBatchSize = 32;
 	}
 
 
@@ -1930,9 +2165,12 @@ public final class TweetNaclFast {
 	}
 
 	private static void pack25519(byte [] o, long [] n,final int noff)
+	{
+		pack25519(o,0, n,noff, new long[16], new long[16]);
+	}
+	private static void pack25519(byte [] o,final int ooff, long [] n,final int noff, long [] m, long [] t)
 	{
 		int i, j, b;
-		long [] m = new long[16], t = new long[16];
 		for (i = 0; i < 16; i++) t[i] = n[i+noff];
 		car25519(t);
 		car25519(t);
@@ -1949,8 +2187,8 @@ public final class TweetNaclFast {
 			sel25519(t,0, m,0, 1-b);
 		}
 		for (i = 0; i < 16; i++) {
-			o[2*i] = (byte) (t[i] & 0xff);
-			o[2*i+1] = (byte) (t[i]>>8);
+			o[2*i+ooff] = (byte) (t[i] & 0xff);
+			o[2*i+1+ooff] = (byte) (t[i]>>8);
 		}
 	}
 	
@@ -1959,9 +2197,13 @@ public final class TweetNaclFast {
 	}
 	private static int neq25519(long [] a,final int aoff, long [] b,final int boff)
 	{
-		byte [] c = new byte[32], d = new byte[32];
-		pack25519(c, a,aoff);
-		pack25519(d, b,boff);
+		return neq25519(a,aoff, b,boff, new byte[32], new byte[32], new long[16], new long[16]);
+	}
+	private static int neq25519(long [] a,final int aoff, long [] b,final int boff,
+			byte [] c, byte [] d, long [] m, long [] t)
+	{
+		pack25519(c,0, a,aoff, m, t);
+		pack25519(d,0, b,boff, m, t);
 		return crypto_verify_32(c, 0, d, 0);
 	}
 	
@@ -1971,15 +2213,22 @@ public final class TweetNaclFast {
 	}
 	private static byte par25519(long [] a,final int aoff)
 	{
-		byte [] d = new byte[32];
-		pack25519(d, a,aoff);
+		return par25519(a,aoff, new byte[32], new long[16], new long[16]);
+	}
+	private static byte par25519(long [] a,final int aoff, byte [] d, long [] m, long [] t)
+	{
+		pack25519(d,0, a,aoff, m, t);
 		return (byte) (d[0] & 1);
 	}
 
 	private static void unpack25519(long [] o, byte [] n)
+	{
+		unpack25519(o, n,0);
+	}
+	private static void unpack25519(long [] o, byte [] n,final int noff)
 	{
 		int i;
-		for (i = 0; i < 16; i ++) o[i]=(n[2*i]&0xff)+((long)((n[2*i+1]<<8)&0xffff));
+		for (i = 0; i < 16; i ++) o[i]=(n[2*i+noff]&0xff)+((long)((n[2*i+1+noff]<<8)&0xffff));
 		o[15] &= 0x7fff;
 	}
 	
@@ -2414,7 +2663,13 @@ public final class TweetNaclFast {
 			long [] o,final int ooff,
 			long [] i,final int ioff)
 	{
-		  long [] c = new long[16];
+		inv25519(o,ooff, i,ioff, new long[16]);
+	}
+	private static void inv25519(
+			long [] o,final int ooff,
+			long [] i,final int ioff,
+			long [] c)
+	{
 		  int a;
 		  for (a = 0; a < 16; a++) c[a] = i[a+ioff];
 		  for (a = 253; a >= 0; a--) {
@@ -2426,7 +2681,10 @@ public final class TweetNaclFast {
 
 	private static void pow2523(long [] o,long [] i)
 	{
-		long [] c = new long[16];
+		pow2523(o, i, new long[16]);
+	}
+	private static void pow2523(long [] o,long [] i, long [] c)
+	{
 		int a;
 		
 		for (a = 0; a < 16; a ++) c[a]=i[a];
@@ -2439,59 +2697,16 @@ public final class TweetNaclFast {
 		for (a = 0; a < 16; a ++) o[a]=c[a];
 	}
 
+	/*
+	 * @description
+	 *   Runs on the radix-2^25.5 field engine in Curve25519.
+	 * */
 	public static int crypto_scalarmult(byte []q,byte []n,byte []p)
 	{
-		byte [] z = new byte[32];
-		long [] x = new long[80];
-		int r, i;
-		long [] a = new long[16], b = new long[16], c = new long[16],
-				d = new long[16], e = new long[16], f = new long[16];
-		for (i = 0; i < 31; i++) z[i] = n[i];
-		z[31]=(byte) (((n[31]&127)|64) & 0xff);
-		z[0]&=248;
-		unpack25519(x,p);
-		for (i = 0; i < 16; i++) {
-			b[i]=x[i];
-			d[i]=a[i]=c[i]=0;
-		}
-		a[0]=d[0]=1;
-		for (i=254;i>=0;--i) {
-			r=(z[i>>>3]>>>(i&7))&1;
-			sel25519(a,b,r);
-			sel25519(c,d,r);
-			A(e,a,c);
-			Z(a,a,c);
-			A(c,b,d);
-			Z(b,b,d);
-			S(d,e);
-			S(f,a);
-			M(a,c,a);
-			M(c,b,e);
-			A(e,a,c);
-			Z(a,a,c);
-			S(b,a);
-			Z(c,d,f);
-			M(a,c,_121665);
-			A(a,a,d);
-			M(c,c,a);
-			M(a,d,f);
-			M(d,b,x);
-			S(b,e);
-			sel25519(a,b,r);
-			sel25519(c,d,r);
-		}
-		for (i = 0; i < 16; i++) {
-			x[i+16]=a[i];
-			x[i+32]=c[i];
-			x[i+48]=b[i];
-			x[i+64]=d[i];
-		}
-		inv25519(x,32, x,32);
-		M(x,16, x,16, x,32);
-		pack25519(q, x,16);
-		
+		Curve25519.x25519(q, n, p);
+
 		return 0;
-}
+	}
 
 	public static int crypto_scalarmult_base(byte []q,byte []n)
 	{ 
@@ -2575,12 +2790,15 @@ public final class TweetNaclFast {
 	};
 
 	private static int crypto_hashblocks_hl(int [] hh,int [] hl, byte [] m,final int moff, int n) {
+		return crypto_hashblocks_hl(hh, hl, m,moff, n, new int[16], new int[16]);
+	}
+	private static int crypto_hashblocks_hl(int [] hh,int [] hl, byte [] m,final int moff, int n,
+			int [] wh, int [] wl) {
 		
 		///String dbgt = "";
 		///for (int dbg = 0; dbg < n; dbg ++) dbgt += " "+m[dbg+moff];
 		///Log.d(TAG, "crypto_hashblocks_hl m/"+n + "-> "+dbgt);
 		
-		int []  wh = new int[16], wl = new int[16];
 		int     bh0, bh1, bh2, bh3, bh4, bh5, bh6, bh7,
 		        bl0, bl1, bl2, bl3, bl4, bl5, bl6, bl7,
 	  	        th, tl, h, l, i, j, a, b, c, d;
@@ -3010,15 +3228,19 @@ public final class TweetNaclFast {
 	///private static void add(gf p[4],gf q[4])
 	private static void add(long [] p[], long [] q[])
 	{
-		long [] a = new long[16];
-		long [] b = new long[16];
-		long [] c = new long[16];
-		long [] d = new long[16];
-		long [] t = new long[16];
-		long [] e = new long[16];
-		long [] f = new long[16];
-		long [] g = new long[16];
-		long [] h = new long[16];
+		add(p, q, new long [9] [16]);
+	}
+	private static void add(long [] p[], long [] q[], long [] tmp[])
+	{
+		long [] a = tmp[0];
+		long [] b = tmp[1];
+		long [] c = tmp[2];
+		long [] d = tmp[3];
+		long [] t = tmp[4];
+		long [] e = tmp[5];
+		long [] f = tmp[6];
+		long [] g = tmp[7];
+		long [] h = tmp[8];
 
 
 		long [] p0 = p[0];
@@ -3063,21 +3285,29 @@ public final class TweetNaclFast {
 
 	private static void pack(byte [] r, long [] p[])
 	{
-		long [] tx = new long[16];
-		long [] ty = new long[16];
-		long [] zi = new long[16];
+		pack(r,0, p, new long [6] [16], new byte[32]);
+	}
+	private static void pack(byte [] r,final int roff, long [] p[], long [] tmp[], byte [] d)
+	{
+		long [] tx = tmp[0];
+		long [] ty = tmp[1];
+		long [] zi = tmp[2];
 
-		inv25519(zi,0, p[2],0); 
+		inv25519(zi,0, p[2],0, tmp[3]);
 
 		M(tx,0, p[0],0, zi,0);
 		M(ty,0, p[1],0, zi,0);
 
-		pack25519(r, ty,0);
+		pack25519(r,roff, ty,0, tmp[4], tmp[5]);
 
-		r[31] ^= par25519(tx,0) << 7;
+		r[31+roff] ^= par25519(tx,0, d, tmp[4], tmp[5]) << 7;
 	}
 
 	private static void scalarmult(long [] p[], long [] q[], byte[] s,final int soff)
+	{
+		scalarmult(p, q, s,soff, new long [9] [16]);
+	}
+	private static void scalarmult(long [] p[], long [] q[], byte[] s,final int soff, long [] tmp[])
 	{
 		int i;
 
@@ -3090,8 +3320,8 @@ public final class TweetNaclFast {
 			byte b = (byte) ((s[i/8+soff] >>> (i&7))&1);
 
 			cswap(p,q,b);
-			add(q,p);
-			add(p,p);
+			add(q,p, tmp);
+			add(p,p, tmp);
 			cswap(p,q,b);
 		}
 
@@ -3109,21 +3339,19 @@ public final class TweetNaclFast {
 		q[2] = new long [16];
 		q[3] = new long [16];
 
+		scalarbase(p, s,soff, q, new long [9] [16]);
+	}
+	private static void scalarbase(long [] p[], byte[] s,final int soff, long [] q[], long [] tmp[])
+	{
 		set25519(q[0],X);
 		set25519(q[1],Y);
 		set25519(q[2],gf1);
 		M(q[3],0, X,0, Y,0);
-		scalarmult(p,q, s,soff);
+		scalarmult(p,q, s,soff, tmp);
 	}
 
 	public static int  crypto_sign_keypair(byte [] pk, byte [] sk, boolean seeded) {
 		byte [] d = new byte[64];
-		long [] [] p = new long [4] [];
-
-		p[0] = new long [16];
-		p[1] = new long [16];
-		p[2] = new long [16];
-		p[3] = new long [16];
 
 		int i;
 
@@ -3133,8 +3361,7 @@ public final class TweetNaclFast {
 		d[31] &= 127;
 		d[31] |= 64;
 
-		scalarbase(p, d,0);
-		pack(pk, p);
+		Curve25519.scalarbase(pk,0, d,0);
 
 		for (i = 0; i < 32; i++) sk[i+32] = pk[i];
 		return 0;
@@ -3180,7 +3407,10 @@ public final class TweetNaclFast {
 
 	private static void reduce(byte [] r)
 	{
-		long[] x = new long [64];
+		reduce(r, new long [64]);
+	}
+	private static void reduce(byte [] r, long [] x)
+	{
 		int i;
 		
 		for (i = 0; i < 64; i ++) x[i] = (long) (r[i]&0xff);
@@ -3199,12 +3429,6 @@ public final class TweetNaclFast {
 		int i, j;
 		long [] x = new long[64];
 
-		long [] [] p = new long [4] [];
-		p[0] = new long [16];
-		p[1] = new long [16];
-		p[2] = new long [16];
-		p[3] = new long [16];
-
 		crypto_hash(d, sk,0, 32);
 		d[0] &= 248;
 		d[31] &= 127;
@@ -3218,8 +3442,7 @@ public final class TweetNaclFast {
 
 		crypto_hash(r, sm,32, n+32);
 		reduce(r);
-		scalarbase(p, r,0);
-		pack(sm,p);
+		Curve25519.scalarbase(sm,0, r,0);
 
 		for (i = 0; i < 32; i ++) sm[i+32] = sk[i+32];
 		crypto_hash(h, sm,0, n + 64);
@@ -3238,16 +3461,22 @@ public final class TweetNaclFast {
 
 	private static int unpackneg(long [] r[], byte p[])
 	{
-		long []    t = new long [16];
-		long []  chk = new long [16];
-		long []  num = new long [16];
-		long []  den = new long [16];
-		long [] den2 = new long [16];
-		long [] den4 = new long [16];
-		long [] den6 = new long [16];
+		return unpackneg(r, p,0, new long [10] [16], new byte[32], new byte[32]);
+	}
+	private static int unpackneg(long [] r[], byte p[],final int poff, long [] tmp[], byte [] c, byte [] d)
+	{
+		long []    t = tmp[0];
+		long []  chk = tmp[1];
+		long []  num = tmp[2];
+		long []  den = tmp[3];
+		long [] den2 = tmp[4];
+		long [] den4 = tmp[5];
+		long [] den6 = tmp[6];
+		long []   m0 = tmp[7];
+		long []   t0 = tmp[8];
 
 		set25519(r[2], gf1);
-		unpack25519(r[1], p);
+		unpack25519(r[1], p,poff);
 		S(num, r[1]);
 		M(den, num, D);
 		Z(num, num, r[2]);
@@ -3259,7 +3488,7 @@ public final class TweetNaclFast {
 		M(t, den6, num);
 		M(t, t, den);
 
-		pow2523(t, t);
+		pow2523(t, t, tmp[9]);
 		M(t, t, num);
 		M(t, t, den);
 		M(t, t, den);
@@ -3267,13 +3496,13 @@ public final class TweetNaclFast {
 
 		S(chk, r[0]);
 		M(chk, chk, den);
-		if (neq25519(chk, num)!=0) M(r[0], r[0], I);
+		if (neq25519(chk,0, num,0, c, d, m0, t0)!=0) M(r[0], r[0], I);
 
 		S(chk, r[0]);
 		M(chk, chk, den);
-		if (neq25519(chk, num)!=0) return -1;
+		if (neq25519(chk,0, num,0, c, d, m0, t0)!=0) return -1;
 
-		if (par25519(r[0]) == ((p[31]&0xFF)>>>7)) Z(r[0], gf0, r[0]);
+		if (par25519(r[0],0, c, m0, t0) == ((p[31+poff]&0xFF)>>>7)) Z(r[0], gf0, r[0]);
 
 		M(r[3], r[0], r[1]);
 
@@ -3314,6 +3543,8 @@ public final class TweetNaclFast {
 		reduce(h);
 		scalarmult(p,q, h,0);
 
+		// S comes from the signature and may be unreduced, so it takes the
+		// generic path rather than the table
 		scalarbase(q, sm,32+smoff);
 		add(p,q);
 		pack(t,p);
@@ -3332,6 +3563,265 @@ public final class TweetNaclFast {
 		return 0;
 	}
 
+	private static void scalar_muladd(byte [] r, byte [] a, byte [] b, byte [] c)
+	{
+		long [] x = new long[64];
+		int i, j;
+
+		for (i = 0; i < 32; i ++) x[i] = (long) (c[i]&0xff);
+		for (i = 0; i < 32; i ++) for (j = 0; j < 32; j ++) x[i+j] += (a[i]&0xff) * (long) (b[j]&0xff);
+
+		modL(r,0, x);
+	}
+
+	/*
+	 * @description
+	 *   Checks entries [start, end) with one random linear combination,
+	 *   8*((sum z*S)*B - sum z*R - sum (z*h)*A) == 0, evaluated by a 4-bit
+	 *   windowed multi-scalar multiplication. Entries whose R or A does not
+	 *   decode are marked invalid and left out. Only public data is
+	 *   involved, so this runs in variable time.
+	 * */
+	private static boolean crypto_sign_verify_batch(byte [][] messages, byte [][] signatures, byte [][] publicKeys,
+			int start, int end, boolean [] valid)
+	{
+		int n = end - start;
+		long [][][] points = new long [2 * n][][];
+		byte [][] scalars = new byte [2 * n][];
+		byte [] sumS = new byte[32];
+		byte [] zero = new byte[32];
+		byte [] z = new byte[32];
+		byte [] h = new byte[64];
+		byte [] s = new byte[32];
+		Sha512 sha = new Sha512();
+		int count = 0;
+		int i, k;
+
+		for (i = start; i < end; i++) {
+			byte [] sig = signatures[i];
+			byte [] pk = publicKeys[i];
+			byte [] m = messages[i];
+
+			long [] [] negA = { new long [16], new long [16], new long [16], new long [16] };
+			long [] [] negR = { new long [16], new long [16], new long [16], new long [16] };
+
+			if (sig == null || pk == null || m == null
+					|| sig.length != Signature.signatureLength || pk.length != Signature.publicKeyLength
+					|| unpackneg(negA, pk) != 0 || unpackneg(negR, Arrays.copyOf(sig, 32)) != 0) {
+				valid[i] = false;
+				continue;
+			}
+			valid[i] = true;
+
+			// h = H(R || A || M) mod L
+			sha.update(sig, 0, 32);
+			sha.update(pk, 0, 32);
+			sha.update(m);
+			sha.digest(h, 0);
+			reduce(h);
+
+			for (k = 0; k < 32; k++) z[k] = 0;
+			randombytes(z, 16);
+			System.arraycopy(sig, 32, s, 0, 32);
+
+			scalar_muladd(sumS, z, s, sumS);
+
+			points[count] = negR;
+			scalars[count++] = Arrays.copyOf(z, 32);
+
+			byte [] zh = new byte[32];
+			scalar_muladd(zh, z, h, zero);
+			points[count] = negA;
+			scalars[count++] = zh;
+		}
+
+		if (count == 0)
+			return true;
+
+		// precompute 1*P .. 15*P for every point
+		long [][][][] multiples = new long [count][15][][];
+		for (k = 0; k < count; k++) {
+			multiples[k][0] = points[k];
+			for (int j = 1; j < 15; j++) {
+				long [] [] q = { new long [16], new long [16], new long [16], new long [16] };
+				for (int c = 0; c < 4; c++) set25519(q[c], multiples[k][j-1][c]);
+				add(q, points[k]);
+				multiples[k][j] = q;
+			}
+		}
+
+		long [] [] p = { new long [16], new long [16], new long [16], new long [16] };
+		set25519(p[0],gf0);
+		set25519(p[1],gf1);
+		set25519(p[2],gf1);
+		set25519(p[3],gf0);
+
+		for (i = 63; i >= 0; i--) {
+			if (i != 63) {
+				add(p,p);
+				add(p,p);
+				add(p,p);
+				add(p,p);
+			}
+
+			for (k = 0; k < count; k++) {
+				int digit = ((scalars[k][i >> 1] & 0xff) >>> ((i & 1) << 2)) & 15;
+				if (digit != 0) add(p, multiples[k][digit - 1]);
+			}
+		}
+
+		// sum z*S mod L is reduced, so the fixed-base table applies
+		long [] [] sb = { new long [16], new long [16], new long [16], new long [16] };
+		byte [] coords = new byte[4 * 32];
+		Curve25519.scalarbase_coords(coords, sumS,0);
+		for (k = 0; k < 4; k++) unpack25519(sb[k], coords,k * 32);
+		add(p, sb);
+
+		// clear the cofactor
+		add(p,p);
+		add(p,p);
+		add(p,p);
+
+		byte [] packed = new byte[32];
+		pack(packed, p);
+
+		byte [] identity = new byte[32];
+		identity[0] = 1;
+
+		return crypto_verify_32(packed,0, identity,0) == 0;
+	}
+
+	/*
+	 * @description
+	 *   Per-thread temporaries of the allocation-free sign and verify paths.
+	 * */
+	private static final class Scratch {
+		final long [] [] p = { new long [16], new long [16], new long [16], new long [16] };
+		final long [] [] q = { new long [16], new long [16], new long [16], new long [16] };
+		final long [] [] t = { new long [16], new long [16], new long [16], new long [16] };
+		final long [] [] fe = new long [10] [16];
+		final long [] x = new long [64];
+
+		final byte [] c = new byte[32];
+		final byte [] d = new byte[32];
+		final byte [] prefix = new byte[64];
+		final byte [] r = new byte[64];
+		final byte [] h = new byte[64];
+
+		final Sha512 sha512 = new Sha512();
+
+		void wipe() {
+			Arrays.fill(x, 0);
+			Arrays.fill(r, (byte) 0);
+			sha512.wipe();
+		}
+	}
+
+	private static final ThreadLocal<Scratch> scratch = new ThreadLocal<Scratch>() {
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+	};
+
+	/*
+	 * @description
+	 *   SHA-512 of p[poff..poff+plen) followed by m[moff..moff+n), hashing
+	 *   the message in place.
+	 * */
+	private static void crypto_hash(byte [] out, byte [] p,final int poff, int plen,
+			byte [] m,final int moff, int n, Scratch sc)
+	{
+		Sha512 sha = sc.sha512;
+
+		sha.reset();
+		sha.update(p, poff, plen);
+		sha.update(m, moff, n);
+		sha.digest(out, 0);
+	}
+
+	/*
+	 * @description
+	 *   Expands a 32-byte seed into the clamped scalar (first half) and the
+	 *   nonce prefix (second half) that signing uses.
+	 * */
+	public static byte [] crypto_sign_expand(byte [] sk)
+	{
+		byte [] d = new byte[64];
+
+		crypto_hash(d, sk,0, 32);
+		d[0] &= 248;
+		d[31] &= 127;
+		d[31] |= 64;
+
+		return d;
+	}
+
+	/*
+	 * @description
+	 *   Writes the detached signature of m[moff..moff+n) to sig[sigoff..]
+	 *   using an expanded key from crypto_sign_expand and the public key at
+	 *   pk[pkoff..]. Uses only per-thread
+	 *   scratch space, which is wiped of secret values afterwards. The
+	 *   signature must not overlap the message.
+	 * */
+	public static int crypto_sign_detached(byte [] sig,final int sigoff, byte [] m,final int moff, int n,
+			byte [] ek, byte [] pk,final int pkoff)
+	{
+		Scratch sc = scratch.get();
+		byte [] r = sc.r, h = sc.h;
+		long [] x = sc.x;
+		int i, j;
+
+		try {
+			crypto_hash(r, ek,32, 32, m,moff, n, sc);
+			reduce(r, x);
+
+			Curve25519.scalarbase(sig,sigoff, r,0);
+
+			System.arraycopy(sig, sigoff, sc.prefix, 0, 32);
+			System.arraycopy(pk, pkoff, sc.prefix, 32, 32);
+			crypto_hash(h, sc.prefix,0, 64, m,moff, n, sc);
+			reduce(h, x);
+
+			for (i = 0; i < 64; i ++) x[i] = 0;
+			for (i = 0; i < 32; i ++) x[i] = (long) (r[i]&0xff);
+			for (i = 0; i < 32; i ++) for (j = 0; j < 32; j ++) x[i+j] += (h[i]&0xff) * (long) (ek[j]&0xff);
+
+			modL(sig,sigoff+32, x);
+		} finally {
+			sc.wipe();
+		}
+
+		return 0;
+	}
+
+	/*
+	 * @description
+	 *   Verifies a detached signature of m[moff..moff+n) in place, with the
+	 *   same rules as crypto_sign_open. Returns 0 if it is valid and -1
+	 *   otherwise.
+	 * */
+	public static int crypto_verify_detached(byte [] sig,final int sigoff, byte [] m,final int moff, int n, byte [] pk)
+	{
+		Scratch sc = scratch.get();
+		byte [] h = sc.h;
+
+		if (unpackneg(sc.q, pk,0, sc.fe, sc.c, sc.d) != 0) return -1;
+
+		System.arraycopy(sig, sigoff, sc.prefix, 0, 32);
+		System.arraycopy(pk, 0, sc.prefix, 32, 32);
+		crypto_hash(h, sc.prefix,0, 64, m,moff, n, sc);
+		reduce(h, sc.x);
+
+		scalarmult(sc.p, sc.q, h,0, sc.fe);
+		scalarbase(sc.q, sig,sigoff+32, sc.t, sc.fe);
+		add(sc.p, sc.q, sc.fe);
+		pack(sc.d,0, sc.p, sc.fe, sc.c);
+
+		return crypto_verify_32(sig,sigoff, sc.d,0) == 0 ? 0 : -1;
+	}
+
 	/*
 	 * @description
 	 *   Java SecureRandom generator
@@ -3408,43 +3898,15 @@ public final class TweetNaclFast {
 
   // Check that a pubkey is on the curve.
   public static int is_on_curve(byte p[]) {
-		long[] r[] = { new long [16], new long [16], new long [16], new long [16] };
-
-		long []    t = new long [16];
-		long []  chk = new long [16];
-		long []  num = new long [16];
-		long []  den = new long [16];
-		long [] den2 = new long [16];
-		long [] den4 = new long [16];
-		long [] den6 = new long [16];
-
-		set25519(r[2], gf1);
-		unpack25519(r[1], p);
-		S(num, r[1]);
-		M(den, num, D);
-		Z(num, num, r[2]);
-		A(den, r[2], den);
-
-		S(den2, den);
-		S(den4, den2);
-		M(den6, den4, den2);
-		M(t, den6, num);
-		M(t, t, den);
-
-		pow2523(t, t);
-		M(t, t, num);
-		M(t, t, den);
-		M(t, t, den);
-		M(r[0], t, den);
-
-		S(chk, r[0]);
-		M(chk, chk, den);
-		if (neq25519(chk, num)!=0) M(r[0], r[0], I);
-
-		S(chk, r[0]);
-		M(chk, chk, den);
-		if (neq25519(chk, num)!=0) return 0;
-		return 1;
+		return is_on_curve(p,0) ? 1 : 0;
    }
+
+	/*
+	 * @description
+	 *   Checks p[poff..poff+32) without allocating.
+	 * */
+	public static boolean is_on_curve(byte [] p,final int poff) {
+		return Curve25519.is_on_curve(p, poff);
+	}
 		
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package org.p2p.solanaj.utils;
+
+import banki.security.DigestException;
+import banki.security.MessageDigest;
+import banki.security.MessageDigestSpi;
+import banki.security.NoSuchAlgorithmException;
+import banki.security.Provider;
+import banki.security.Security;
+
+/**
+ * Security provider exposing the TweetNaclFast SHA-512 as
+ * {@code MessageDigest.getInstance("SHA-512")} on devices that ship without
+ * one. Call {@link #install()} once at startup.
+ */
+public final class TweetNaclProvider extends Provider {
+
+    public static final String NAME = "TweetNacl";
+
+    public TweetNaclProvider() {
+        super(NAME, 1.0, "SHA-512 backed by TweetNaclFast");
+
+        put("MessageDigest.SHA-512", Sha512Spi.class.getName());
+        put("Alg.Alias.MessageDigest.SHA512", "SHA-512");
+    }
+
+    /**
+     * Registers the provider at the lowest preference, unless another
+     * provider already supplies SHA-512.
+     *
+     * @return true if the provider was added
+     */
+    public static synchronized boolean install() {
+        try {
+            MessageDigest.getInstance("SHA-512");
+            return false;
+        } catch (NoSuchAlgorithmException e) {
+            return Security.addProvider(new TweetNaclProvider()) != -1;
+        }
+    }
+
+    public static final class Sha512Spi extends MessageDigestSpi implements Cloneable {
+
+        private TweetNaclFast.Sha512 sha = new TweetNaclFast.Sha512();
+
+        @Override
+        protected int engineGetDigestLength() {
+            return TweetNaclFast.Hash.hashLength;
+        }
+
+        @Override
+        protected void engineUpdate(byte input) {
+            sha.update(input);
+        }
+
+        @Override
+        protected void engineUpdate(byte[] input, int offset, int len) {
+            sha.update(input, offset, len);
+        }
+
+        @Override
+        protected byte[] engineDigest() {
+            return sha.digest();
+        }
+
+        @Override
+        protected int engineDigest(byte[] buf, int offset, int len) throws DigestException {
+            if (len < TweetNaclFast.Hash.hashLength) {
+                throw new DigestException("Output buffer too short: " + len);
+            }
+            sha.digest(buf, offset);
+            return TweetNaclFast.Hash.hashLength;
+        }
+
+        @Override
+        protected void engineReset() {
+            sha.reset();
+        }
+
+        @Override
+        public Object clone() throws CloneNotSupportedException {
+            Sha512Spi copy = (Sha512Spi) super.clone();
+            copy.sha = sha.copy();
+            return copy;
+        }
+    }
+
+}
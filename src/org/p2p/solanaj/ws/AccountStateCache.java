@@ -0,0 +1,156 @@
+package org.p2p.solanaj.ws;
+
+import banki.util.Map;
+import banki.util.concurrent.ConcurrentHashMap;
+
+import org.p2p.solanaj.core.PublicKey;
+import org.p2p.solanaj.rpc.RpcApi;
+import org.p2p.solanaj.rpc.RpcClient;
+import org.p2p.solanaj.rpc.RpcException;
+import org.p2p.solanaj.rpc.types.AccountInfo;
+import org.p2p.solanaj.ws.listeners.EpochAccountNotificationEventListener;
+
+/**
+ * Local copy of watched accounts kept current by accountSubscribe. While the
+ * subscription is known to be live, balance and account reads are served
+ * from memory. The {@link SubscriptionManager} restores subscriptions after
+ * a reconnect; until one is confirmed again, reads go to HTTP once.
+ * Updates are only applied if they are at least as recent, by slot, as the
+ * state already held.
+ */
+public class AccountStateCache {
+
+    private class Entry implements EpochAccountNotificationEventListener {
+        private final String key;
+
+        private volatile long handle = -1;
+        private AccountInfo.Value value;
+        private long slot = -1;
+        private int syncedEpoch = -1;
+
+        Entry(String key) {
+            this.key = key;
+        }
+
+        synchronized boolean isSynced(int epoch) {
+            return syncedEpoch == epoch;
+        }
+
+        synchronized AccountInfo.Value getValue() {
+            return value;
+        }
+
+        synchronized void apply(long slot, AccountInfo.Value value, int epoch) {
+            if (slot >= this.slot) {
+                this.slot = slot;
+                this.value = value;
+            }
+
+            syncedEpoch = epoch;
+        }
+
+        @SuppressWarnings("rawtypes")
+        @Override
+        public void onAccountNotification(long slot, Map value, int epoch) {
+            // ignore updates for accounts that are no longer watched
+            if (entries.get(key) != this) {
+                return;
+            }
+
+            // an update received before a reconnect does not vouch for the
+            // new connection, so the entry stays unsynced until one does
+            apply(slot, new AccountInfo.Value(value), epoch);
+        }
+
+        @SuppressWarnings("rawtypes")
+        @Override
+        public void onAccountNotification(long slot, Map value) {
+            onAccountNotification(slot, value, -1);
+        }
+
+        @Override
+        public void onNotifiacationEvent(Object data) {
+        }
+    }
+
+    private final RpcApi api;
+    private final SubscriptionManager subscriptions;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+    public AccountStateCache(RpcClient rpcClient, SubscriptionManager subscriptions) {
+        this(rpcClient.getApi(), subscriptions);
+    }
+
+    public AccountStateCache(RpcApi api, SubscriptionManager subscriptions) {
+        this.api = api;
+        this.subscriptions = subscriptions;
+    }
+
+    /**
+     * Subscribes to an account and seeds its state over HTTP.
+     */
+    public void watch(PublicKey account) throws RpcException {
+        String key = account.toBase58();
+        Entry entry = new Entry(key);
+
+        if (entries.putIfAbsent(key, entry) == null) {
+            entry.handle = subscriptions.accountSubscribe(key, entry);
+            refresh(account, entry);
+        }
+    }
+
+    public void unwatch(PublicKey account) {
+        Entry entry = entries.remove(account.toBase58());
+
+        if (entry != null) {
+            subscriptions.unsubscribe(entry.handle);
+        }
+    }
+
+    public boolean isWatched(PublicKey account) {
+        return entries.containsKey(account.toBase58());
+    }
+
+    public long getBalance(PublicKey account) throws RpcException {
+        Entry entry = entries.get(account.toBase58());
+
+        if (entry == null) {
+            return api.getBalance(account);
+        }
+
+        AccountInfo.Value value = getValue(account, entry);
+        return value != null ? value.getLamports() : 0;
+    }
+
+    public AccountInfo.Value getAccountInfo(PublicKey account) throws RpcException {
+        Entry entry = entries.get(account.toBase58());
+
+        if (entry == null) {
+            return api.getAccountInfo(account).getValue();
+        }
+
+        return getValue(account, entry);
+    }
+
+    private AccountInfo.Value getValue(PublicKey account, Entry entry) throws RpcException {
+        if (subscriptions.isLive(entry.handle) && entry.isSynced(subscriptions.getConnectionEpoch())) {
+            return entry.getValue();
+        }
+
+        return refresh(account, entry);
+    }
+
+    private AccountInfo.Value refresh(PublicKey account, Entry entry) throws RpcException {
+        int epoch = subscriptions.getConnectionEpoch();
+        boolean live = subscriptions.isLive(entry.handle);
+
+        AccountInfo info = api.getAccountInfo(account);
+        long slot = info.gContext() != null ? info.gContext().getSlot() : 0;
+
+        // only a subscription confirmed before the fetch covers later updates
+        entry.apply(slot, info.getValue(), live ? epoch : -1);
+
+        return entry.getValue();
+    }
+
+}
@@ -0,0 +1,523 @@
+package org.p2p.solanaj.ws;
+
+import okio.Buffer;
+
+import banki.io.IOException;
+import banki.net.URI;
+import banki.net.URISyntaxException;
+import banki.util.ArrayList;
+import banki.util.List;
+import banki.util.Map;
+import banki.util.concurrent.ArrayBlockingQueue;
+import banki.util.concurrent.ConcurrentHashMap;
+import banki.util.concurrent.RejectedExecutionHandler;
+import banki.util.concurrent.ScheduledExecutorService;
+import banki.util.concurrent.ThreadFactory;
+import banki.util.concurrent.ThreadLocalRandom;
+import banki.util.concurrent.ThreadPoolExecutor;
+import banki.util.concurrent.TimeUnit;
+import banki.util.concurrent.atomic.AtomicInteger;
+import banki.util.concurrent.atomic.AtomicLong;
+
+import com.squareup.moshi.JsonReader;
+
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.handshake.ServerHandshake;
+import org.p2p.solanaj.rpc.RpcException;
+import org.p2p.solanaj.rpc.RpcMetrics;
+import org.p2p.solanaj.rpc.types.JsonAdapters;
+import org.p2p.solanaj.rpc.types.RpcNotificationResult;
+import org.p2p.solanaj.rpc.types.RpcRequest;
+import org.p2p.solanaj.rpc.types.RpcResponse;
+import org.p2p.solanaj.rpc.types.RpcResultObject;
+import org.p2p.solanaj.ws.listeners.AccountNotificationEventListener;
+import org.p2p.solanaj.ws.listeners.EpochAccountNotificationEventListener;
+import org.p2p.solanaj.ws.listeners.NotificationEventListener;
+
+/**
+ * Multiplexes any number of subscriptions over one WebSocket and keeps them
+ * alive across disconnects.
+ * <p>
+ * Every subscription is identified by a local handle that stays valid for
+ * its lifetime. When the socket drops, the manager reconnects with jittered
+ * exponential backoff and subscribes everything again; the server ids change
+ * but callers never see them. Each frame is parsed once on the socket
+ * thread, and listeners run on a fixed number of dispatch lanes. A
+ * subscription always uses the same lane, so its notifications arrive in
+ * order. When a lane's queue is full the socket thread waits, which pushes
+ * back on the server instead of buffering without limit.
+ */
+public class SubscriptionManager {
+    public static final int DEFAULT_DISPATCH_THREADS = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 4096;
+
+    private static final long MIN_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30000;
+
+    private static final JsonReader.Options FRAME_OPTIONS = JsonReader.Options.of("id", "result", "error", "method",
+            "params");
+
+    private static final AtomicInteger managers = new AtomicInteger();
+
+    private final class Subscription {
+        final long handle;
+        final String method;
+        final List<Object> params;
+        final String unsubscribeMethod;
+        final NotificationEventListener listener;
+
+        // server id and the connection epoch it belongs to
+        volatile long serverId = -1;
+        volatile int epoch = -1;
+
+        // when the latest subscribe request went out
+        volatile long sentAt;
+
+        Subscription(long handle, String method, List<Object> params, String unsubscribeMethod,
+                NotificationEventListener listener) {
+            this.handle = handle;
+            this.method = method;
+            this.params = params;
+            this.unsubscribeMethod = unsubscribeMethod;
+            this.listener = listener;
+        }
+    }
+
+    private final class Connection extends WebSocketClient {
+        Connection(URI serverUri) {
+            super(serverUri);
+        }
+
+        @Override
+        public void onOpen(ServerHandshake handshakedata) {
+            connected(this);
+        }
+
+        @Override
+        public void onMessage(String message) {
+            received(this, message);
+        }
+
+        @Override
+        public void onClose(int code, String reason, boolean remote) {
+            disconnected(this);
+        }
+
+        @Override
+        public void onError(Exception ex) {
+            // onClose follows and schedules the reconnect
+        }
+    }
+
+    private static final RejectedExecutionHandler WAIT_FOR_SPACE = new RejectedExecutionHandler() {
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                return;
+            }
+
+            try {
+                executor.getQueue().put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    };
+
+    private final URI serverUri;
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor[] lanes;
+
+    private final ConcurrentHashMap<Long, Subscription> subscriptions = new ConcurrentHashMap<Long, Subscription>();
+    private final ConcurrentHashMap<String, Subscription> pending = new ConcurrentHashMap<String, Subscription>();
+    private final ConcurrentHashMap<Long, Subscription> active = new ConcurrentHashMap<Long, Subscription>();
+    private final AtomicLong nextHandle = new AtomicLong();
+    private final RpcMetrics metrics = new RpcMetrics();
+
+    private volatile Connection connection;
+    private volatile int connectionEpoch;
+    private volatile boolean started;
+    private int reconnectAttempts;
+
+    public SubscriptionManager(String endpoint, ScheduledExecutorService scheduler) {
+        this(toWebSocketUri(endpoint), scheduler, DEFAULT_DISPATCH_THREADS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param scheduler      runs the reconnect attempts
+     * @param dispatchThreads number of listener lanes
+     * @param queueCapacity  notifications buffered per lane before the socket
+     *                       thread waits
+     */
+    public SubscriptionManager(URI serverUri, ScheduledExecutorService scheduler, int dispatchThreads,
+            int queueCapacity) {
+        this.serverUri = serverUri;
+        this.scheduler = scheduler;
+        this.lanes = new ThreadPoolExecutor[dispatchThreads];
+
+        final String prefix = "ws-dispatch-" + managers.incrementAndGet() + "-";
+        for (int i = 0; i < dispatchThreads; i++) {
+            final int lane = i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r, prefix + lane);
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    }, WAIT_FOR_SPACE);
+        }
+    }
+
+    /**
+     * Maps an HTTP RPC endpoint to its WebSocket endpoint: https becomes wss,
+     * and an explicit port is bumped by one, as the validator listens there.
+     * The path and query are kept, as hosted endpoints carry the API key
+     * there.
+     */
+    public static URI toWebSocketUri(String endpoint) {
+        try {
+            URI uri = new URI(endpoint);
+            String scheme = "https".equals(uri.getScheme()) ? "wss" : "ws";
+            String port = uri.getPort() != -1 ? ":" + (uri.getPort() + 1) : "";
+            String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+            String query = uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "";
+
+            return new URI(scheme + "://" + uri.getHost() + port + path + query);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+
+        started = true;
+        connect();
+    }
+
+    /**
+     * Closes the socket and the dispatch lanes. Subscriptions are dropped.
+     */
+    public synchronized void close() {
+        started = false;
+
+        Connection c = connection;
+        connection = null;
+        if (c != null) {
+            c.close();
+        }
+
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        subscriptions.clear();
+        pending.clear();
+        active.clear();
+    }
+
+    public boolean isOpen() {
+        Connection c = connection;
+        return c != null && c.isOpen();
+    }
+
+    /**
+     * Counts successful connections. Notifications can have been missed
+     * between the previous epoch and this one.
+     */
+    public int getConnectionEpoch() {
+        return connectionEpoch;
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Statistics per method: subscribe round trips and their errors under
+     * the subscribe method, notifications under the notification method.
+     * Sizes are the lengths of the text frames.
+     */
+    public RpcMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * True once the server has confirmed the subscription on the current
+     * connection, so that every later change will be notified.
+     */
+    public boolean isLive(long handle) {
+        Subscription sub = subscriptions.get(handle);
+        return sub != null && sub.epoch == connectionEpoch && isOpen();
+    }
+
+    public long accountSubscribe(String key, NotificationEventListener listener) {
+        List<Object> params = new ArrayList<Object>();
+        params.add(key);
+
+        return subscribe("accountSubscribe", params, "accountUnsubscribe", listener);
+    }
+
+    /**
+     * The server ends a signature subscription after its one notification,
+     * so it is removed here at the same time.
+     */
+    public long signatureSubscribe(String signature, NotificationEventListener listener) {
+        List<Object> params = new ArrayList<Object>();
+        params.add(signature);
+
+        return subscribe("signatureSubscribe", params, "signatureUnsubscribe", listener);
+    }
+
+    /**
+     * @return a handle for {@link #unsubscribe(long)}
+     */
+    public long subscribe(String method, List<Object> params, String unsubscribeMethod,
+            NotificationEventListener listener) {
+        Subscription sub = new Subscription(nextHandle.incrementAndGet(), method, params, unsubscribeMethod,
+                listener);
+        subscriptions.put(sub.handle, sub);
+
+        Connection c = connection;
+        if (c != null && c.isOpen()) {
+            send(c, sub);
+        }
+
+        return sub.handle;
+    }
+
+    public boolean unsubscribe(long handle) {
+        Subscription sub = subscriptions.remove(handle);
+        if (sub == null) {
+            return false;
+        }
+
+        long serverId = sub.serverId;
+        if (serverId != -1 && sub.epoch == connectionEpoch) {
+            active.remove(serverId, sub);
+            sendUnsubscribe(connection, sub, serverId);
+        }
+
+        return true;
+    }
+
+    private synchronized void connect() {
+        if (!started) {
+            return;
+        }
+
+        connection = new Connection(serverUri);
+        connection.connect();
+    }
+
+    private synchronized void connected(Connection c) {
+        if (c != connection) {
+            c.close();
+            return;
+        }
+
+        reconnectAttempts = 0;
+        connectionEpoch++;
+
+        for (Subscription sub : subscriptions.values()) {
+            send(c, sub);
+        }
+    }
+
+    private synchronized void disconnected(Connection c) {
+        if (c != connection || !started) {
+            return;
+        }
+
+        // server ids die with the connection
+        pending.clear();
+        active.clear();
+
+        // full jitter over an exponentially growing window
+        long window = Math.min(MAX_BACKOFF_MILLIS, MIN_BACKOFF_MILLIS << Math.min(reconnectAttempts, 16));
+        long delay = window / 2 + ThreadLocalRandom.current().nextLong(window / 2 + 1);
+        reconnectAttempts++;
+
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                connect();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void send(Connection c, Subscription sub) {
+        RpcRequest request = new RpcRequest(sub.method, sub.params);
+        String json = RpcRequest.ADAPTER.toJson(request);
+        sub.sentAt = System.nanoTime();
+        pending.put(request.getId(), sub);
+
+        try {
+            c.send(json);
+            metrics.forMethod(sub.method).sent(json.length());
+        } catch (RuntimeException e) {
+            // the socket closed underneath; the reconnect subscribes again
+            pending.remove(request.getId());
+        }
+    }
+
+    private void sendUnsubscribe(Connection c, Subscription sub, long serverId) {
+        if (c == null || !c.isOpen()) {
+            return;
+        }
+
+        List<Object> params = new ArrayList<Object>();
+        params.add(serverId);
+
+        try {
+            String json = RpcRequest.ADAPTER.toJson(new RpcRequest(sub.unsubscribeMethod, params));
+            c.send(json);
+            metrics.forMethod(sub.unsubscribeMethod).sent(json.length());
+        } catch (RuntimeException e) {
+            // the server drops it with the connection anyway
+        }
+    }
+
+    /**
+     * Reads a frame in one pass: a response to a (un)subscribe request has
+     * an id, a notification has a method and params.
+     */
+    private void received(Connection c, String message) {
+        String id = null;
+        Object result = null;
+        RpcResponse.Error error = null;
+        boolean failed = false;
+        String method = null;
+        RpcNotificationResult.Params params = null;
+
+        try {
+            JsonReader reader = JsonReader.of(new Buffer().writeUtf8(message));
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.selectName(FRAME_OPTIONS)) {
+                    case 0:
+                        id = JsonAdapters.STRING.fromJson(reader);
+                        break;
+                    case 1:
+                        result = JsonAdapters.VALUE.fromJson(reader);
+                        break;
+                    case 2:
+                        failed = true;
+                        error = RpcResponse.Error.ADAPTER.fromJson(reader);
+                        break;
+                    case 3:
+                        method = JsonAdapters.STRING.fromJson(reader);
+                        break;
+                    case 4:
+                        params = RpcNotificationResult.Params.ADAPTER.fromJson(reader);
+                        break;
+                    default:
+                        reader.skipName();
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IOException e) {
+            // not a JSON-RPC frame
+            return;
+        }
+
+        if (id != null) {
+            Subscription sub = pending.remove(id);
+
+            if (sub != null) {
+                RpcException rejection = null;
+                if (failed) {
+                    rejection = error != null ? new RpcException(error.getMessage(), error.getCode())
+                            : new RpcException("Subscription rejected");
+                }
+
+                RpcMetrics.MethodStats stats = metrics.forMethod(sub.method);
+                stats.received(message.length());
+                stats.record(sub.sentAt, rejection);
+            }
+
+            confirmed(c, sub, failed ? null : result);
+        } else if (method != null && params != null) {
+            metrics.forMethod(method).notified(message.length());
+            notified(c, method, params);
+        }
+    }
+
+    private void confirmed(Connection c, Subscription sub, Object result) {
+        if (sub == null || !(result instanceof Number)) {
+            // an unsubscribe acknowledgement, or a rejected subscription
+            return;
+        }
+
+        long serverId = ((Number) result).longValue();
+        int epoch = connectionEpoch;
+
+        synchronized (sub) {
+            if (c != connection || subscriptions.get(sub.handle) != sub
+                    || (sub.epoch == epoch && sub.serverId != serverId)) {
+                // cancelled meanwhile, or a duplicate from a subscribe racing the reconnect
+                sendUnsubscribe(c, sub, serverId);
+                return;
+            }
+
+            sub.serverId = serverId;
+            sub.epoch = epoch;
+        }
+
+        active.put(serverId, sub);
+    }
+
+    private void notified(Connection c, final String method, RpcNotificationResult.Params params) {
+        final Subscription sub = active.get(params.getSubscription());
+        if (sub == null || c != connection) {
+            return;
+        }
+
+        // the lane may run it after a reconnect; listeners must judge it by
+        // the connection that received it
+        final int epoch = sub.epoch;
+
+        if ("signatureNotification".equals(method)) {
+            subscriptions.remove(sub.handle, sub);
+            active.remove(params.getSubscription(), sub);
+        }
+
+        final RpcNotificationResult.Result result = params.getResult();
+        lanes[(int) (sub.handle % lanes.length)].execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    dispatch(sub.listener, method, result, epoch);
+                } catch (RuntimeException e) {
+                    // a failing listener must not stop its lane
+                }
+            }
+        });
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void dispatch(NotificationEventListener listener, String method,
+            RpcNotificationResult.Result result, int epoch) {
+        Object value = result != null ? result.getValue() : null;
+
+        if ("signatureNotification".equals(method)) {
+            listener.onNotifiacationEvent(new SignatureNotification(value instanceof Map ? ((Map) value).get("err") : null));
+        } else if ("accountNotification".equals(method) && listener instanceof EpochAccountNotificationEventListener) {
+            RpcResultObject.Context context = result.gContext();
+            ((EpochAccountNotificationEventListener) listener).onAccountNotification(
+                    context != null ? context.getSlot() : 0, (Map) value, epoch);
+        } else if ("accountNotification".equals(method) && listener instanceof AccountNotificationEventListener) {
+            RpcResultObject.Context context = result.gContext();
+            ((AccountNotificationEventListener) listener).onAccountNotification(
+                    context != null ? context.getSlot() : 0, (Map) value);
+        } else {
+            listener.onNotifiacationEvent(value);
+        }
+    }
+
+}
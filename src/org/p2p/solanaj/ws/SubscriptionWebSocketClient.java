@@ -13,16 +13,26 @@ import com.squareup.moshi.Types;
 
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
+import org.p2p.solanaj.rpc.RpcException;
+import org.p2p.solanaj.rpc.RpcMetrics;
 import org.p2p.solanaj.rpc.types.RpcNotificationResult;
 import org.p2p.solanaj.rpc.types.RpcRequest;
 import org.p2p.solanaj.rpc.types.RpcResponse;
+import org.p2p.solanaj.rpc.types.RpcResultObject;
+import org.p2p.solanaj.ws.listeners.AccountNotificationEventListener;
 import org.p2p.solanaj.ws.listeners.NotificationEventListener;
 
+/**
+ * @deprecated Does not resubscribe after a disconnect and runs listeners on
+ *             the socket thread; use {@link SubscriptionManager}.
+ */
+@Deprecated
 public class SubscriptionWebSocketClient extends WebSocketClient {
 
     private class SubscriptionParams {
         RpcRequest request;
         NotificationEventListener listener;
+        long sentAt;
 
         SubscriptionParams(RpcRequest request, NotificationEventListener listener) {
             this.request = request;
@@ -36,13 +46,17 @@ public class SubscriptionWebSocketClient extends WebSocketClient {
     private Map<String, Long> subscriptionIds = new HashMap<>();
     private Map<Long, NotificationEventListener> subscriptionLinsteners = new HashMap<>();
 
+    private volatile int connectionEpoch;
+
+    private final RpcMetrics metrics = new RpcMetrics();
+
     public static SubscriptionWebSocketClient getInstance(String endpoint) {
         URI endpointURI;
         URI serverURI;
 
         try {
             endpointURI = new URI(endpoint);
-            serverURI = new URI(endpointURI.getScheme() == "https" ? "wss" : "ws" + "://" + endpointURI.getHost());
+            serverURI = new URI(("https".equals(endpointURI.getScheme()) ? "wss" : "ws") + "://" + endpointURI.getHost());
         } catch (URISyntaxException e) {
             throw new IllegalArgumentException(e);
         }
@@ -88,8 +102,24 @@ public class SubscriptionWebSocketClient extends WebSocketClient {
         updateSubscriptions();
     }
 
+    /**
+     * Counts successful connections. Subscriptions made before the current
+     * epoch may have been lost with the old socket.
+     */
+    public int getConnectionEpoch() {
+        return connectionEpoch;
+    }
+
+    /**
+     * Statistics per method, as in {@link SubscriptionManager#getMetrics()}.
+     */
+    public RpcMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public void onOpen(ServerHandshake handshakedata) {
+        connectionEpoch++;
         updateSubscriptions();
     }
 
@@ -103,6 +133,14 @@ public class SubscriptionWebSocketClient extends WebSocketClient {
             RpcResponse<Long> rpcResult = resultAdapter.fromJson(message);
             String rpcResultId = rpcResult.getId();
             if (rpcResultId != null) {
+                SubscriptionParams sub = subscriptions.get(rpcResultId);
+                if (sub != null) {
+                    RpcMetrics.MethodStats stats = metrics.forMethod(sub.request.getMethod());
+                    stats.received(message.length());
+                    stats.record(sub.sentAt, rpcResult.getError() == null ? null
+                            : new RpcException(rpcResult.getError().getMessage(), rpcResult.getError().getCode()));
+                }
+
                 if (subscriptionIds.containsKey(rpcResultId)) {
                     subscriptionIds.put(rpcResultId, rpcResult.getResult());
                     subscriptionLinsteners.put(rpcResult.getResult(), subscriptions.get(rpcResultId).listener);
@@ -112,6 +150,7 @@ public class SubscriptionWebSocketClient extends WebSocketClient {
                 JsonAdapter<RpcNotificationResult> notificationResultAdapter = new Moshi.Builder().build()
                         .adapter(RpcNotificationResult.class);
                 RpcNotificationResult result = notificationResultAdapter.fromJson(message);
+                metrics.forMethod(result.getMethod()).notified(message.length());
                 NotificationEventListener listener = subscriptionLinsteners.get(result.getParams().getSubscription());
 
                 Map value = (Map) result.getParams().getResult().getValue();
@@ -121,7 +160,13 @@ public class SubscriptionWebSocketClient extends WebSocketClient {
                         listener.onNotifiacationEvent(new SignatureNotification(value.get("err")));
                         break;
                     case "accountNotification":
-                        listener.onNotifiacationEvent(value);
+                        if (listener instanceof AccountNotificationEventListener) {
+                            RpcResultObject.Context context = result.getParams().getResult().gContext();
+                            ((AccountNotificationEventListener) listener)
+                                    .onAccountNotification(context != null ? context.getSlot() : 0, value);
+                        } else {
+                            listener.onNotifiacationEvent(value);
+                        }
                         break;
                 }
             }
@@ -147,7 +192,10 @@ public class SubscriptionWebSocketClient extends WebSocketClient {
             JsonAdapter<RpcRequest> rpcRequestJsonAdapter = new Moshi.Builder().build().adapter(RpcRequest.class);
 
             for (SubscriptionParams sub : subscriptions.values()) {
-                send(rpcRequestJsonAdapter.toJson(sub.request));
+                String json = rpcRequestJsonAdapter.toJson(sub.request);
+                sub.sentAt = System.nanoTime();
+                send(json);
+                metrics.forMethod(sub.request.getMethod()).sent(json.length());
             }
         }
     }
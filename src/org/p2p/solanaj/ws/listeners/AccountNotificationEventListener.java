@@ -0,0 +1,11 @@
+package org.p2p.solanaj.ws.listeners;
+
+import banki.util.Map;
+
+/**
+ * Account listener that also receives the slot each update was observed at.
+ */
+public interface AccountNotificationEventListener extends NotificationEventListener {
+    @SuppressWarnings("rawtypes")
+    public void onAccountNotification(long slot, Map value);
+}
@@ -0,0 +1,13 @@
+package org.p2p.solanaj.ws.listeners;
+
+import banki.util.Map;
+
+/**
+ * Account listener that is also told the connection epoch of the
+ * {@code SubscriptionManager} that received each update, which can be
+ * older than the current one by the time the listener runs.
+ */
+public interface EpochAccountNotificationEventListener extends AccountNotificationEventListener {
+    @SuppressWarnings("rawtypes")
+    public void onAccountNotification(long slot, Map value, int epoch);
+}